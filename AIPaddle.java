@@ -2,6 +2,9 @@ package bricker.gameobjects;
 
 import bricker.brick_strategies.ExtraPaddleStrategy;
 import bricker.main.BrickerGameManager;
+import bricker.main.ParallelUpdatable;
+import bricker.main.ParallelUpdater;
+import bricker.main.UpdateEffects;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.gui.rendering.Renderable;
@@ -13,20 +16,29 @@ import danogl.util.Vector2;
  * @author maoz bar-shimon
  * @see ExtraPaddleStrategy
  */
-public class AIPaddle extends GameObject {
+public class AIPaddle extends FixedPointObject implements ParallelUpdatable {
     private static final int MOVEMENT_SPEED = 300;
-    private static final int MAX_HITS = 4;
+
+    /**
+     * How the AIPaddle chooses where to move.
+     * FOLLOW_USER - imitates the x position of the user paddle
+     * INTERCEPT - moves to where the most urgent ball (or puck) is predicted to land
+     */
+    public enum Mode {
+        FOLLOW_USER,
+        INTERCEPT
+    }
 
 
     /**
      * private members
      * toFollow - the user paddle, that the AIPaddle will be imitating
-     * hits - the number of times the AIPaddle has been hit
      * game - reference to the BrickGameManager that is handling the game
+     * interceptPlanner - predicts ball landings, null when following the user paddle
      */
     private final GameObject toFollow;
-    private int hits;
     private final BrickerGameManager gameManager;
+    private final InterceptPlanner interceptPlanner;
 
     /**
      * constructs an AIPaddle object
@@ -38,14 +50,35 @@ public class AIPaddle extends GameObject {
      */
     public AIPaddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
                     GameObject objectToFollow, BrickerGameManager gameManager){
+        this(topLeftCorner, dimensions, renderable, objectToFollow, gameManager, Mode.FOLLOW_USER);
+    }
+
+    /**
+     * constructs an AIPaddle object with the given movement mode
+     * @param topLeftCorner of the AIPaddle that is being created
+     * @param dimensions of the AIPaddle
+     * @param renderable the image of the AIPaddle
+     * @param objectToFollow the user paddle, followed when no ball is approaching
+     * @param gameManager manager of the game that is being played
+     * @param mode how the AIPaddle chooses where to move
+     */
+    public AIPaddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                    GameObject objectToFollow, BrickerGameManager gameManager, Mode mode){
         super(topLeftCorner, dimensions, renderable);
         toFollow = objectToFollow;
-        hits = 0;
         this.gameManager = gameManager;
+        if(mode == Mode.INTERCEPT){
+            interceptPlanner = gameManager.getInterceptPlanner();
+            interceptPlanner.setInterceptLine(topLeftCorner.y());
+        }
+        else{
+            interceptPlanner = null;
+        }
     }
 
     /**
-     * updates the AIPaddles position to match the user paddle.
+     * updates the AIPaddles position to match the user paddle, or in intercept mode, to match
+     * the predicted landing spot of the most urgent ball.
      * @param deltaTime The time elapsed, in seconds, since the last frame. Can
      *                  be used to determine a new position/velocity by multiplying
      *                  this delta with the velocity/acceleration respectively
@@ -55,20 +88,41 @@ public class AIPaddle extends GameObject {
      */
     @Override
     public void update(float deltaTime) {
+        ParallelUpdater parallelUpdater = gameManager.getParallelUpdater();
+        if(parallelUpdater.isManaged(this)) return;
+        updateDynamic(deltaTime, parallelUpdater.immediateEffects());
+    }
+
+    /**
+     * Moves the AIPaddle towards its target. Only reads the rest of the game, so it may run
+     * in the parallel update phase.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     * @param effects Not used, the AIPaddle does not change the rest of the game.
+     */
+    @Override
+    public void updateDynamic(float deltaTime, UpdateEffects effects) {
         super.update(deltaTime);
+        float targetX = toFollow.getCenter().x();
+        if(interceptPlanner != null){
+            float landingX = interceptPlanner.mostUrgentLandingX();
+            if(!Float.isNaN(landingX)){
+                targetX = landingX;
+            }
+        }
         Vector2 movementDir = Vector2.ZERO;
-        if(toFollow.getCenter().x() < getCenter().x()){
+        if(targetX < getCenter().x()){
             movementDir = Vector2.LEFT;
         }
-        if(toFollow.getCenter().x() > getCenter().x()){
+        if(targetX > getCenter().x()){
             movementDir = Vector2.RIGHT;
         }
         setVelocity(movementDir.mult(MOVEMENT_SPEED));
     }
 
     /**
-     * As requested in the assignment, the AIPaddle will be removed from the game if
-     * it is hit more than six times
+     * Reports the hit to the effect scheduler of the game. As requested in the assignment,
+     * the AIPaddle will be removed from the game if it is hit more than four times
+     * (see {@link ExtraPaddleStrategy})
      * @param other The GameObject with which a collision occurred.
      * @param collision Information regarding this collision.
      *                  A reasonable elastic behavior can be achieved with:
@@ -77,10 +131,6 @@ public class AIPaddle extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-         hits++;
-         if(hits > MAX_HITS){
-             gameManager.removeGameObjectFromGame(this);
-             hits = 0;
-            }
+        gameManager.getEffectScheduler().onEvent(this);
     }
 }
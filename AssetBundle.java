@@ -0,0 +1,198 @@
+package bricker.main;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A single file that packs all the assets of the game, so start-up maps one file instead of
+ * opening and reading every asset separately. The file starts with an index, followed by the
+ * raw bytes of every asset:
+ * <pre>
+ * int magic, int count,
+ * count * (short nameLength, byte[nameLength] name (UTF-8), int offset, int length),
+ * asset bytes
+ * </pre>
+ * The bundle is read through a memory-mapped channel, and every asset is returned as a
+ * read-only slice of the mapping, without copying.
+ * The game packs its assets into the bundle by itself, the first time it runs and whenever
+ * an asset changed since; running this class packs them as well.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BundledImageReader
+ */
+public class AssetBundle {
+    /** Default location of the bundle */
+    public static final String DEFAULT_PATH = "assets/bricker.pack";
+
+    /** Suffix of the file a bundle is written to before it replaces the old one */
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    /** Identifies a bundle file ("BRKP") */
+    private static final int MAGIC = 0x42524B50;
+
+    /** The assets packed when no file is given on the command line */
+    private static final String[] DEFAULT_ASSETS = {
+            "assets/paddle.png", "assets/brick.png", "assets/heart.png",
+            "assets/DARK_BG2_small.jpeg", "assets/ball.png", "assets/mockBall.png",
+            "assets/redball.png", "assets/blop.wav"
+    };
+
+    /**
+     * private members
+     * data - the mapped bundle file
+     * index - name of every asset to its position in the file: {offset, length}
+     */
+    private final MappedByteBuffer data;
+    private final Map<String, int[]> index;
+
+    /**
+     * Maps a bundle file and reads its index.
+     *
+     * @param path the bundle file
+     * @throws IOException if the file can not be read or is not a bundle
+     */
+    public AssetBundle(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.getInt() != MAGIC) {
+            throw new IOException("not an asset bundle: " + path);
+        }
+        int count = data.getInt();
+        index = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[data.getShort()];
+            data.get(name);
+            index.put(new String(name, StandardCharsets.UTF_8),
+                    new int[]{data.getInt(), data.getInt()});
+        }
+    }
+
+    /**
+     * Opens the bundle at the default location. When the bundle is missing or older than one
+     * of the game's assets, the assets are packed into it first. A bundle that can not be
+     * written is not an error, the old one is used if there is one.
+     *
+     * @return the bundle, or null if there is no readable bundle
+     */
+    public static AssetBundle openDefault() {
+        Path path = Paths.get(DEFAULT_PATH);
+        try {
+            if (isStale(path)) {
+                Path partial = Paths.get(DEFAULT_PATH + PARTIAL_SUFFIX);
+                pack(partial, DEFAULT_ASSETS);
+                Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            // a read-only install, the assets are read from their own files
+        }
+        if (!Files.isReadable(path)) return null;
+        try {
+            return new AssetBundle(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param bundle the bundle file
+     * @return true if the bundle is missing or older than one of the game's assets, and all
+     * the assets are there to pack it again
+     * @throws IOException if the time an asset was modified can not be read
+     */
+    private static boolean isStale(Path bundle) throws IOException {
+        FileTime packed = Files.exists(bundle) ? Files.getLastModifiedTime(bundle) : null;
+        boolean stale = packed == null;
+        for (String asset : DEFAULT_ASSETS) {
+            Path assetPath = Paths.get(asset);
+            if (!Files.isReadable(assetPath)) return false;
+            stale |= packed != null && Files.getLastModifiedTime(assetPath).compareTo(packed) > 0;
+        }
+        return stale;
+    }
+
+    /**
+     * @param name the path the asset was packed under, for example "assets/ball.png"
+     * @return true if the asset is in the bundle
+     */
+    public boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    /**
+     * Returns the bytes of an asset, as a read-only view of the mapped file. Every call
+     * returns a new view, so different threads can read the same asset.
+     *
+     * @param name the path the asset was packed under
+     * @return the bytes of the asset, or null if it is not in the bundle
+     */
+    public ByteBuffer get(String name) {
+        int[] entry = index.get(name);
+        if (entry == null) return null;
+        ByteBuffer view = data.asReadOnlyBuffer();
+        view.position(entry[0]).limit(entry[0] + entry[1]);
+        return view.slice();
+    }
+
+    /**
+     * Packs asset files into a bundle.
+     *
+     * @param bundle where to write the bundle
+     * @param assets the asset files, they are packed under these names
+     * @throws IOException if an asset can not be read or the bundle can not be written
+     */
+    public static void pack(Path bundle, String... assets) throws IOException {
+        byte[][] names = new byte[assets.length][];
+        byte[][] contents = new byte[assets.length][];
+        int offset = 2 * Integer.BYTES;
+        for (int i = 0; i < assets.length; i++) {
+            names[i] = assets[i].getBytes(StandardCharsets.UTF_8);
+            contents[i] = Files.readAllBytes(Paths.get(assets[i]));
+            offset += Short.BYTES + names[i].length + 2 * Integer.BYTES;
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(bundle))) {
+            out.writeInt(MAGIC);
+            out.writeInt(assets.length);
+            for (int i = 0; i < assets.length; i++) {
+                out.writeShort(names[i].length);
+                out.write(names[i]);
+                out.writeInt(offset);
+                out.writeInt(contents[i].length);
+                offset += contents[i].length;
+            }
+            for (byte[] content : contents) {
+                out.write(content);
+            }
+        }
+    }
+
+    /**
+     * Packs the game's assets into {@value #DEFAULT_PATH}.
+     *
+     * @param args Optional asset files to pack instead of the game's assets.
+     */
+    public static void main(String[] args) {
+        String[] assets = args.length > 0 ? args : DEFAULT_ASSETS;
+        try {
+            pack(Paths.get(DEFAULT_PATH), assets);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("packed " + assets.length + " assets into " + DEFAULT_PATH);
+    }
+}
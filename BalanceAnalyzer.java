@@ -0,0 +1,314 @@
+package bricker.main;
+
+import bricker.brick_strategies.StrategyWeights;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many complete headless games, with the paddle on autopilot, under every combination
+ * of strategy weight tables and board sizes, and reports how the odds play out: the win rate,
+ * the average length of a game, and the peak number of pucks and of game objects. The games
+ * of a combination are independent, so they are split over all the cores with a work-stealing
+ * {@link ForkJoinPool}. Every game has its own seed, derived from
+ * {@value FixedPoint#SEED_PROPERTY} when it is set, so a seeded run can be repeated.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see StrategyWeights
+ */
+public class BalanceAnalyzer {
+    /** Number of games played per combination when none is given on the command line */
+    private static final int DEFAULT_GAMES = 200;
+
+    /** Frames after which an unfinished game is given up, when none is given (10 minutes) */
+    private static final int DEFAULT_MAX_FRAMES = 36_000;
+
+    /** Weight tables compared when none is given on the command line */
+    private static final String[] DEFAULT_TABLES = {"basic=5", "basic=10", "basic=2"};
+
+    /** Boards compared when none is given on the command line, bricks per row by rows */
+    private static final int[][] DEFAULT_BOARDS = {{4, 3}, {8, 7}, {12, 10}};
+
+    /** Separates the bricks per row from the rows of a board on the command line, as in 8x7 */
+    private static final String BOARD_SEPARATOR = "x";
+
+    /** Marks a weight table on the command line */
+    private static final String TABLE_MARK = "=";
+
+    /** Width and height of every game's board */
+    private static final Vector2 BOARD_DIMENSIONS = new Vector2(700, 500);
+
+    /** Simulated time of a single frame, in seconds (60 frames per second) */
+    private static final float FRAME_TIME = 1 / 60f;
+
+    /** Frames in a second of game time, for printing */
+    private static final double FRAMES_PER_SECOND = 60.0;
+
+    /** Games played by one task before the work is no longer split */
+    private static final int GAMES_PER_TASK = 2;
+
+    /** Nanoseconds in a second, for printing */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** Spreads the seeds of consecutive games over the whole range (the golden ratio) */
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Follows a single game: its peaks while it runs, and how it ended.
+     */
+    private static final class GameTracker implements GameEventListener {
+        private BrickerGameManager gameManager;
+        private boolean ended;
+        private boolean won;
+        private int frames;
+        private int peakPucks;
+        private int peakObjects;
+
+        @Override
+        public void onGameInitialized(BrickerGameManager gameManager) {
+            this.gameManager = gameManager;
+        }
+
+        @Override
+        public void onFrameEnd(float deltaTime) {
+            if (ended) return;
+            frames++;
+            // the main ball is one of the live balls, all the others are pucks
+            peakPucks = Math.max(peakPucks, gameManager.getLiveBalls().size() - 1);
+            peakObjects = Math.max(peakObjects, gameManager.countGameObjects());
+        }
+
+        @Override
+        public void onGameEnded(boolean won) {
+            if (ended) return;
+            ended = true;
+            this.won = won;
+        }
+    }
+
+    /**
+     * The totals of a number of games.
+     */
+    private static final class Totals {
+        private int wins;
+        private int losses;
+        private int unfinished;
+        private long frames;
+        private long peakPucks;
+        private int maxPucks;
+        private long peakObjects;
+        private int maxObjects;
+
+        /**
+         * Adds a finished or given up game.
+         * @param game the tracker of the game
+         */
+        private void add(GameTracker game) {
+            if (!game.ended) {
+                unfinished++;
+            } else if (game.won) {
+                wins++;
+            } else {
+                losses++;
+            }
+            frames += game.frames;
+            peakPucks += game.peakPucks;
+            maxPucks = Math.max(maxPucks, game.peakPucks);
+            peakObjects += game.peakObjects;
+            maxObjects = Math.max(maxObjects, game.peakObjects);
+        }
+
+        /**
+         * Adds the totals of other games.
+         * @param other the totals to add
+         */
+        private void add(Totals other) {
+            wins += other.wins;
+            losses += other.losses;
+            unfinished += other.unfinished;
+            frames += other.frames;
+            peakPucks += other.peakPucks;
+            maxPucks = Math.max(maxPucks, other.maxPucks);
+            peakObjects += other.peakObjects;
+            maxObjects = Math.max(maxObjects, other.maxObjects);
+        }
+
+        /**
+         * @return the number of games counted
+         */
+        private int games() {
+            return wins + losses + unfinished;
+        }
+    }
+
+    /**
+     * Plays a range of the games of a combination, splitting the range so idle workers can
+     * steal half.
+     */
+    @SuppressWarnings("serial") // a fork/join task, never serialized
+    private final class PlayRange extends RecursiveTask<Totals> {
+        private final StrategyWeights weights;
+        private final int[] board;
+        private final long firstSeed;
+        private final int from;
+        private final int to;
+
+        private PlayRange(StrategyWeights weights, int[] board, long firstSeed, int from, int to) {
+            this.weights = weights;
+            this.board = board;
+            this.firstSeed = firstSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Totals totals = new Totals();
+                for (int i = from; i < to; i++) {
+                    totals.add(play(weights, board, firstSeed + i * SEED_STEP));
+                }
+                return totals;
+            }
+            int middle = (from + to) >>> 1;
+            PlayRange right = new PlayRange(weights, board, firstSeed, middle, to);
+            right.fork();
+            Totals totals = new PlayRange(weights, board, firstSeed, from, middle).compute();
+            totals.add(right.join());
+            return totals;
+        }
+    }
+
+    /**
+     * private members
+     * games - number of games played per combination
+     * maxFrames - frames after which an unfinished game is given up
+     * tables - the weight tables compared
+     * boards - the boards compared, bricks per row and rows
+     * pool - the work-stealing pool that plays the games
+     */
+    private final int games;
+    private final int maxFrames;
+    private final List<StrategyWeights> tables;
+    private final List<int[]> boards;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param games     Number of games played per combination.
+     * @param maxFrames Frames after which an unfinished game is given up.
+     * @param tables    The weight tables to compare.
+     * @param boards    The boards to compare, each as bricks per row and rows.
+     */
+    public BalanceAnalyzer(int games, int maxFrames, List<StrategyWeights> tables,
+                           List<int[]> boards) {
+        this.games = games;
+        this.maxFrames = maxFrames;
+        this.tables = tables;
+        this.boards = boards;
+        this.pool = new ForkJoinPool();
+    }
+
+    /**
+     * Plays a single game to its end, or until it is given up.
+     *
+     * @param weights The weight table of the game.
+     * @param board   Bricks per row and rows of the game.
+     * @param seed    The seed of the random choices of the game.
+     * @return the tracker of the game.
+     */
+    private GameTracker play(StrategyWeights weights, int[] board, long seed) {
+        BrickerGameManager gameManager = new BrickerGameManager(
+                BrickerGameManager.BRICKER, BOARD_DIMENSIONS, board[0], board[1]);
+        GameTracker tracker = new GameTracker();
+        gameManager.setSeed(seed);
+        gameManager.setStrategyWeights(weights);
+        gameManager.addGameEventListener(tracker);
+        gameManager.initializeHeadless();
+        while (!tracker.ended && tracker.frames < maxFrames) {
+            gameManager.update(FRAME_TIME);
+        }
+        return tracker;
+    }
+
+    /**
+     * Plays the games of every combination and prints a line per combination.
+     */
+    public void run() {
+        Long seed = FixedPoint.seed();
+        long baseSeed = seed != null ? seed : System.nanoTime();
+        System.out.printf("%-70s %6s %7s %7s %9s %9s %9s%n", "weights", "board", "games",
+                "win%", "length(s)", "pucks", "objects");
+        long start = System.nanoTime();
+        long played = 0;
+        int combination = 0;
+        for (StrategyWeights weights : tables) {
+            for (int[] board : boards) {
+                long firstSeed = baseSeed + (long) combination * games * SEED_STEP;
+                Totals totals = pool.invoke(new PlayRange(weights, board, firstSeed, 0, games));
+                printLine(weights, board, totals);
+                played += totals.games();
+                combination++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        pool.shutdown();
+        System.out.printf("%d games in %.2f s on %d workers (%.1f games/s), base seed %d%n",
+                played, seconds, pool.getParallelism(), played / seconds, baseSeed);
+    }
+
+    /**
+     * Prints the results of a combination. The pucks and objects are the average of the peaks
+     * of the games, and the highest peak.
+     *
+     * @param weights The weight table of the combination.
+     * @param board   The board of the combination.
+     * @param totals  The totals of its games.
+     */
+    private static void printLine(StrategyWeights weights, int[] board, Totals totals) {
+        int count = Math.max(1, totals.games());
+        String unfinished = totals.unfinished > 0 ? " (" + totals.unfinished + " unfinished)" : "";
+        System.out.printf("%-70s %6s %7d %7.1f %9.1f %5.1f/%-3d %5.0f/%-3d%s%n", weights,
+                board[0] + BOARD_SEPARATOR + board[1], totals.games(),
+                100.0 * totals.wins / count,
+                totals.frames / FRAMES_PER_SECOND / count,
+                (double) totals.peakPucks / count, totals.maxPucks,
+                (double) totals.peakObjects / count, totals.maxObjects, unfinished);
+    }
+
+    /**
+     * Runs the analyzer.
+     *
+     * @param args Optional command-line arguments:
+     *             args[0] - number of games per combination (int),
+     *             args[1] - frames after which a game is given up (int),
+     *             then any number of weight tables (e.g. basic=5,explosive=0) and boards
+     *             (e.g. 8x7), in any order. Without tables or boards, the defaults are used.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        int maxFrames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_FRAMES;
+        List<StrategyWeights> tables = new ArrayList<>();
+        List<int[]> boards = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].contains(TABLE_MARK)) {
+                tables.add(StrategyWeights.parse(args[i]));
+            } else {
+                String[] parts = args[i].split(BOARD_SEPARATOR);
+                boards.add(new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])});
+            }
+        }
+        if (tables.isEmpty()) {
+            for (String table : DEFAULT_TABLES) {
+                tables.add(StrategyWeights.parse(table));
+            }
+        }
+        if (boards.isEmpty()) {
+            boards.addAll(List.of(DEFAULT_BOARDS));
+        }
+        new BalanceAnalyzer(games, maxFrames, tables, boards).run();
+    }
+}
@@ -1,5 +1,9 @@
 package bricker.gameobjects;
 
+import bricker.profiling.CollisionLog;
+import bricker.profiling.GameEvents;
+import bricker.main.EffectScheduler;
+import bricker.main.FrameGovernor;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.gui.Sound;
@@ -14,9 +18,7 @@ import danogl.util.Vector2;
  * @see bricker.main.BrickerGameManager
  */
 
-public class Ball extends GameObject {
-    /** The number of times a turbo ball can hit another object before turning back to normal.*/
-    private static final int MAX_HITS = 6;
+public class Ball extends FixedPointObject {
     /** The speed by which the ball is multiplied or divided by when it changes modes.*/
     private static final float TURBO_SPEED = 1.4f;
 
@@ -29,12 +31,18 @@ public class Ball extends GameObject {
     /** Represents if the ball is currently in turbo mode.*/
     private boolean isTurbo;
 
-    /** tracks the number of times the turbo ball has collided with others.*/
-    private int hitsWhenFast;
-
     /** Keeping the original image, so the return to the normal mode is efficient.*/
     private Renderable originalImage;
 
+    /** Notified whenever the velocity changes, so AI paddles can predict the landing spot.*/
+    private InterceptPlanner interceptPlanner;
+
+    /** Decides if the collision sound is played when frames are over budget.*/
+    private FrameGovernor frameGovernor;
+
+    /** Counts the collisions of the ball for effects that end after a number of hits.*/
+    private EffectScheduler effectScheduler;
+
     /**
      * constructs the ball object for the game
      * @param topLeftCorner where the ball is placed
@@ -47,7 +55,6 @@ public class Ball extends GameObject {
         this.collisionSound = collisionSound;
         collisionCounter = 0;
         isTurbo = false;
-        hitsWhenFast = 0;
         originalImage = renderable;
     }
 
@@ -69,18 +76,88 @@ public class Ball extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        Vector2 newVelocity = getVelocity().flipped(collision.getNormal());
+        Vector2 newVelocity = reflected(collision.getNormal());
         setVelocity(newVelocity);
-        collisionSound.play();
+        CollisionLog.bounce(this, other);
+        playCollisionSound(collisionSound);
         collisionCounter++;
-        if(isTurbo){
-            hitsWhenFast++;
-            if(hitsWhenFast > MAX_HITS){
-                renderer().setRenderable(originalImage);
-                setVelocity(getVelocity().mult(1/ TURBO_SPEED));
-                isTurbo = false;
-                hitsWhenFast = 0;
-            }
+        if(effectScheduler != null){
+            effectScheduler.onEvent(this);
+        }
+    }
+
+    /**
+     * Turns a turbo ball back to the regular ball: restores its image and speed.
+     * Called by the effect scheduler when the turbo effect expires.
+     */
+    public void endTurbo(){
+        if(!isTurbo) return;
+        renderer().setRenderable(originalImage);
+        setVelocity(getVelocity().mult(1/ TURBO_SPEED));
+        isTurbo = false;
+        GameEvents.turboExit();
+    }
+
+    /**
+     * Sets the velocity of the ball, and lets the intercept planner (if any) re-plan the
+     * ball's landing spot. Velocity only changes on collisions and power-ups, so this is
+     * the one place where the prediction needs to be refreshed.
+     * @param velocity The new velocity of the ball
+     */
+    @Override
+    public void setVelocity(Vector2 velocity) {
+        super.setVelocity(velocity);
+        if(interceptPlanner != null){
+            interceptPlanner.track(this);
+        }
+    }
+
+    /**
+     * Attaches the planner that predicts where this ball will land.
+     * @param interceptPlanner the planner of the current game, or null to detach
+     */
+    public void setInterceptPlanner(InterceptPlanner interceptPlanner){
+        if(this.interceptPlanner != null){
+            this.interceptPlanner.untrack(this);
+        }
+        this.interceptPlanner = interceptPlanner;
+        if(interceptPlanner != null){
+            interceptPlanner.track(this);
+        }
+    }
+
+    /**
+     * Attaches the frame governor of the game, which may merge collision sounds under load.
+     * @param frameGovernor the governor of the current game
+     */
+    public void setFrameGovernor(FrameGovernor frameGovernor){
+        this.frameGovernor = frameGovernor;
+    }
+
+    /**
+     * Attaches the effect scheduler of the game, which is told about every collision of the
+     * ball.
+     * @param effectScheduler the scheduler of the current game
+     */
+    public void setEffectScheduler(EffectScheduler effectScheduler){
+        this.effectScheduler = effectScheduler;
+    }
+
+    /**
+     * @return the frame governor of the game, or null if none was attached
+     */
+    protected FrameGovernor getFrameGovernor(){
+        return frameGovernor;
+    }
+
+    /**
+     * Plays a collision sound, unless there is no sound (headless games) or the frame
+     * governor merges it with a sound that was already played in this frame.
+     * @param sound the sound to play
+     */
+    protected void playCollisionSound(Sound sound){
+        if(sound != null && (frameGovernor == null || frameGovernor.claimCollisionSound())){
+            sound.play();
         }
     }
 
@@ -100,7 +177,12 @@ public class Ball extends GameObject {
      * Setting if the ball will go into turbo mode
      * @param update The new boolean. true will indicate that the ball will go into turbo mode.
      */
-    public void setIsTurbo(boolean update){isTurbo = update;}
+    public void setIsTurbo(boolean update){
+        if(update && !isTurbo){
+            GameEvents.turboEnter();
+        }
+        isTurbo = update;
+    }
 
     /**
      * Getter if the ball is in turbo mode
@@ -1,6 +1,7 @@
 package bricker.gameobjects;
 
 import bricker.brick_strategies.CollisionStrategy;
+import bricker.profiling.CollisionLog;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.gui.rendering.Renderable;
@@ -15,7 +16,13 @@ import danogl.util.Vector2;
  * @see bricker.main.BrickerGameManager
  */
 public class Brick extends GameObject {
-    private final CollisionStrategy strategy;
+    /** Index given to bricks that are not part of the brick grid. */
+    public static final int NO_INDEX = -1;
+
+    private CollisionStrategy strategy;
+
+    /** position of the brick in the grid, see bricker.main.BrickLayout */
+    private final int index;
 
     /**
      * Constructor to build a brick for the game.
@@ -26,8 +33,48 @@ public class Brick extends GameObject {
      */
     public Brick(Vector2 topLeftCorner, Vector2 dimensions,
                  Renderable renderable, CollisionStrategy strategy) {
+        this(topLeftCorner, dimensions, renderable, strategy, NO_INDEX);
+    }
+
+    /**
+     * Constructor to build a brick of the brick grid.
+     * @param topLeftCorner of the brick that is being created
+     * @param dimensions what size the brick will be
+     * @param renderable determine the image of the brick
+     * @param strategy that the brick will perform when hit
+     * @param index position of the brick in the grid
+     */
+    public Brick(Vector2 topLeftCorner, Vector2 dimensions,
+                 Renderable renderable, CollisionStrategy strategy, int index) {
         super(topLeftCorner, dimensions, renderable);
         this.strategy = strategy;
+        this.index = index;
+    }
+
+    /**
+     * getter for the strategy of the brick
+     * @return the strategy that the brick performs when hit
+     */
+    public CollisionStrategy getStrategy(){
+        return strategy;
+    }
+
+    /**
+     * Reuses the brick for a new row of the endless mode, instead of creating a new brick.
+     * @param topLeftCorner where the new row is
+     * @param strategy that the brick will perform when hit
+     */
+    public void recycle(Vector2 topLeftCorner, CollisionStrategy strategy){
+        this.strategy = strategy;
+        setTopLeftCorner(topLeftCorner);
+    }
+
+    /**
+     * getter for the position of the brick in the grid
+     * @return the index of the brick, or NO_INDEX
+     */
+    public int getIndex(){
+        return index;
     }
 
     /**
@@ -39,6 +86,7 @@ public class Brick extends GameObject {
      */
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
+        CollisionLog.brickHit(strategy, index, other);
         strategy.onCollision(this, other);
     }
 }
@@ -0,0 +1,208 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Indexes the bricks of a game by their cell in the {@link BrickLayout}, so the bricks at or
+ * around a position are found directly instead of by scanning every brick. The game manager
+ * adds the bricks it lays out and removes every brick that leaves the game.
+ * <p>
+ * In endless mode the rows of the grid scroll down: the slots of the rows form a ring, and the
+ * row at the top of the board is the one in the head slot. Rows are addressed by their place
+ * on the board, so neighbors stay neighbors across the end of the ring, and a brick keeps its
+ * index (col * rows + slot) for as long as it lives.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#getBrickGrid
+ */
+public class BrickGrid {
+    /**
+     * private members
+     * layout - where the bricks are
+     * bricks - the bricks in the game, by their index in the layout, null where there is none
+     * count - the number of bricks in the grid
+     * columnPitch, rowPitch - distance between the left sides of neighboring columns, and
+     * between the top sides of neighboring rows
+     * headSlot - the slot of the row at the top of the board, 0 unless the grid scrolls
+     * scrollOffset - how far the rows moved down from their place in the layout
+     * visitStamps - the visit every brick index was last marked in, visit - the current visit
+     */
+    private final BrickLayout layout;
+    private final Brick[] bricks;
+    private int count;
+    private final float columnPitch;
+    private final float rowPitch;
+    private int headSlot;
+    private float scrollOffset;
+    private final int[] visitStamps;
+    private int visit;
+
+    /**
+     * constructs an empty grid
+     * @param layout where the bricks of the board are placed
+     */
+    public BrickGrid(BrickLayout layout) {
+        this.layout = layout;
+        this.bricks = new Brick[layout.brickCount()];
+        this.visitStamps = new int[layout.brickCount()];
+        this.columnPitch = layout.columnX(1) - layout.columnX(0);
+        this.rowPitch = layout.rowY(1) - layout.rowY(0);
+    }
+
+    /**
+     * @return the layout of the grid
+     */
+    public BrickLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param brick a brick that was added to the game; bricks without an index are ignored
+     */
+    public void add(Brick brick) {
+        if (!inGrid(brick) || bricks[brick.getIndex()] == brick) return;
+        if (bricks[brick.getIndex()] == null) count++;
+        bricks[brick.getIndex()] = brick;
+    }
+
+    /**
+     * @param brick a brick that left the game
+     */
+    public void remove(Brick brick) {
+        if (inGrid(brick) && bricks[brick.getIndex()] == brick) {
+            bricks[brick.getIndex()] = null;
+            count--;
+        }
+    }
+
+    /**
+     * @param brick a brick
+     * @return true if the brick is in the grid, meaning it is in the game
+     */
+    public boolean contains(Brick brick) {
+        return inGrid(brick) && bricks[brick.getIndex()] == brick;
+    }
+
+    /**
+     * @param col column of the cell
+     * @param row row of the cell, counted from the top of the board
+     * @return the brick in the cell, or null if the cell is empty or outside the grid
+     */
+    public Brick get(int col, int row) {
+        if (col < 0 || col >= layout.bricksPerRow() || row < 0 || row >= layout.rows()) {
+            return null;
+        }
+        return bricks[layout.index(col, slotOfRow(row))];
+    }
+
+    /**
+     * Scrolls the rows of the grid, in endless mode.
+     * @param headSlot     the slot of the row that is now at the top of the board
+     * @param scrollOffset how far the rows moved down from their place in the layout, less
+     *                     than the row pitch
+     */
+    public void scrollTo(int headSlot, float scrollOffset) {
+        this.headSlot = headSlot;
+        this.scrollOffset = scrollOffset;
+    }
+
+    /**
+     * @param row a row, counted from the top of the board
+     * @return the slot that holds the row
+     */
+    public int slotOfRow(int row) {
+        return (row + headSlot) % layout.rows();
+    }
+
+    /**
+     * @return how far the rows moved down from their place in the layout
+     */
+    public float getScrollOffset() {
+        return scrollOffset;
+    }
+
+    /**
+     * @return the number of bricks in the grid
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the distance between the left sides of neighboring columns
+     */
+    public float getColumnPitch() {
+        return columnPitch;
+    }
+
+    /**
+     * @return the distance between the top sides of neighboring rows
+     */
+    public float getRowPitch() {
+        return rowPitch;
+    }
+
+    /**
+     * Passes every brick whose box is within the given distance from the box of a brick
+     * (including the brick itself, if it is in the grid). Only the cells that can be that
+     * close are visited.
+     * @param center a brick of the grid
+     * @param radius the largest distance between the two boxes, in pixels
+     * @param action receives the bricks
+     */
+    public void forEachWithin(Brick center, float radius, Consumer<Brick> action) {
+        if (center.getIndex() < 0 || center.getIndex() >= bricks.length) return;
+        int col = center.getIndex() / layout.rows();
+        int row = (center.getIndex() % layout.rows() - headSlot + layout.rows()) % layout.rows();
+        float gapX = columnPitch - layout.brickLength();
+        float gapY = rowPitch - BrickLayout.BRICK_HEIGHT;
+        int reachX = radius < gapX ? 0 : (int) ((radius - gapX) / columnPitch) + 1;
+        int reachY = radius < gapY ? 0 : (int) ((radius - gapY) / rowPitch) + 1;
+        for (int c = col - reachX; c <= col + reachX; c++) {
+            for (int r = row - reachY; r <= row + reachY; r++) {
+                Brick brick = get(c, r);
+                if (brick == null) continue;
+                float dx = Math.max(0, Math.abs(c - col) * columnPitch - layout.brickLength());
+                float dy = Math.max(0, Math.abs(r - row) * rowPitch - BrickLayout.BRICK_HEIGHT);
+                if (dx * dx + dy * dy <= radius * radius) {
+                    action.accept(brick);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new visit of the bricks, in which every brick can be marked once. Starting a
+     * visit takes constant time, whatever the size of the grid, since the marks of earlier
+     * visits are told apart by their number. Only one visit is in progress at a time.
+     */
+    public void beginVisit() {
+        visit++;
+        if (visit == 0) {
+            // the numbers wrapped around, old marks could look current
+            Arrays.fill(visitStamps, 0);
+            visit = 1;
+        }
+    }
+
+    /**
+     * Marks a brick as visited in the current visit.
+     * @param brick a brick of the grid
+     * @return true if the brick was not marked in this visit yet; bricks without an index are
+     * never marked, and always return true
+     */
+    public boolean markVisited(Brick brick) {
+        if (!inGrid(brick)) return true;
+        if (visitStamps[brick.getIndex()] == visit) return false;
+        visitStamps[brick.getIndex()] = visit;
+        return true;
+    }
+
+    private boolean inGrid(Brick brick) {
+        return brick.getIndex() >= 0 && brick.getIndex() < bricks.length;
+    }
+}
@@ -0,0 +1,123 @@
+package bricker.main;
+
+import danogl.util.Vector2;
+
+/**
+ * Computes where the bricks of a board are placed. The layout only depends on the board width
+ * and the number of rows and columns, so the game manager and anything that mirrors or queries
+ * the board (such as a network client) compute the exact same brick positions.
+ * Bricks are indexed column by column: index = col * rows + row.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#addBricks
+ */
+public class BrickLayout {
+    /** Width of the walls around the screen */
+    public static final int BORDER_WIDTH = 10;
+
+    /** Number of wall widths subtracted from the board width (left and right walls) */
+    private static final int BORDER_COUNT = 2;
+
+    /** Extra spacing added in layout calculations */
+    private static final int ADD_SPACES = 1;
+
+    /** Space between adjacent bricks */
+    public static final int SPACE_BETWEEN_BRICKS = 5;
+
+    /** Height of a single brick */
+    public static final int BRICK_HEIGHT = 15;
+
+    /**
+     * private members
+     * rows, bricksPerRow - size of the brick grid
+     * brickLength - the computed width of every brick
+     */
+    private final int rows;
+    private final int bricksPerRow;
+    private final float brickLength;
+
+    /**
+     * constructs the layout of a board
+     * @param boardWidth   width of the game window
+     * @param bricksPerRow number of bricks in each row
+     * @param rows         number of rows of bricks
+     */
+    public BrickLayout(float boardWidth, int bricksPerRow, int rows) {
+        this.rows = rows;
+        this.bricksPerRow = bricksPerRow;
+        // calculate precisely the dimensions of each brick
+        float netWidth = boardWidth - (BORDER_COUNT * BORDER_WIDTH) -
+                ((bricksPerRow + ADD_SPACES) * SPACE_BETWEEN_BRICKS);
+        this.brickLength = netWidth / bricksPerRow;
+    }
+
+    /**
+     * @return the width and height of every brick
+     */
+    public Vector2 brickDimensions() {
+        return new Vector2(brickLength, BRICK_HEIGHT);
+    }
+
+    /**
+     * @param col column of the brick
+     * @param row row of the brick
+     * @return the top left corner of the brick
+     */
+    public Vector2 topLeftCorner(int col, int row) {
+        return new Vector2(columnX(col), rowY(row));
+    }
+
+    /**
+     * @param col column of the brick
+     * @return the x coordinate of the left side of every brick in the column
+     */
+    public float columnX(int col) {
+        return BORDER_WIDTH + SPACE_BETWEEN_BRICKS + col * (SPACE_BETWEEN_BRICKS + brickLength);
+    }
+
+    /**
+     * @param row row of the brick
+     * @return the y coordinate of the top side of every brick in the row
+     */
+    public float rowY(int row) {
+        return BORDER_WIDTH + row * (BRICK_HEIGHT + SPACE_BETWEEN_BRICKS);
+    }
+
+    /**
+     * @param col column of the brick
+     * @param row row of the brick
+     * @return the index of the brick in the grid
+     */
+    public int index(int col, int row) {
+        return col * rows + row;
+    }
+
+    /**
+     * @return the width of every brick
+     */
+    public float brickLength() {
+        return brickLength;
+    }
+
+    /**
+     * @return the number of rows of bricks
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of bricks in each row
+     */
+    public int bricksPerRow() {
+        return bricksPerRow;
+    }
+
+    /**
+     * @return the total number of bricks on the board
+     */
+    public int brickCount() {
+        return rows * bricksPerRow;
+    }
+}
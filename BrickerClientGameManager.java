@@ -0,0 +1,227 @@
+package bricker.network;
+
+import bricker.gameobjects.NumericLife;
+import bricker.main.BrickLayout;
+import danogl.GameManager;
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
+import danogl.gui.ImageReader;
+import danogl.gui.SoundReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The game window of the second player in the networked two player mode.
+ * It does not simulate the game, it mirrors the state that the host sends: the bricks that
+ * were removed, the ball and pucks, both paddles and the lives. Mirrored objects are placed in
+ * layers that do not collide, so nothing changes locally between two state messages except
+ * the motion given by the received velocities. The arrow keys steer the remote paddle on the
+ * host.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see NetworkClient
+ * @see NetworkHost
+ */
+public class BrickerClientGameManager extends GameManager {
+    private static final String PADDLE_ASSET_PATH = "assets/paddle.png";
+    private static final String BRICK_ASSET_PATH = "assets/brick.png";
+    private static final String BACKGROUND_IMAGE_PATH = "assets/DARK_BG2_small.jpeg";
+    private static final String BALL_IMAGE_PATH = "assets/ball.png";
+    private static final String PUCK_IMAGE_PATH = "assets/mockBall.png";
+
+    /** Sizes of the mirrored objects, the same as in the hosted game */
+    private static final Vector2 USER_PADDLE_SIZE = new Vector2(200, 20);
+    private static final Vector2 REMOTE_PADDLE_SIZE = USER_PADDLE_SIZE.mult(0.75f);
+    private static final Vector2 BALL_DIMENSIONS = new Vector2(50, 50);
+    private static final Vector2 PUCK_DIMENSIONS = new Vector2(37.5f, 37.5f);
+
+    /** Vertical offset of the user paddle from the bottom of the screen */
+    private static final float PADDLE_BOTTOM_OFFSET = 30f;
+
+    /** Position of the numeric life counter */
+    private static final Vector2 LIVES_POSITION = new Vector2(10f, 90f);
+
+    /** Used to divide width/height by 2 for centering calculations */
+    private static final float CENTER_DIVISOR = 2f;
+
+    /**
+     * private members
+     * address - the host, client - the connection to it
+     * images - the renderables of the mirrored objects
+     * bricks - the mirrored bricks by index, null once removed
+     * balls - the mirrored balls, the first one is the main ball
+     * userPaddle, remotePaddle, lives - the mirrored players
+     */
+    private final InetSocketAddress address;
+    private NetworkClient client;
+    private UserInputListener inputListener;
+    private WindowController windowController;
+    private Renderable paddleImage;
+    private Renderable brickImage;
+    private Renderable ballImage;
+    private Renderable puckImage;
+    private GameObject[] bricks;
+    private final List<GameObject> balls = new ArrayList<>();
+    private GameObject userPaddle;
+    private GameObject remotePaddle;
+    private NumericLife lives;
+    private float height;
+
+    /**
+     * Constructs the client window.
+     *
+     * @param windowTitle The title of the game window.
+     * @param windowDimensions The size of the game window, should match the host's.
+     * @param address The host to connect to.
+     */
+    public BrickerClientGameManager(String windowTitle, Vector2 windowDimensions,
+                                    InetSocketAddress address) {
+        super(windowTitle, windowDimensions);
+        this.address = address;
+    }
+
+    /**
+     * Loads the images and starts connecting to the host. The board is built once the host
+     * announces it.
+     */
+    @Override
+    public void initializeGame(ImageReader imageReader, SoundReader soundReader,
+                               UserInputListener inputListener, WindowController windowController) {
+        super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        this.inputListener = inputListener;
+        this.windowController = windowController;
+        paddleImage = imageReader.readImage(PADDLE_ASSET_PATH, true);
+        brickImage = imageReader.readImage(BRICK_ASSET_PATH, false);
+        ballImage = imageReader.readImage(BALL_IMAGE_PATH, true);
+        puckImage = imageReader.readImage(PUCK_IMAGE_PATH, true);
+        GameObject background = new GameObject(Vector2.ZERO,
+                windowController.getWindowDimensions(),
+                imageReader.readImage(BACKGROUND_IMAGE_PATH, false));
+        background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        gameObjects().addGameObject(background, Layer.BACKGROUND);
+        bricks = new GameObject[0];
+        balls.clear();
+        if (client != null) {
+            client.close();
+        }
+        client = new NetworkClient(address);
+    }
+
+    /**
+     * Applies what the host sent and sends the arrow keys back.
+     *
+     * @param deltaTime Time since last frame, in seconds.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        int direction = 0;
+        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
+            direction--;
+        }
+        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
+            direction++;
+        }
+        try {
+            client.poll(this);
+            client.sendInput(direction);
+        } catch (IOException e) {
+            client.close();
+            windowController.closeWindow();
+        }
+    }
+
+    /**
+     * Removes the mirrored objects of the previous board and builds a full new board.
+     */
+    void rebuildBoard(float width, float height, int bricksPerRow, int rows) {
+        this.height = height;
+        for (GameObject brick : bricks) {
+            if (brick != null) {
+                gameObjects().removeGameObject(brick, Layer.STATIC_OBJECTS);
+            }
+        }
+        trimBalls(0);
+        if (userPaddle != null) {
+            gameObjects().removeGameObject(userPaddle, Layer.FOREGROUND);
+            gameObjects().removeGameObject(remotePaddle, Layer.FOREGROUND);
+            gameObjects().removeGameObject(lives, Layer.UI);
+        }
+
+        BrickLayout layout = new BrickLayout(width, bricksPerRow, rows);
+        Vector2 dimensions = layout.brickDimensions();
+        bricks = new GameObject[layout.brickCount()];
+        for (int col = 0; col < bricksPerRow; col++) {
+            for (int row = 0; row < rows; row++) {
+                GameObject brick = new GameObject(layout.topLeftCorner(col, row),
+                        dimensions, brickImage);
+                bricks[layout.index(col, row)] = brick;
+                gameObjects().addGameObject(brick, Layer.STATIC_OBJECTS);
+            }
+        }
+        userPaddle = new GameObject(Vector2.ZERO, USER_PADDLE_SIZE, paddleImage);
+        remotePaddle = new GameObject(Vector2.ZERO, REMOTE_PADDLE_SIZE, paddleImage);
+        gameObjects().addGameObject(userPaddle, Layer.FOREGROUND);
+        gameObjects().addGameObject(remotePaddle, Layer.FOREGROUND);
+        lives = new NumericLife(LIVES_POSITION, gameObjects(), 0);
+    }
+
+    /**
+     * Moves both paddles and shows the lives of the host's frame.
+     */
+    void applyPlayers(int livesLeft, float userPaddleX, float remotePaddleX) {
+        if (userPaddle == null) return;
+        lives.updateLives(livesLeft);
+        userPaddle.setCenter(new Vector2(userPaddleX, height - PADDLE_BOTTOM_OFFSET));
+        if (!Float.isNaN(remotePaddleX)) {
+            remotePaddle.setCenter(new Vector2(remotePaddleX,
+                    height / CENTER_DIVISOR + REMOTE_PADDLE_SIZE.y() / CENTER_DIVISOR));
+        }
+    }
+
+    /**
+     * Removes a mirrored brick.
+     * @param index the index of the brick, see BrickLayout
+     */
+    void removeBrick(int index) {
+        if (index < 0 || index >= bricks.length || bricks[index] == null) return;
+        gameObjects().removeGameObject(bricks[index], Layer.STATIC_OBJECTS);
+        bricks[index] = null;
+    }
+
+    /**
+     * Moves the i-th mirrored ball, creating it if the host has more balls than the client.
+     */
+    void applyBall(int i, float x, float y, float velocityX, float velocityY) {
+        if (i == balls.size()) {
+            GameObject ball = i == 0 ?
+                    new GameObject(Vector2.ZERO, BALL_DIMENSIONS, ballImage) :
+                    new GameObject(Vector2.ZERO, PUCK_DIMENSIONS, puckImage);
+            balls.add(ball);
+            gameObjects().addGameObject(ball, Layer.FOREGROUND);
+        }
+        GameObject ball = balls.get(i);
+        ball.setCenter(new Vector2(x, y));
+        ball.setVelocity(new Vector2(velocityX, velocityY));
+    }
+
+    /**
+     * Removes mirrored balls that no longer exist on the host.
+     * @param count the number of balls the host has
+     */
+    void trimBalls(int count) {
+        while (balls.size() > count) {
+            gameObjects().removeGameObject(balls.remove(balls.size() - 1), Layer.FOREGROUND);
+        }
+    }
+}
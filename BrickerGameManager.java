@@ -1,12 +1,19 @@
 package bricker.main;
 
+import bricker.brick_strategies.ExtraPaddleState;
 import bricker.brick_strategies.StrategyFactory;
+import bricker.brick_strategies.StrategyWeights;
 import bricker.gameobjects.*;
+import bricker.profiling.FrameStability;
+import bricker.profiling.GameEvents;
+import bricker.rendering.DirtyRectRenderer;
+import bricker.rendering.ViewportCuller;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
 import danogl.gui.*;
+import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
@@ -16,6 +23,9 @@ import java.awt.event.KeyEvent;
 
 
 import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -40,6 +50,9 @@ public class BrickerGameManager extends GameManager {
     /** Number of command-line arguments expected */
     private static final int NUM_ARGS = 2;
 
+    /** Number of command-line arguments when the board size is given too */
+    private static final int NUM_ARGS_WITH_BOARD = 4;
+
     /** Size of the user-controlled paddle (width, height) */
     private static final Vector2 USER_PADDLE_SIZE = new Vector2(200, 20);
 
@@ -52,12 +65,6 @@ public class BrickerGameManager extends GameManager {
     /** Used to divide width/height by 2 for centering calculations */
     private static final float CENTER_DIVISOR = 2f;
 
-    /** Height of the border around the screen */
-    private static final int BORDER_HEIGHT = 2;
-
-    /** Extra spacing added in layout calculations */
-    private static final int ADD_SPACES = 1;
-
     /** Vertical offset of the paddle from the bottom of the screen */
     private static final float PADDLE_BOTTOM_OFFSET = 30f;
 
@@ -77,10 +84,7 @@ public class BrickerGameManager extends GameManager {
     private static final int MAX_LIVES = 4;
 
     /** Width of the border around the screen */
-    private static final int BORDER_WIDTH = 10;
-
-    /** Space between adjacent bricks */
-    private static final int SPACE_BETWEEN_BRICKS = 5;
+    private static final int BORDER_WIDTH = BrickLayout.BORDER_WIDTH;
 
     /** Color of the screen border */
     private static final Color BORDER_COLOR = Color.BLACK;
@@ -100,9 +104,6 @@ public class BrickerGameManager extends GameManager {
     /** Height of the game board in pixels */
     private static final int BOARD_HEIGHT = 500;
 
-    /** Height of a single brick */
-    private static final int BRICK_HEIGHT = 15;
-
     /** Constant used for reversing direction (e.g., ball bounce) */
     private static final int DIRECTION_INVERSION = -1;
 
@@ -115,6 +116,12 @@ public class BrickerGameManager extends GameManager {
     /** Empty string constant */
     private static final String EMPTY = "";
 
+    /** Score shown when the game ends, when it is not among the best of the board size */
+    private static final String SCORE_FORMAT = " Score: %d.";
+
+    /** Score shown when the game ends, with its rank among the games of the board size */
+    private static final String RANKED_SCORE_FORMAT = " Score: %d (#%d on this board).";
+
     /** Message prompting the player to play again */
     private static final String PLAY_AGAIN = " play again?";
 
@@ -136,9 +143,44 @@ public class BrickerGameManager extends GameManager {
     /** File path to the ball collision sound effect */
     private static final String BALL_SOUND_PATH = "assets/blop.wav";
 
+    /** File path to the puck image, used by the ExtraBalls strategy */
+    private static final String PUCK_IMAGE_PATH = "assets/mockBall.png";
+
+    /** File path to the turbo ball image, used by the Turbo strategy */
+    private static final String TURBO_BALL_IMAGE_PATH = "assets/redball.png";
+
+    /** Images read at start-up, and whether their background is transparent. Images of the
+     * asset bundle are decoded in parallel, the others on the window thread. */
+    private static final String[] TRANSPARENT_IMAGES = {PADDLE_ASSET_PATH, HEART_ASSET_PATH,
+            BALL_IMAGE_PATH, PUCK_IMAGE_PATH, TURBO_BALL_IMAGE_PATH};
+    private static final String[] OPAQUE_IMAGES = {BRICK_ASSET_PATH, BACKGROUND_IMAGE_PATH};
+
+    /** System property that turns the parallel asset preloading on or off (on by default) */
+    public static final String ASSET_PRELOAD_PROPERTY = "bricker.assetPreload";
+
+    /** Whether assets are decoded in parallel, from the asset bundle when there is one.
+     * When off, every image is read from its own file when it is first used. */
+    private static final boolean ASSET_PRELOAD =
+            Boolean.parseBoolean(System.getProperty(ASSET_PRELOAD_PROPERTY, "true"));
+
+    /** Layer of the moving objects when sweep-and-prune collides them with each other */
+    private static final int DYNAMIC_LAYER = Layer.DEFAULT + 1;
+
+    /** Fixed-point steps run in one frame to catch up, before the rest of the time is dropped */
+    private static final int MAX_CATCH_UP_STEPS = 4;
+
+    /** Nanoseconds in a millisecond, for reporting the time to the first frame */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
     /** Name of the game */
     public static final String BRICKER = "Bricker";
 
+    /** System property that shows the predicted path of the main ball (off by default) */
+    public static final String TRAJECTORY_PREVIEW_PROPERTY = "bricker.trajectoryPreview";
+
+    /** System property selecting the AI paddle mode (follow_user or intercept) */
+    public static final String AI_PADDLE_MODE_PROPERTY = "bricker.aiPaddleMode";
+
 
     /** Number of rows of bricks */
     private final int rows;
@@ -179,6 +221,106 @@ public class BrickerGameManager extends GameManager {
     /** Number of lives the player has left */
     private int livesLeft;
 
+    /** How AI paddles created by ExtraPaddleStrategy choose where to move */
+    private AIPaddle.Mode aiPaddleMode;
+
+    /** Predicts where the ball and pucks will land, used by AI paddles in intercept mode */
+    private InterceptPlanner interceptPlanner;
+
+    /** The bricks of this game, by their cell in the brick layout */
+    private BrickGrid brickGrid;
+
+    /** Predicts what a ball will hit next, over the bricks, walls and paddles of this game */
+    private TrajectoryQuery trajectoryQuery;
+
+    /** Ends the turbo ball, the AI paddle and other timed effects of this game */
+    private EffectScheduler effectScheduler;
+
+    /** The AI paddle shared by the ExtraPaddleStrategy bricks of this game */
+    private ExtraPaddleState extraPaddleState;
+
+    /** Whether the game runs without a window, keyboard or sound */
+    private boolean headless;
+
+    /** Number of games that ended (won or lost) while running headless */
+    private int completedGames;
+
+    /** The main ball and all the live pucks */
+    private final List<Ball> liveBalls = new ArrayList<>();
+
+    /** Degrades sounds, pucks and overlays when frames take longer than the budget */
+    private final FrameGovernor frameGovernor = new FrameGovernor();
+
+    /** Whether the life indicators show an outdated number of lives */
+    private boolean livesDisplayDirty;
+
+    /** Decodes and keeps the images of the game, null when headless */
+    private BundledImageReader bundledImageReader;
+
+    /** When the first initialization started, for reporting the time to the first frame */
+    private long initializationStart;
+
+    /** Whether the time to the first frame was already reported */
+    private boolean firstFrameReported;
+
+    /** Redraws only the changed parts of the window, null when the mode is off */
+    private final DirtyRectRenderer dirtyRectRenderer =
+            DirtyRectRenderer.isEnabled() ? new DirtyRectRenderer() : null;
+
+    /** Timestamped arrow and W key events for the user paddle and the simulation thread,
+     * null until a window is used */
+    private InputEventQueue inputQueue;
+
+    /** Draws only what the camera sees, null unless the board is larger than the window */
+    private ViewportCuller viewportCuller;
+
+    /** Simulates the game on its own thread, null when the window thread simulates it */
+    private SimulationThread simulationThread;
+
+    /** Frame time not simulated yet in fixed-point mode, less than FixedPoint.STEP_SECONDS */
+    private float unsimulatedTime;
+
+    /** The prompt of a game the simulation thread ended, for the window thread to show */
+    private volatile String pendingGameEnd;
+
+    /** Updates pucks, falling hearts and AI paddles on several threads, when turned on */
+    private ParallelUpdater parallelUpdater = new ParallelUpdater(this);
+
+    /** Removes the pucks and falling hearts that left the board, once per frame. */
+    private OffscreenSweeper offscreenSweeper;
+
+    /** The random choices of the current game, seeded by FixedPoint.SEED_PROPERTY if set. */
+    private Random random;
+
+    /** Seed of the random choices that overrides FixedPoint.SEED_PROPERTY, null for none. */
+    private Long seed;
+
+    /** The odds of the strategies of the bricks, StrategyWeights.WEIGHTS_PROPERTY by default. */
+    private StrategyWeights strategyWeights = StrategyWeights.fromProperty();
+
+    /** The strategy every brick gets, StrategyFactory.FORCED_STRATEGY_PROPERTY by default. */
+    private String forcedStrategy = System.getProperty(StrategyFactory.FORCED_STRATEGY_PROPERTY);
+
+    /** Scrolls the bricks and recycles their rows in endless mode, null otherwise. */
+    private EndlessBoard endlessBoard;
+
+    /** Collides the moving objects with each other when enabled, null otherwise. */
+    private SweepAndPrune sweepAndPrune;
+
+    /** Records the last seconds of the game for rewinding, null when rewinding is off. */
+    private RewindBuffer rewindBuffer;
+
+    /** Finds when the frame times settle after the first frame, null once it was reported. */
+    private FrameStability frameStability = new FrameStability();
+
+    /** Scores the bricks destroyed in the current game */
+    private final ScoreKeeper scoreKeeper = new ScoreKeeper();
+
+    /** The results of the games played on this machine, null when headless */
+    private Leaderboard leaderboard;
+
+    /** Observers of the game, notified on the game thread */
+    private final List<GameEventListener> listeners = new ArrayList<>(List.of(scoreKeeper));
 
 
     /**
@@ -195,6 +337,7 @@ public class BrickerGameManager extends GameManager {
         this.bricksPerRow = DEFAULT_BRICKS_PER_ROW;
         this.width = windowDimensions.x();
         this.height = windowDimensions.y();
+        this.aiPaddleMode = readAIPaddleMode();
     }
 
     /**
@@ -212,6 +355,27 @@ public class BrickerGameManager extends GameManager {
         this.bricksPerRow = bricksPerRow;
         this.width = windowDimensions.x();
         this.height = windowDimensions.y();
+        this.aiPaddleMode = readAIPaddleMode();
+    }
+
+    /**
+     * Constructs a Bricker game manager whose board is larger than its window. The camera
+     * follows the ball over the board, and only what it sees is drawn.
+     *
+     * @param windowTitle The title of the game window.
+     * @param windowDimensions The size of the game window.
+     * @param bricksPerRow Number of bricks in each row.
+     * @param numRows Number of rows of bricks.
+     * @param boardDimensions The size of the board, at least the size of the window.
+     */
+    public BrickerGameManager(String windowTitle, Vector2 windowDimensions,
+                              int bricksPerRow, int numRows, Vector2 boardDimensions){
+        super(windowTitle, windowDimensions);
+        this.rows = numRows;
+        this.bricksPerRow = bricksPerRow;
+        this.width = Math.max(windowDimensions.x(), boardDimensions.x());
+        this.height = Math.max(windowDimensions.y(), boardDimensions.y());
+        this.aiPaddleMode = readAIPaddleMode();
     }
 
     /**
@@ -229,26 +393,168 @@ public class BrickerGameManager extends GameManager {
     @Override
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
+        if(!firstFrameReported && initializationStart == 0){
+            initializationStart = System.nanoTime();
+        }
+        if(simulationThread != null){
+            simulationThread.stop();
+            simulationThread = null;
+        }
+        unsimulatedTime = 0;
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         this.windowController = windowController;
+        if(!headless && leaderboard == null){
+            leaderboard = Leaderboard.openDefault();
+        }
         this.inputListener = inputListener;
         this.livesLeft = INITIAL_LIVES;
-        Vector2 windowDimensions = windowController.getWindowDimensions();
+        this.livesDisplayDirty = false;
+        Vector2 windowDimensions = getWindowDimensions();
+        Vector2 boardDimensions = getBoardDimensions();
         brickCounter = new Counter();
+        liveBalls.clear();
+        Long gameSeed = seed != null ? seed : FixedPoint.seed();
+        random = gameSeed != null ? new Random(gameSeed) : new Random();
+        extraPaddleState = new ExtraPaddleState();
+        effectScheduler = new EffectScheduler();
+        parallelUpdater.clear();
+        sweepAndPrune = SweepAndPrune.isEnabled() ? new SweepAndPrune() : null;
+        if(sweepAndPrune != null){
+            // the moving objects meet each other in the sweep, and the rest of the board in
+            // the engine
+            gameObjects().layers().shouldLayersCollide(DYNAMIC_LAYER, DYNAMIC_LAYER, false);
+            gameObjects().layers().shouldLayersCollide(DYNAMIC_LAYER, Layer.DEFAULT, true);
+        }
+        offscreenSweeper = new OffscreenSweeper(this, boardDimensions);
+        interceptPlanner = new InterceptPlanner(BORDER_WIDTH, boardDimensions.x() - BORDER_WIDTH);
+        if(dirtyRectRenderer != null){
+            dirtyRectRenderer.invalidateAll();
+        }
+        viewportCuller = !headless && (width > windowDimensions.x() ||
+                height > windowDimensions.y()) ? new ViewportCuller(boardDimensions) : null;
+
+        // start decoding the bundled images, they are awaited only where they are first used.
+        // danogl's readers are not known to be thread-safe, so the sound is read right here
+        imageReader = preloadImages(imageReader);
+        Sound ballSound = GameEvents.loadSound(soundReader, BALL_SOUND_PATH);
 
-        Renderable paddleImage = imageReader.readImage(PADDLE_ASSET_PATH , true);
+        createWalls(boardDimensions);
+        brickGrid = new BrickGrid(getBrickLayout());
+        trajectoryQuery = new TrajectoryQuery(brickGrid, boardDimensions);
 
-        createUserPaddle(inputListener, paddleImage, windowDimensions);
+        Renderable paddleImage = GameEvents.loadImage(imageReader, PADDLE_ASSET_PATH , true);
 
-        createWalls(windowDimensions);
+        createUserPaddle(inputListener, paddleImage, boardDimensions);
 
         createBackground(imageReader, windowDimensions);
 
-        createBall(imageReader, soundReader, windowDimensions);
+        createBall(imageReader, ballSound, boardDimensions);
+        if(viewportCuller != null){
+            setCamera(new Camera(mainBall, Vector2.ZERO, windowDimensions, windowDimensions));
+        }
 
         addBricks(imageReader);
 
         createLivesIndicators(imageReader);
+        if(!headless && Boolean.getBoolean(TRAJECTORY_PREVIEW_PROPERTY)){
+            addToGame(new TrajectoryPreview(mainBall, trajectoryQuery), Layer.FOREGROUND, true);
+        }
+        if(headless){
+            userPaddle.setAutopilot(mainBall);
+        }
+        if(rewindBuffer == null && RewindBuffer.isEnabled() && endlessBoard == null &&
+                !SimulationThread.isEnabled()){
+            rewindBuffer = new RewindBuffer();
+            listeners.add(rewindBuffer);
+        }
+        for(GameEventListener listener : listeners){
+            listener.onGameInitialized(this);
+        }
+        if(!headless && !firstFrameReported){
+            // the warm-up ran while the window opened and the assets were decoded
+            JitWarmup.await();
+        }
+        if(!headless && SimulationThread.isEnabled()){
+            simulationThread = new SimulationThread(this);
+            simulationThread.start();
+        }
+    }
+
+    /**
+     * Starts decoding all the images of the game in parallel, taking them from the asset bundle
+     * when there is one. The returned reader keeps the decoded images across game resets.
+     *
+     * @param imageReader The image reader of the window.
+     * @return the reader the game should read its images with.
+     */
+    private ImageReader preloadImages(ImageReader imageReader) {
+        if(headless){
+            return imageReader;
+        }
+        if(bundledImageReader == null || bundledImageReader.getDelegate() != imageReader){
+            bundledImageReader = new BundledImageReader(imageReader,
+                    ASSET_PRELOAD ? AssetBundle.openDefault() : null);
+        }
+        if(!ASSET_PRELOAD){
+            return bundledImageReader;
+        }
+        for(String path : TRANSPARENT_IMAGES){
+            bundledImageReader.preload(path, true);
+        }
+        for(String path : OPAQUE_IMAGES){
+            bundledImageReader.preload(path, false);
+        }
+        return bundledImageReader;
+    }
+
+    /**
+     * Prints, once, how long it took from the start of the initialization and from the start
+     * of the JVM until the first frame.
+     */
+    private void reportFirstFrame() {
+        firstFrameReported = true;
+        if(headless){
+            frameStability = null;
+            return;
+        }
+        System.out.printf("first frame: %d ms after initialization, %d ms after JVM start" +
+                        " (asset preload %s, warm-up %s)%n",
+                (System.nanoTime() - initializationStart) / NANOS_PER_MILLI,
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                ASSET_PRELOAD ? "on" : "off", JitWarmup.describe());
+    }
+
+    /**
+     * Prints, once, how long it took from the first frame until the frame times settled.
+     */
+    private void reportSettledFrames() {
+        System.out.printf("frames settled: %d ms after the first frame (%d frames)%n",
+                frameStability.getSettledNanos() / NANOS_PER_MILLI, frameStability.getFrames());
+        frameStability = null;
+    }
+
+    /**
+     * Prints the latency from arrow key presses to the movement of the user paddle.
+     */
+    private void reportInputLatency() {
+        if(inputQueue == null || inputQueue.getLatencyCount() == 0) return;
+        System.out.printf("input-to-motion latency (%s input): mean %.2f ms, p99 %.2f ms," +
+                        " max %.2f ms over %d presses, %d events dropped%n",
+                InputEventQueue.isTimedInputEnabled() ? "timed" : "polled",
+                inputQueue.getMeanLatencyMillis(), inputQueue.getP99LatencyMillis(),
+                inputQueue.getMaxLatencyMillis(), inputQueue.getLatencyCount(),
+                inputQueue.getDropped());
+    }
+
+    /**
+     * Initializes the game without a window, keyboard or sound, so it can be advanced by
+     * calling {@link #update(float)} directly (for example by a {@link SessionHost}).
+     * Assets are replaced by blank images, and the user paddle follows the ball by itself.
+     * When a headless game ends, it is counted and immediately started again.
+     */
+    public void initializeHeadless() {
+        headless = true;
+        initializeGame(new HeadlessImageReader(), new HeadlessSoundReader(), null, null);
     }
 
 
@@ -259,7 +565,7 @@ public class BrickerGameManager extends GameManager {
      * @param imageReader The image reader to load the heart asset from.
      */
     private void createLivesIndicators(ImageReader imageReader) {
-        Renderable heartImage = imageReader.readImage(HEART_ASSET_PATH ,
+        Renderable heartImage = GameEvents.loadImage(imageReader, HEART_ASSET_PATH ,
                 true);
         graphicLife = new GraphicLife(
                 new Vector2(HEART_SIZE, HEART_SIZE),
@@ -283,7 +589,18 @@ public class BrickerGameManager extends GameManager {
                 paddleImage, inputListener, width);
         userPaddle.setCenter(new Vector2(windowDimensions.x()/ CENTER_DIVISOR,
                 windowDimensions.y()-PADDLE_BOTTOM_OFFSET));
-        gameObjects().addGameObject(userPaddle);
+        if(inputListener != null){
+            if(inputQueue == null){
+                inputQueue = new InputEventQueue(KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT,
+                        KeyEvent.VK_W);
+                inputQueue.install();
+            }
+            // the simulation thread can only read the keyboard through the queue
+            userPaddle.setInputQueue(inputQueue, InputEventQueue.isTimedInputEnabled() ||
+                    SimulationThread.isEnabled());
+        }
+        addToGame(userPaddle, Layer.DEFAULT, true);
+        trajectoryQuery.addPaddle(userPaddle);
     }
 
     /**
@@ -295,7 +612,7 @@ public class BrickerGameManager extends GameManager {
      * @param windowDimensions  The dimensions of the game window.
      */
     private void createBackground(ImageReader imageReader, Vector2 windowDimensions) {
-        Renderable backgroundImage = imageReader.readImage(BACKGROUND_IMAGE_PATH ,
+        Renderable backgroundImage = GameEvents.loadImage(imageReader, BACKGROUND_IMAGE_PATH ,
                 false);
         GameObject background = new GameObject(Vector2.ZERO,
                 windowDimensions, backgroundImage);
@@ -308,57 +625,172 @@ public class BrickerGameManager extends GameManager {
      * sets its initial position to the center of the screen, and adds it to the game.
      *
      * @param imageReader       Used to load the image for the ball.
-     * @param soundReader       Used to load the sound played upon ball collisions.
+     * @param collisionSound    The sound played upon ball collisions.
      * @param windowDimensions  The dimensions of the game window, used for centering the ball.
      */
     private void createBall(ImageReader imageReader,
-                            SoundReader soundReader, Vector2 windowDimensions) {
-        Renderable ballImage = imageReader.readImage(BALL_IMAGE_PATH, true);
-        collisionSound = soundReader.readSound(BALL_SOUND_PATH);
+                            Sound collisionSound, Vector2 windowDimensions) {
+        Renderable ballImage = GameEvents.loadImage(imageReader, BALL_IMAGE_PATH, true);
+        this.collisionSound = collisionSound;
         Ball mainBall = new Ball(Vector2.ZERO, BALL_DIMENSIONS, ballImage, collisionSound);
         mainBall.setCenter(windowDimensions.mult(BALL_INITIAL_POSITION_FACTOR));
-        gameObjects().addGameObject(mainBall);
+        addToGame(mainBall, Layer.DEFAULT, true);
+        liveBalls.add(mainBall);
         float ballVelX = BALL_SPD;
         float ballVelY = BALL_SPD;
-        Random rand = new Random();
-        if(rand.nextBoolean()) {
+        if(random.nextBoolean()) {
             ballVelX *= DIRECTION_INVERSION;
         }
-        if(rand.nextBoolean()) {
+        if(random.nextBoolean()) {
             ballVelY *= DIRECTION_INVERSION;
         }
         mainBall.setVelocity(new Vector2(ballVelX, ballVelY));
+        mainBall.setInterceptPlanner(interceptPlanner);
+        mainBall.setFrameGovernor(frameGovernor);
+        mainBall.setEffectScheduler(effectScheduler);
         this.mainBall = mainBall;
     }
 
     /**
      * Called every frame to update game logic.
      * Handles win/loss conditions, ball reset, and user prompt when necessary.
+     * Does nothing but reporting the first frame when the simulation runs on its own thread,
+     * until the simulation thread ends the game and hands the end over to the window thread.
+     * While R is held, the game is stepped back through the recorded frames instead, and
+     * while F is held after that, forward through them again. In fixed-point mode, the frame
+     * time is simulated in whole steps of FixedPoint.STEP_SECONDS, and the rest of it is
+     * carried over to the next frame.
      *
      * @param deltaTime Time since last frame, in seconds.
      */
     @Override
     public void update(float deltaTime) {
+        if(!firstFrameReported){
+            reportFirstFrame();
+        }
+        if(frameStability != null && frameStability.onFrame(System.nanoTime())){
+            reportSettledFrames();
+        }
+        String endedPrompt = pendingGameEnd;
+        if(endedPrompt != null){
+            pendingGameEnd = null;
+            // the step that ended the game is the last one the simulation thread runs
+            simulationThread.stop();
+            endGame(endedPrompt);
+            return;
+        }
+        if(simulationThread != null) return;
+        if(rewindBuffer != null && inputListener != null){
+            if(inputListener.isKeyPressed(KeyEvent.VK_R)){
+                rewindBuffer.stepBack();
+                return;
+            }
+            if(inputListener.isKeyPressed(KeyEvent.VK_F) && rewindBuffer.stepForward()){
+                return;
+            }
+        }
+        if(!FixedPoint.isEnabled()){
+            simulate(deltaTime);
+            return;
+        }
+        // fixed-point objects only see the constant step, so the game is the same on every
+        // machine whatever its frame times
+        unsimulatedTime += deltaTime;
+        for(int i = 0; i < MAX_CATCH_UP_STEPS && unsimulatedTime >= FixedPoint.STEP_SECONDS; i++){
+            simulate(FixedPoint.STEP_SECONDS);
+            unsimulatedTime -= FixedPoint.STEP_SECONDS;
+        }
+        if(unsimulatedTime >= FixedPoint.STEP_SECONDS){
+            unsimulatedTime = 0;
+        }
+    }
+
+    /**
+     * Advances the game by one step: updates and collides the objects, and checks whether
+     * the game was won or lost. Called on the window thread by {@link #update(float)}, or on
+     * the simulation thread when it runs.
+     *
+     * @param deltaTime Time since the previous step, in seconds.
+     */
+    void simulate(float deltaTime) {
+        GameEvents.FrameTickEvent frameEvent = GameEvents.beginFrame();
+        frameGovernor.onFrameStart(System.nanoTime());
+        // settles the planner, so AI paddles only read it during the parallel phase
+        interceptPlanner.mostUrgentLandingX();
+        parallelUpdater.updateAll(deltaTime);
         super.update(deltaTime);
+        if(sweepAndPrune != null){
+            sweepAndPrune.collide();
+        }
+        if(endlessBoard != null){
+            endlessBoard.advance(deltaTime);
+        }
+        offscreenSweeper.sweep();
+        interceptPlanner.advance(deltaTime);
+        effectScheduler.advance(deltaTime);
+        if(livesDisplayDirty && frameGovernor.shouldUpdateOverlays()){
+            graphicLife.updateLives(livesLeft);
+            numericLife.updateLives(livesLeft);
+            if(dirtyRectRenderer != null){
+                dirtyRectRenderer.invalidate(numericLife);
+            }
+            livesDisplayDirty = false;
+        }
         double ballHeight = mainBall.getCenter().y();
         Vector2 middle = new Vector2(width / CENTER_DIVISOR,  height / CENTER_DIVISOR);
         String prompt = EMPTY;
 
-        if(inputListener.isKeyPressed(KeyEvent.VK_W)){
+        if(isWinKeyPressed()){
             prompt = WIN;
         }
 
-        if(brickCounter.value() == 0){
+        // an endless board is never cleared for good, new rows keep coming
+        if(brickCounter.value() == 0 && endlessBoard == null){
             prompt = WIN;
         }
         if(ballHeight < 0){
             prompt = WIN;
         }
         prompt = checkLose(ballHeight, middle, prompt);
+        for(GameEventListener listener : listeners){
+            listener.onFrameEnd(deltaTime);
+        }
+        frameGovernor.onFrameEnd(System.nanoTime());
+        GameEvents.endFrame(frameEvent, gameObjects(), liveBalls.size());
         if (prompt == null) return;
         handleGameEnd(prompt);
     }
 
+    /**
+     * Draws the game. On a board larger than the window, only the objects the camera sees are
+     * drawn. Otherwise, when dirty-rectangle rendering is on, only the parts of the window that
+     * changed since the previous frame are redrawn. A game with a camera is always redrawn
+     * entirely, since moving the camera moves everything on the screen. When the simulation
+     * runs on its own thread, the newest snapshot it published is drawn instead. The time the
+     * drawing takes counts towards the frame budget of the frame governor.
+     *
+     * @param g The graphics of the window.
+     */
+    @Override
+    public void render(Graphics2D g) {
+        long start = System.nanoTime();
+        if(simulationThread != null){
+            simulationThread.render(g);
+        }
+        else if(viewportCuller != null && camera() != null){
+            viewportCuller.render(g, gameObjects(), camera());
+        }
+        else if(dirtyRectRenderer == null || camera() != null){
+            super.render(g);
+        }
+        else{
+            Vector2 windowDimensions = getWindowDimensions();
+            dirtyRectRenderer.render(g, gameObjects(), (int) windowDimensions.x(),
+                    (int) windowDimensions.y());
+        }
+        frameGovernor.onRender(System.nanoTime() - start);
+    }
+
     /**
      * Checks whether the player has lost a life or the game.
      * If the ball has fallen below the bottom of the window, the player loses a life.
@@ -373,10 +805,11 @@ public class BrickerGameManager extends GameManager {
     private String checkLose(double ballHeight, Vector2 middle, String prompt) {
         if(ballHeight > height){
             livesLeft--;
+            GameEvents.lifeLost(livesLeft);
                 if (livesLeft > 0) {
                 mainBall.setCenter(middle);
-                graphicLife.updateLives(livesLeft);
-                numericLife.updateLives(livesLeft);
+                interceptPlanner.track(mainBall);
+                livesDisplayDirty = true;
                     return null;
             }
             else{
@@ -393,22 +826,81 @@ public class BrickerGameManager extends GameManager {
      * they want to play again.
      * If the player chooses to play again, the game is reset with initial lives.
      * Otherwise, the game window is closed.
+     * When the simulation thread ended the game, the window thread does so on its next frame.
      *
      * @param prompt The message to display to the user at the end of the game (e.g., win/lose).
      */
     private void handleGameEnd(String prompt) {
         if(!prompt.isEmpty()){
-            prompt += PLAY_AGAIN;
-            if(windowController.openYesNoDialog(prompt)){
-                livesLeft = INITIAL_LIVES;
-                windowController.resetGame();
+            for(GameEventListener listener : listeners){
+                listener.onGameEnded(prompt.equals(WIN));
             }
-            else{
-                windowController.closeWindow();
+        }
+        if(!prompt.isEmpty() && headless){
+            completedGames++;
+            initializeHeadless();
+        }
+        else if(!prompt.isEmpty() && simulationThread != null){
+            // the dialog and the reset belong to the window thread, the step in progress is
+            // the last
+            simulationThread.stop();
+            pendingGameEnd = prompt;
+        }
+        else if(!prompt.isEmpty()){
+            endGame(prompt);
+        }
+    }
+
+    /**
+     * Records the score and asks the player whether they want to play again, then resets
+     * the game or closes the window. Called on the window thread.
+     *
+     * @param prompt The message to display to the user at the end of the game (e.g., win/lose).
+     */
+    private void endGame(String prompt) {
+        prompt += recordScore(prompt.equals(WIN)) + PLAY_AGAIN;
+        if(windowController.openYesNoDialog(prompt)){
+            livesLeft = INITIAL_LIVES;
+            windowController.resetGame();
+        }
+        else{
+            reportInputLatency();
+            if(leaderboard != null){
+                leaderboard.close();
             }
+            windowController.closeWindow();
         }
     }
 
+    /**
+     * @return true if W, which wins the game at once, is held. The simulation thread reads it
+     * from the input queue, since only the window thread may poll the keyboard.
+     */
+    private boolean isWinKeyPressed() {
+        if(simulationThread != null){
+            return inputQueue != null && inputQueue.isHeld(KeyEvent.VK_W);
+        }
+        return inputListener != null && inputListener.isKeyPressed(KeyEvent.VK_W);
+    }
+
+
+    /**
+     * Adds the result of the game that ended to the leaderboard.
+     *
+     * @param won Whether the game was won.
+     * @return the score, and its rank among the games of the same board size when there is
+     * a leaderboard.
+     */
+    private String recordScore(boolean won) {
+        int score = scoreKeeper.getScore();
+        if(leaderboard == null){
+            return String.format(SCORE_FORMAT, score);
+        }
+        int rank = leaderboard.submit(score, scoreKeeper.getBricksDestroyed(), bricksPerRow,
+                rows, won);
+        return rank > 0 ? String.format(RANKED_SCORE_FORMAT, score, rank) :
+                String.format(SCORE_FORMAT, score);
+    }
 
     /**
      * Removes a game object from the game's active object collection.
@@ -417,7 +909,78 @@ public class BrickerGameManager extends GameManager {
      * @return true if the object was successfully removed; false otherwise.
      */
     public boolean removeGameObjectFromGame(GameObject obj) {
-        return gameObjects().removeGameObject(obj);
+        return removeFromGame(obj, false);
+    }
+
+    /**
+     * Removes a game object from the game and from every index that holds it. Every removal
+     * goes through here, so each index forgets an object in one place.
+     *
+     * @param obj      The GameObject to remove.
+     * @param replayed Whether a rewound game replays the removal of a brick.
+     * @return true if the object was successfully removed; false otherwise.
+     */
+    private boolean removeFromGame(GameObject obj, boolean replayed) {
+        boolean removed = gameObjects().removeGameObject(obj, layerOf(obj));
+        if(removed && viewportCuller != null){
+            viewportCuller.remove(obj);
+        }
+        if(removed && sweepAndPrune != null){
+            sweepAndPrune.remove(obj);
+        }
+        if(removed && obj instanceof Brick){
+            onBrickRemoved((Brick) obj, replayed);
+        }
+        if(removed && obj instanceof Ball){
+            liveBalls.remove(obj);
+        }
+        if(removed && obj instanceof Puck){
+            GameEvents.puckDespawned();
+        }
+        if(removed && (obj instanceof AIPaddle || obj instanceof RemotePaddle)){
+            trajectoryQuery.removePaddle(obj);
+        }
+        if(removed && obj instanceof ParallelUpdatable){
+            parallelUpdater.unregister((ParallelUpdatable) obj);
+        }
+        if(removed && obj instanceof Transient){
+            offscreenSweeper.untrack(obj);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes many bricks at once, for strategies that clear parts of the board. The caller
+     * updates the brick counter once, with the returned number, instead of once per brick.
+     *
+     * @param bricks The bricks to remove.
+     * @return the number of bricks that were in the game and were removed.
+     */
+    public int removeBricks(List<Brick> bricks) {
+        int removed = 0;
+        for(Brick brick : bricks){
+            if(removeFromGame(brick, false)){
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Updates the brick grid and notifies the listeners about a brick that left the game.
+     *
+     * @param brick    The removed brick.
+     * @param replayed Whether a rewound game replays the removal, which is then not recorded
+     *                 as a new brick destroyed.
+     */
+    private void onBrickRemoved(Brick brick, boolean replayed) {
+        brickGrid.remove(brick);
+        if(!replayed){
+            GameEvents.brickDestroyed(brick.getStrategy(), brick.getIndex());
+        }
+        for(GameEventListener listener : listeners){
+            listener.onBrickRemoved(brick);
+        }
     }
 
     /**
@@ -426,7 +989,32 @@ public class BrickerGameManager extends GameManager {
      * @param obj The GameObject to add.
      */
     public void addGameObjectFromGame(GameObject obj) {
-        gameObjects().addGameObject(obj);
+        addToGame(obj, Layer.DEFAULT, true);
+        if(obj instanceof Ball){
+            liveBalls.add((Ball) obj);
+        }
+        if(obj instanceof Puck){
+            GameEvents.puckSpawned();
+        }
+        if(obj instanceof AIPaddle || obj instanceof RemotePaddle){
+            trajectoryQuery.addPaddle(obj);
+        }
+        if(obj instanceof ParallelUpdatable){
+            parallelUpdater.register((ParallelUpdatable) obj);
+        }
+        if(obj instanceof Transient){
+            offscreenSweeper.track(obj);
+        }
+    }
+
+    /**
+     * Retrieves the dimensions of the board, which is larger than the window when the game
+     * was constructed with a board size.
+     *
+     * @return A Vector2 representing the width and height of the board.
+     */
+    public Vector2 getBoardDimensions() {
+        return new Vector2(width, height);
     }
 
     /**
@@ -435,6 +1023,9 @@ public class BrickerGameManager extends GameManager {
      * @return A Vector2 representing the width and height of the window.
      */
     public Vector2 getWindowDimensions() {
+        if(windowController == null){
+            return new Vector2(width, height);
+        }
         return windowController.getWindowDimensions();
     }
 
@@ -445,35 +1036,89 @@ public class BrickerGameManager extends GameManager {
      * @param imageReader Used to load the brick image asset.
      */
     public void addBricks(ImageReader imageReader){
-        Renderable brickImage = imageReader.readImage(BRICK_ASSET_PATH,
+        Renderable brickImage = GameEvents.loadImage(imageReader, BRICK_ASSET_PATH,
                 false);
-
-        // calculate precisely the dimensions of each brick
-        float netWidth = width - (BORDER_HEIGHT * BORDER_WIDTH) -
-                ((bricksPerRow + ADD_SPACES) * SPACE_BETWEEN_BRICKS);
-        float bricksLength = netWidth / bricksPerRow;
-        Vector2 dimension = new Vector2(bricksLength, BRICK_HEIGHT);
+        BrickLayout layout = getBrickLayout();
+        Vector2 dimension = layout.brickDimensions();
 
         // adding the bricks
-        float currentWidth = BORDER_WIDTH + SPACE_BETWEEN_BRICKS;
         StrategyFactory factory = new StrategyFactory(this, brickCounter,
                 collisionSound, userPaddle, imageReader, mainBall);
+        endlessBoard = EndlessBoard.isEnabled() ?
+                new EndlessBoard(this, brickGrid, factory) : null;
 
         for(int col = 0; col < bricksPerRow; col++){
-            int currentHeight = BORDER_WIDTH;
-
             for(int row = 0; row < rows; row++){
-                Brick current = new Brick(new Vector2(currentWidth, currentHeight),
-                        dimension, brickImage, factory.randomStrategy());
+                Brick current = new Brick(layout.topLeftCorner(col, row),
+                        dimension, brickImage, factory.randomStrategy(), layout.index(col, row));
 
-                gameObjects().addGameObject(current);
+                addToGame(current, Layer.DEFAULT, endlessBoard != null);
+                brickGrid.add(current);
                 brickCounter.increment();
-                currentHeight += BRICK_HEIGHT + SPACE_BETWEEN_BRICKS;
+                if(endlessBoard != null){
+                    endlessBoard.add(current);
+                }
             }
-            currentWidth += SPACE_BETWEEN_BRICKS + bricksLength;
         }
     }
 
+    /**
+     * Puts a destroyed brick back into the game, when the endless board recycles its row or
+     * the game is rewound.
+     *
+     * @param brick The brick, already moved to its new row.
+     */
+    void restoreBrick(Brick brick){
+        addToGame(brick, Layer.DEFAULT, endlessBoard != null);
+        brickGrid.add(brick);
+        brickCounter.increment();
+    }
+
+    /**
+     * Puts a brick back into the game when the game is rewound to before it was removed, and
+     * notifies the listeners.
+     *
+     * @param brick The brick to put back.
+     */
+    void undoBrickRemoval(Brick brick){
+        restoreBrick(brick);
+        for(GameEventListener listener : listeners){
+            listener.onBrickRestored(brick);
+        }
+    }
+
+    /**
+     * Removes a brick again when a rewound game is stepped forward past its removal.
+     *
+     * @param brick The brick to remove.
+     */
+    void redoBrickRemoval(Brick brick){
+        if(removeFromGame(brick, true)){
+            brickCounter.decrement();
+        }
+    }
+
+    /**
+     * Sets the lives left when the game is rewound, and redraws their indicators.
+     *
+     * @param lives The lives left at the frame the game was rewound to.
+     */
+    void restoreLives(int lives){
+        if(lives != livesLeft){
+            livesLeft = lives;
+            livesDisplayDirty = true;
+        }
+    }
+
+    /**
+     * Returns the layout of the brick grid of this game.
+     *
+     * @return the brick layout, computed from the board width, rows and bricks per row.
+     */
+    public BrickLayout getBrickLayout(){
+        return new BrickLayout(width, bricksPerRow, rows);
+    }
+
     /**
      * Creates three boundary walls (left, right, and top) to keep the ball within the screen.
      * The bottom is intentionally left open to allow the ball to fall and trigger a life loss.
@@ -493,9 +1138,37 @@ public class BrickerGameManager extends GameManager {
         GameObject rightWall = new GameObject(rightWallPosition, wallSizeVertical, wallRenderable);
         GameObject topWall = new GameObject(topWallPosition, topWallSize, wallRenderable);
 
-        gameObjects().addGameObject(leftWall);
-        gameObjects().addGameObject(rightWall);
-        gameObjects().addGameObject(topWall);
+        addToGame(leftWall, Layer.DEFAULT, false);
+        addToGame(rightWall, Layer.DEFAULT, false);
+        addToGame(topWall, Layer.DEFAULT, false);
+    }
+
+    /**
+     * Adds an object of the board to the game, and to the camera's index when there is one.
+     *
+     * @param obj The object to add, in world coordinates.
+     * @param layer The layer to add it to.
+     * @param moves Whether the object can move or be resized.
+     */
+    private void addToGame(GameObject obj, int layer, boolean moves) {
+        if(layer == Layer.DEFAULT && layerOf(obj) == DYNAMIC_LAYER){
+            layer = DYNAMIC_LAYER;
+            sweepAndPrune.add(obj);
+        }
+        gameObjects().addGameObject(obj, layer);
+        if(viewportCuller != null){
+            viewportCuller.add(obj, layer, moves);
+        }
+    }
+
+    /**
+     * @param obj An object of the board.
+     * @return the layer the object is in: the layer of the moving objects when sweep-and-prune
+     * collides them, the default layer otherwise.
+     */
+    private int layerOf(GameObject obj) {
+        return sweepAndPrune != null && obj instanceof FixedPointObject ?
+                DYNAMIC_LAYER : Layer.DEFAULT;
     }
 
     /**
@@ -507,6 +1180,307 @@ public class BrickerGameManager extends GameManager {
         return userPaddle;
     }
 
+    /**
+     * Returns the planner predicting where the ball and pucks of this game will land.
+     *
+     * @return the intercept planner of the current game.
+     */
+    public InterceptPlanner getInterceptPlanner(){
+        return interceptPlanner;
+    }
+
+    /**
+     * Returns the bricks of this game, indexed by their cell in the brick layout.
+     *
+     * @return the brick grid of the current game.
+     */
+    public BrickGrid getBrickGrid(){
+        return brickGrid;
+    }
+
+    /**
+     * Returns the updater of the dynamic objects of this game.
+     *
+     * @return the parallel updater of this game.
+     */
+    public ParallelUpdater getParallelUpdater(){
+        return parallelUpdater;
+    }
+
+    /**
+     * Returns the source of the random choices of this game. It is seeded by
+     * {@value FixedPoint#SEED_PROPERTY} when it is set, so a seeded game makes the same choices
+     * in every run.
+     *
+     * @return the random of this game.
+     */
+    public Random getRandom(){
+        return random;
+    }
+
+    /**
+     * Seeds the random choices of the games that are initialized from now on, instead of
+     * {@value FixedPoint#SEED_PROPERTY}.
+     *
+     * @param seed the seed of the random choices.
+     */
+    public void setSeed(long seed){
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the odds of the strategies the bricks of this game get.
+     *
+     * @return the weight table of this game.
+     */
+    public StrategyWeights getStrategyWeights(){
+        return strategyWeights;
+    }
+
+    /**
+     * Sets the odds of the strategies the bricks get, in the games that are initialized from
+     * now on.
+     *
+     * @param strategyWeights the weight table to use.
+     */
+    public void setStrategyWeights(StrategyWeights strategyWeights){
+        this.strategyWeights = strategyWeights;
+    }
+
+    /**
+     * Returns the name of the strategy every brick of this game gets.
+     *
+     * @return the forced strategy, or null when the bricks get random strategies.
+     */
+    public String getForcedStrategy(){
+        return forcedStrategy;
+    }
+
+    /**
+     * Gives every brick the same strategy, in the games that are initialized from now on.
+     *
+     * @param forcedStrategy the name of the strategy, as in
+     *                       {@value StrategyFactory#FORCED_STRATEGY_PROPERTY}, or null for
+     *                       random strategies.
+     */
+    public void setForcedStrategy(String forcedStrategy){
+        this.forcedStrategy = forcedStrategy;
+    }
+
+    /**
+     * Counts the objects that are currently in the game, on all layers.
+     *
+     * @return the number of game objects.
+     */
+    public int countGameObjects(){
+        int count = 0;
+        for(GameObject ignored : gameObjects()){
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Hashes the state of the game: the lives, the remaining bricks, and the positions and
+     * velocities of the moving objects. With fixed-point physics and a seed, two runs with the
+     * same inputs have the same hashes on every machine, which replays and lockstep games can
+     * check.
+     *
+     * @return the hash of the current state.
+     */
+    public long stateHash(){
+        long hash = FixedPoint.HASH_SEED;
+        hash = FixedPoint.hash(hash, livesLeft);
+        hash = FixedPoint.hash(hash, brickCounter.value());
+        for(GameObject gameObject : gameObjects()){
+            if(gameObject instanceof FixedPointObject){
+                hash = ((FixedPointObject) gameObject).stateHash(hash);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the recording of the last seconds of this game.
+     *
+     * @return the rewind buffer, or null when rewinding is off.
+     */
+    public RewindBuffer getRewindBuffer(){
+        return rewindBuffer;
+    }
+
+    /**
+     * Returns the broadphase that collides the moving objects of this game with each other.
+     *
+     * @return the sweep-and-prune collisions, or null when they are off.
+     */
+    public SweepAndPrune getSweepAndPrune(){
+        return sweepAndPrune;
+    }
+
+    /**
+     * Returns the endless board of this game.
+     *
+     * @return the endless board, or null when the game is not in endless mode.
+     */
+    public EndlessBoard getEndlessBoard(){
+        return endlessBoard;
+    }
+
+    /**
+     * Returns the sweeper that removes the transient objects that left the board.
+     *
+     * @return the off-screen sweeper of this game.
+     */
+    public OffscreenSweeper getOffscreenSweeper(){
+        return offscreenSweeper;
+    }
+
+    /**
+     * Replaces the updater of the dynamic objects, for example to run with a given number of
+     * threads. Objects already in the game are not moved to the new updater, so it should be
+     * set before the dynamic objects are spawned.
+     *
+     * @param parallelUpdater The new updater.
+     */
+    public void setParallelUpdater(ParallelUpdater parallelUpdater){
+        this.parallelUpdater = parallelUpdater;
+    }
+
+    /**
+     * Returns the score of the current game.
+     *
+     * @return the score keeper of this game.
+     */
+    public ScoreKeeper getScoreKeeper(){
+        return scoreKeeper;
+    }
+
+    /**
+     * Returns the results of the games played on this machine.
+     *
+     * @return the leaderboard, or null when the game runs headless or it could not be opened.
+     */
+    public Leaderboard getLeaderboard(){
+        return leaderboard;
+    }
+
+    /**
+     * Returns the service that predicts what a ball of this game will hit next.
+     *
+     * @return the trajectory query of the current game.
+     */
+    public TrajectoryQuery getTrajectoryQuery(){
+        return trajectoryQuery;
+    }
+
+    /**
+     * Returns the scheduler that ends the timed effects of this game.
+     *
+     * @return the effect scheduler of the current game.
+     */
+    public EffectScheduler getEffectScheduler(){
+        return effectScheduler;
+    }
+
+    /**
+     * Returns the main ball of the game.
+     *
+     * @return the main ball.
+     */
+    public Ball getMainBall(){
+        return mainBall;
+    }
+
+    /**
+     * Returns the main ball and all the pucks that are currently in the game.
+     * The returned list is owned by the game and must not be modified.
+     *
+     * @return the live balls.
+     */
+    public List<Ball> getLiveBalls(){
+        return liveBalls;
+    }
+
+    /**
+     * Returns the number of lives the player has left.
+     *
+     * @return the remaining lives.
+     */
+    public int getLivesLeft(){
+        return livesLeft;
+    }
+
+    /**
+     * Returns the governor that keeps this game within its frame budget.
+     *
+     * @return the frame governor.
+     */
+    public FrameGovernor getFrameGovernor(){
+        return frameGovernor;
+    }
+
+    /**
+     * Registers an observer of the game. Listeners stay registered across game resets.
+     *
+     * @param listener the listener to notify.
+     */
+    public void addGameEventListener(GameEventListener listener){
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the AI paddle state shared by the ExtraPaddleStrategy bricks of this game.
+     *
+     * @return the extra paddle state of the current game.
+     */
+    public ExtraPaddleState getExtraPaddleState(){
+        return extraPaddleState;
+    }
+
+    /**
+     * Returns how many games ended since this manager started running headless.
+     *
+     * @return the number of completed headless games.
+     */
+    public int getCompletedGames(){
+        return completedGames;
+    }
+
+    /**
+     * Returns the mode in which new AI paddles choose where to move.
+     *
+     * @return the AI paddle mode.
+     */
+    public AIPaddle.Mode getAIPaddleMode(){
+        return aiPaddleMode;
+    }
+
+    /**
+     * Sets the mode in which new AI paddles choose where to move.
+     *
+     * @param aiPaddleMode the mode for AI paddles created from now on.
+     */
+    public void setAIPaddleMode(AIPaddle.Mode aiPaddleMode){
+        this.aiPaddleMode = aiPaddleMode;
+    }
+
+    /**
+     * Reads the AI paddle mode from the {@value #AI_PADDLE_MODE_PROPERTY} system property.
+     * Unknown or missing values keep the original behavior of following the user paddle.
+     *
+     * @return the configured AI paddle mode.
+     */
+    private static AIPaddle.Mode readAIPaddleMode(){
+        String value = System.getProperty(AI_PADDLE_MODE_PROPERTY, EMPTY);
+        for(AIPaddle.Mode mode : AIPaddle.Mode.values()){
+            if(mode.name().equalsIgnoreCase(value)){
+                return mode;
+            }
+        }
+        return AIPaddle.Mode.FOLLOW_USER;
+    }
+
     /**
      * Adds one life to the player, up to a maximum limit.
      * Updates both the graphic and numeric life indicators accordingly.
@@ -517,8 +1491,7 @@ public class BrickerGameManager extends GameManager {
             if(livesLeft > MAX_LIVES){
                 livesLeft = MAX_LIVES;
             }
-            graphicLife.updateLives(livesLeft );
-            numericLife.updateLives(livesLeft );
+            livesDisplayDirty = true;
         }
     }
 
@@ -529,13 +1502,26 @@ public class BrickerGameManager extends GameManager {
      * with default board size and configuration.
      * If two arguments are given, they are interpreted as number of
      * bricks per row and number of rows, respectively.
+     * If four arguments are given, the last two are the width and height of the board, which
+     * may be larger than the window; the camera then follows the ball.
      *
      * @param args Command-line arguments:
      *             args[0] - number of bricks per row (int),
-     *             args[1] - number of rows (int).
+     *             args[1] - number of rows (int),
+     *             args[2] - board width in pixels (optional, float),
+     *             args[3] - board height in pixels (optional, float).
      */
     public static void main(String[] args) {
-        if(args.length == NUM_ARGS){
+        JitWarmup.start();
+        if(args.length == NUM_ARGS_WITH_BOARD){
+            BrickerGameManager gameManager =
+                    new BrickerGameManager(BRICKER,new Vector2(BOARD_WIDTH,
+                            BOARD_HEIGHT), Integer.parseInt(args[0]),
+                            Integer.parseInt(args[1]), new Vector2(Float.parseFloat(args[2]),
+                            Float.parseFloat(args[3])));
+            gameManager.run();
+        }
+        else if(args.length == NUM_ARGS){
             BrickerGameManager gameManager =
                     new BrickerGameManager(BRICKER,new Vector2(BOARD_WIDTH,
                             BOARD_HEIGHT), Integer.parseInt(args[0]),
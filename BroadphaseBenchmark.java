@@ -0,0 +1,190 @@
+package bricker.main;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Random;
+
+/**
+ * Measures the sweep-and-prune broadphase of {@link SweepAndPrune} against testing every pair
+ * of objects, with 10 to 5,000 moving objects on the board. For every number of objects the
+ * same objects move for the same frames, and the pairs tested, the overlapping pairs, the
+ * moves of the insertion sort and the time of a frame are printed for both. The numbers of
+ * overlapping pairs are the same for both, which the benchmark checks.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see SweepAndPrune
+ */
+public class BroadphaseBenchmark {
+    /** Numbers of moving objects measured when none are given on the command line */
+    private static final int[] DEFAULT_COUNTS = {10, 50, 100, 500, 1000, 2000, 5000};
+
+    /** Number of measured frames when none is given on the command line */
+    private static final int DEFAULT_FRAMES = 300;
+
+    /** Frames run before measuring, so the JIT compiled the sweep */
+    private static final int WARMUP_FRAMES = 100;
+
+    /** Simulated time of a single frame, in seconds (60 frames per second) */
+    private static final float FRAME_TIME = 1 / 60f;
+
+    /** Speed of the objects, in pixels per second, like the pucks */
+    private static final float SPEED = 200f;
+
+    /** Size of the objects, like the pucks */
+    private static final Vector2 OBJECT_SIZE = new Vector2(37.5f, 37.5f);
+
+    /** Seed of the positions and directions, the same for every run */
+    private static final long SEED = 42;
+
+    /** Nanoseconds in a microsecond, for printing */
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    /** Width and height of the board the objects bounce in, a board of the stress tests */
+    private static final Vector2 BOARD_DIMENSIONS = new Vector2(4000, 3000);
+
+    /**
+     * private members
+     * counts - the numbers of objects to measure
+     * frames - number of measured frames of every run
+     */
+    private final int[] counts;
+    private final int frames;
+
+    /**
+     * constructs a benchmark
+     * @param counts the numbers of objects to measure
+     * @param frames number of measured frames of every run
+     */
+    public BroadphaseBenchmark(int[] counts, int frames) {
+        this.counts = counts;
+        this.frames = frames;
+    }
+
+    /**
+     * Runs the benchmark for every number of objects, and prints a line per run.
+     */
+    public void run() {
+        System.out.printf("board %.0fx%.0f, objects of %.1f px, %d frames%n",
+                BOARD_DIMENSIONS.x(), BOARD_DIMENSIONS.y(), OBJECT_SIZE.x(), frames);
+        for (int count : counts) {
+            GameObject[] objects = spawn(count);
+            SweepAndPrune sweepAndPrune = new SweepAndPrune();
+            for (GameObject object : objects) {
+                sweepAndPrune.add(object);
+            }
+            int[] found = new int[1];
+            SweepAndPrune.PairSink sink = (a, b) -> found[0]++;
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                move(objects);
+                sweepAndPrune.findPairs(sink);
+                bruteForcePairs(objects);
+            }
+            long sweepNanos = 0;
+            long bruteNanos = 0;
+            long candidates = 0;
+            long pairs = 0;
+            long swaps = 0;
+            boolean same = true;
+            for (int i = 0; i < frames; i++) {
+                move(objects);
+                found[0] = 0;
+                long start = System.nanoTime();
+                sweepAndPrune.findPairs(sink);
+                long middle = System.nanoTime();
+                int brutePairs = bruteForcePairs(objects);
+                bruteNanos += System.nanoTime() - middle;
+                sweepNanos += middle - start;
+                candidates += sweepAndPrune.getLastCandidates();
+                pairs += found[0];
+                swaps += sweepAndPrune.getLastSwaps();
+                same &= brutePairs == found[0];
+            }
+            long allPairs = (long) count * (count - 1) / 2;
+            System.out.printf("objects=%-5d sweep %9.1f us/frame  all pairs %10.1f us/frame" +
+                            "  tested %9.1f of %9d pairs  overlapping %7.1f  sort moves %7.1f" +
+                            "  %s%n",
+                    count, sweepNanos / NANOS_PER_MICRO / frames,
+                    bruteNanos / NANOS_PER_MICRO / frames, (double) candidates / frames,
+                    allPairs, (double) pairs / frames, (double) swaps / frames,
+                    same ? "same pairs" : "DIFFERENT PAIRS");
+        }
+    }
+
+    /**
+     * @return objects at the same random positions, moving in the same random directions
+     */
+    private static GameObject[] spawn(int count) {
+        Random random = new Random(SEED);
+        GameObject[] objects = new GameObject[count];
+        for (int i = 0; i < count; i++) {
+            Vector2 position = new Vector2(
+                    random.nextFloat() * (BOARD_DIMENSIONS.x() - OBJECT_SIZE.x()),
+                    random.nextFloat() * (BOARD_DIMENSIONS.y() - OBJECT_SIZE.y()));
+            objects[i] = new GameObject(position, OBJECT_SIZE, null);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            objects[i].setVelocity(new Vector2((float) Math.cos(angle) * SPEED,
+                    (float) Math.sin(angle) * SPEED));
+        }
+        return objects;
+    }
+
+    /**
+     * Moves the objects by a frame, bouncing them off the sides of the board.
+     */
+    private static void move(GameObject[] objects) {
+        for (GameObject object : objects) {
+            Vector2 velocity = object.getVelocity();
+            Vector2 position = object.getTopLeftCorner().add(velocity.mult(FRAME_TIME));
+            float vx = velocity.x();
+            float vy = velocity.y();
+            if (position.x() < 0 || position.x() > BOARD_DIMENSIONS.x() - OBJECT_SIZE.x()) {
+                vx = -vx;
+            }
+            if (position.y() < 0 || position.y() > BOARD_DIMENSIONS.y() - OBJECT_SIZE.y()) {
+                vy = -vy;
+            }
+            object.setTopLeftCorner(position);
+            if (vx != velocity.x() || vy != velocity.y()) {
+                object.setVelocity(new Vector2(vx, vy));
+            }
+        }
+    }
+
+    /**
+     * @return the number of pairs of objects whose boxes overlap, testing every pair
+     */
+    private static int bruteForcePairs(GameObject[] objects) {
+        int pairs = 0;
+        for (int i = 0; i < objects.length; i++) {
+            Vector2 a = objects[i].getTopLeftCorner();
+            for (int j = i + 1; j < objects.length; j++) {
+                Vector2 b = objects[j].getTopLeftCorner();
+                if (a.x() <= b.x() + OBJECT_SIZE.x() && b.x() <= a.x() + OBJECT_SIZE.x() &&
+                        a.y() <= b.y() + OBJECT_SIZE.y() && b.y() <= a.y() + OBJECT_SIZE.y()) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Entry point of the benchmark.
+     * @param args Optional command-line arguments:
+     *             args[0] - number of measured frames (int),
+     *             args[1...] - numbers of objects (int), 10 to 5,000 by default.
+     */
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 1) {
+            counts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                counts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        new BroadphaseBenchmark(counts, frames).run();
+    }
+}
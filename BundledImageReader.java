@@ -0,0 +1,172 @@
+package bricker.main;
+
+import bricker.rendering.ScaledSpriteRenderable;
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.ImageRenderable;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An image reader that decodes the game's images ahead of the moment they are needed, and
+ * keeps every decoded image for the rest of the game (and its resets). Images are decoded in
+ * parallel from the {@link AssetBundle} when it has them, and read with the wrapped reader
+ * otherwise, or when the bundled copy can not be decoded. The wrapped reader is danogl's,
+ * which is not known to be thread-safe, so it is only ever called on the thread that asks for
+ * the image. Since it is an ImageReader, the strategies and the game manager use it without
+ * any change, and images read in the middle of the game (such as the turbo ball)
+ * come from memory instead of disk. The returned images are drawn through the sprite cache,
+ * pre-scaled to the size of the object they are drawn on.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see AssetBundle
+ */
+class BundledImageReader extends ImageReader {
+    /** Mask of the color bits of an ARGB pixel */
+    private static final int RGB_MASK = 0x00FFFFFF;
+
+    /** Whether bundled images are decoded on worker threads; on a single core that only
+     * adds the hand-over to the cost */
+    private static final boolean DECODE_IN_PARALLEL =
+            Runtime.getRuntime().availableProcessors() > 1;
+
+    /**
+     * private members
+     * delegate - reads the images that are not in the bundle
+     * bundle - the packed assets, or null
+     * images - the decoded (or being decoded) image of every path and transparency flag
+     */
+    private final ImageReader delegate;
+    private final AssetBundle bundle;
+    private final Map<String, CompletableFuture<ImageRenderable>> images;
+
+    /**
+     * constructs a reader around the window's image reader
+     * @param delegate the reader of the window, used for images missing from the bundle
+     * @param bundle the packed assets, or null to decode everything through the delegate
+     */
+    BundledImageReader(ImageReader delegate, AssetBundle bundle) {
+        super(null);
+        this.delegate = delegate;
+        this.bundle = bundle;
+        this.images = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the reader this reader was created around
+     */
+    ImageReader getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Starts decoding an image on a worker thread if it is in the bundle (on this thread when
+     * there is a single core), or reads it with the delegate on this thread otherwise, if it
+     * was not started yet.
+     * @param imageFilePath the path of the image
+     * @param useTopLeftPixelAsTransparent whether the color of the top left pixel is transparent
+     */
+    void preload(String imageFilePath, boolean useTopLeftPixelAsTransparent) {
+        String key = key(imageFilePath, useTopLeftPixelAsTransparent);
+        if (images.containsKey(key)) return;
+        if (bundle != null && bundle.contains(imageFilePath) && !DECODE_IN_PARALLEL) {
+            images.putIfAbsent(key, CompletableFuture.completedFuture(
+                    decodeBundled(imageFilePath, useTopLeftPixelAsTransparent)));
+        } else if (bundle != null && bundle.contains(imageFilePath)) {
+            // an image that fails to decode is read with the delegate by readImage
+            images.putIfAbsent(key, CompletableFuture.supplyAsync(
+                    () -> decodeBundled(imageFilePath, useTopLeftPixelAsTransparent))
+                    .exceptionally(failure -> null));
+        } else {
+            images.putIfAbsent(key, CompletableFuture.completedFuture(
+                    readWithDelegate(imageFilePath, useTopLeftPixelAsTransparent)));
+        }
+    }
+
+    /**
+     * Returns the image, waiting only if it is still being decoded. A bundled image that could
+     * not be decoded is read with the delegate instead, on this thread.
+     * @param imageFilePath the path of the image
+     * @param useTopLeftPixelAsTransparent whether the color of the top left pixel is transparent
+     * @return the image
+     */
+    @Override
+    public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparent) {
+        preload(imageFilePath, useTopLeftPixelAsTransparent);
+        String key = key(imageFilePath, useTopLeftPixelAsTransparent);
+        ImageRenderable image = images.get(key).join();
+        if (image == null) {
+            image = readWithDelegate(imageFilePath, useTopLeftPixelAsTransparent);
+            images.put(key, CompletableFuture.completedFuture(image));
+        }
+        return image;
+    }
+
+    /**
+     * Decodes an image from the bundle.
+     * @return the image, or null if the bundle does not hold a readable image at that path
+     */
+    private ImageRenderable decodeBundled(String imageFilePath,
+                                          boolean useTopLeftPixelAsTransparent) {
+        ByteBuffer bytes = bundle.get(imageFilePath);
+        if (bytes == null) {
+            return null;
+        }
+        byte[] content = new byte[bytes.remaining()];
+        bytes.get(content);
+        BufferedImage image;
+        try {
+            // decoded from memory, ImageIO would otherwise cache the stream in a temporary file
+            image = ImageIO.read(new MemoryCacheImageInputStream(
+                    new ByteArrayInputStream(content)));
+        } catch (IOException e) {
+            return null;
+        }
+        if (image == null) {
+            return null;
+        }
+        return new ScaledSpriteRenderable(useTopLeftPixelAsTransparent ?
+                withTransparentBackground(image) : image);
+    }
+
+    /**
+     * Reads an image from its own file with the delegate.
+     */
+    private ImageRenderable readWithDelegate(String imageFilePath,
+                                             boolean useTopLeftPixelAsTransparent) {
+        ImageRenderable image = delegate.readImage(imageFilePath, useTopLeftPixelAsTransparent);
+        return new ScaledSpriteRenderable(image.getImage());
+    }
+
+    /**
+     * Makes every pixel that has the color of the top left pixel transparent.
+     * @param image the decoded image
+     * @return an ARGB copy of the image
+     */
+    private static BufferedImage withTransparentBackground(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        int background = pixels[0] & RGB_MASK;
+        for (int i = 0; i < pixels.length; i++) {
+            if ((pixels[i] & RGB_MASK) == background) {
+                pixels[i] = 0;
+            }
+        }
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        result.setRGB(0, 0, width, height, pixels, 0, width);
+        return result;
+    }
+
+    private static String key(String imageFilePath, boolean useTopLeftPixelAsTransparent) {
+        return useTopLeftPixelAsTransparent ? imageFilePath + "#t" : imageFilePath;
+    }
+}
@@ -0,0 +1,363 @@
+package bricker.profiling;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every brick hit, every ball and puck bounce and every strategy effect of the game
+ * into a {@link CollisionRing}, and writes them to a columnar binary file on a background
+ * thread, for offline analysis of which strategies fire, where the balls hit and how long
+ * chain reactions run. Setting the system property {@value #PATH_PROPERTY} to a file turns
+ * the log on; when it is unset, every call is an empty static method.
+ * <p>
+ * Recording does not allocate and does not lock: objects and strategies are identified by a
+ * small id of their class, cached per class, and the record goes to the ring as primitives,
+ * so games of a session host can record from their own threads.
+ * When the writer falls behind and the ring is full, records are dropped and counted.
+ * <p>
+ * The file starts with a header, then holds blocks of up to {@value #BLOCK_RECORDS} records,
+ * each block as an int count followed by one array per field (time, type, subject, other,
+ * value, x, y, vx, vy). It ends with a zero count, the numbers of written and dropped records,
+ * and the class names of the ids. Run the main method of this class on a file for a summary.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ */
+public final class CollisionLog {
+    /** System property of the file the log is written to (no log by default) */
+    public static final String PATH_PROPERTY = "bricker.collisionLog";
+
+    /** A brick was hit; value is the brick index, other is the strategy */
+    public static final byte BRICK_HIT = 1;
+
+    /** A ball or puck bounced off something; other is what it hit */
+    public static final byte BOUNCE = 2;
+
+    /** A strategy took effect; value is how much it did (pucks, bricks destroyed...) */
+    public static final byte STRATEGY_EFFECT = 3;
+
+    private static final String PATH = System.getProperty(PATH_PROPERTY);
+
+    /** Whether the log is on. Final, so disabled calls are compiled away. */
+    private static final boolean ENABLED = PATH != null;
+
+    /** Records the ring holds */
+    private static final int RING_CAPACITY = 1 << 16;
+
+    /** Most records in a block of the file */
+    private static final int BLOCK_RECORDS = 4096;
+
+    /** Bytes of a record in a block: 8 + 1 + 2 + 2 + 4 + 4 * 4 */
+    private static final int RECORD_BYTES = 33;
+
+    /** How long the writer sleeps when the ring is empty */
+    private static final long IDLE_NANOS = 5_000_000L;
+
+    private static final int MAGIC = 0x42434F4C;
+    private static final int VERSION = 1;
+    private static final String[] TYPE_NAMES = {"?", "brick hit", "bounce", "strategy effect"};
+
+    /** Names of the classes, by id */
+    private static final List<String> CLASS_NAMES = new CopyOnWriteArrayList<>();
+
+    /** The id of every class, assigned when it is first recorded */
+    private static final ClassValue<Short> CLASS_IDS = new ClassValue<Short>() {
+        @Override
+        protected Short computeValue(Class<?> type) {
+            synchronized (CLASS_NAMES) {
+                CLASS_NAMES.add(type.getSimpleName());
+                return (short) (CLASS_NAMES.size() - 1);
+            }
+        }
+    };
+
+    private static final CollisionRing RING = ENABLED ? new CollisionRing(RING_CAPACITY) : null;
+
+    /** A thread whose collisions are not logged, such as the JIT warm-up's, null for none */
+    private static volatile Thread mutedThread;
+
+    static {
+        if (ENABLED) {
+            Writer writer = new Writer(Paths.get(PATH));
+            Thread thread = new Thread(writer, "bricker-collision-log");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writer.finish(thread)));
+        }
+    }
+
+    private CollisionLog() {
+    }
+
+    /**
+     * Stops logging the collisions of a thread, so a game that is not the player's does not
+     * end up in the log.
+     * @param thread the thread to mute, or null to log every thread
+     */
+    public static void mute(Thread thread) {
+        mutedThread = thread;
+    }
+
+    /**
+     * @return true if the collisions of the current thread are logged
+     */
+    private static boolean isOn() {
+        return ENABLED && Thread.currentThread() != mutedThread;
+    }
+
+    /**
+     * Records a brick hit.
+     * @param strategy the strategy of the brick
+     * @param index    the index of the brick in the grid
+     * @param hitter   the object that hit the brick
+     */
+    public static void brickHit(Object strategy, int index, GameObject hitter) {
+        if (!isOn()) return;
+        Vector2 corner = hitter.getTopLeftCorner();
+        Vector2 size = hitter.getDimensions();
+        Vector2 velocity = hitter.getVelocity();
+        RING.offer(System.nanoTime(), BRICK_HIT, classId(hitter), classId(strategy), index,
+                corner.x() + size.x() / 2, corner.y() + size.y() / 2,
+                velocity.x(), velocity.y());
+    }
+
+    /**
+     * Records a bounce of a ball or puck, after its velocity was flipped.
+     * @param ball  the ball or puck
+     * @param other the object it bounced off
+     */
+    public static void bounce(GameObject ball, GameObject other) {
+        if (!isOn()) return;
+        Vector2 corner = ball.getTopLeftCorner();
+        Vector2 size = ball.getDimensions();
+        Vector2 velocity = ball.getVelocity();
+        RING.offer(System.nanoTime(), BOUNCE, classId(ball), classId(other), 0,
+                corner.x() + size.x() / 2, corner.y() + size.y() / 2,
+                velocity.x(), velocity.y());
+    }
+
+    /**
+     * Records the effect of a strategy.
+     * @param strategy the strategy
+     * @param brick    the brick that was hit
+     * @param amount   how much it did, such as the pucks spawned or the bricks destroyed
+     */
+    public static void strategyEffect(Object strategy, GameObject brick, int amount) {
+        if (!isOn()) return;
+        Vector2 corner = brick.getTopLeftCorner();
+        Vector2 size = brick.getDimensions();
+        short id = classId(strategy);
+        RING.offer(System.nanoTime(), STRATEGY_EFFECT, id, id, amount,
+                corner.x() + size.x() / 2, corner.y() + size.y() / 2, 0, 0);
+    }
+
+    private static short classId(Object object) {
+        return object == null ? -1 : CLASS_IDS.get(object.getClass());
+    }
+
+    /**
+     * Drains the ring into blocks of the file.
+     */
+    private static final class Writer implements Runnable, CollisionRing.Sink {
+        private final Path path;
+        private final ByteBuffer block;
+        private final long[] nanos = new long[BLOCK_RECORDS];
+        private final byte[] types = new byte[BLOCK_RECORDS];
+        private final short[] subjects = new short[BLOCK_RECORDS];
+        private final short[] others = new short[BLOCK_RECORDS];
+        private final int[] values = new int[BLOCK_RECORDS];
+        private final float[] xs = new float[BLOCK_RECORDS];
+        private final float[] ys = new float[BLOCK_RECORDS];
+        private final float[] vxs = new float[BLOCK_RECORDS];
+        private final float[] vys = new float[BLOCK_RECORDS];
+        private int count;
+        private long written;
+        private volatile boolean running = true;
+        private FileChannel file;
+
+        private Writer(Path path) {
+            this.path = path;
+            this.block = ByteBuffer.allocateDirect(Integer.BYTES + BLOCK_RECORDS * RECORD_BYTES);
+        }
+
+        @Override
+        public void run() {
+            try {
+                file = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(header);
+                while (running) {
+                    if (RING.drain(this, BLOCK_RECORDS - count) == 0) {
+                        LockSupport.parkNanos(IDLE_NANOS);
+                    }
+                    if (count == BLOCK_RECORDS) flush();
+                }
+                while (RING.drain(this, BLOCK_RECORDS - count) > 0) {
+                    if (count == BLOCK_RECORDS) flush();
+                }
+                flush();
+                writeFooter();
+                file.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Stops the writer once the ring is drained, and waits for the file to be closed.
+         */
+        private void finish(Thread thread) {
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void accept(long time, byte type, short subject, short other, int value,
+                           float x, float y, float vx, float vy) {
+            nanos[count] = time;
+            types[count] = type;
+            subjects[count] = subject;
+            others[count] = other;
+            values[count] = value;
+            xs[count] = x;
+            ys[count] = y;
+            vxs[count] = vx;
+            vys[count] = vy;
+            count++;
+        }
+
+        /**
+         * Writes the records of the block column by column.
+         */
+        private void flush() throws IOException {
+            if (count == 0) return;
+            block.clear();
+            block.putInt(count);
+            for (int i = 0; i < count; i++) block.putLong(nanos[i]);
+            for (int i = 0; i < count; i++) block.put(types[i]);
+            for (int i = 0; i < count; i++) block.putShort(subjects[i]);
+            for (int i = 0; i < count; i++) block.putShort(others[i]);
+            for (int i = 0; i < count; i++) block.putInt(values[i]);
+            for (int i = 0; i < count; i++) block.putFloat(xs[i]);
+            for (int i = 0; i < count; i++) block.putFloat(ys[i]);
+            for (int i = 0; i < count; i++) block.putFloat(vxs[i]);
+            for (int i = 0; i < count; i++) block.putFloat(vys[i]);
+            block.flip();
+            writeFully(block);
+            written += count;
+            count = 0;
+        }
+
+        private void writeFooter() throws IOException {
+            List<String> names = CLASS_NAMES;
+            int bytes = Integer.BYTES * 2 + Long.BYTES * 2;
+            for (String name : names) {
+                bytes += Short.BYTES + name.getBytes(StandardCharsets.UTF_8).length;
+            }
+            ByteBuffer footer = ByteBuffer.allocate(bytes);
+            footer.putInt(0).putLong(written).putLong(RING.getDropped()).putInt(names.size());
+            for (String name : names) {
+                byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+                footer.putShort((short) utf.length).put(utf);
+            }
+            footer.flip();
+            writeFully(footer);
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                file.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Prints a summary of a log file: the number of records of every type and class, the
+     * dropped records, and the average and largest effect of every strategy.
+     * @param args args[0] - the log file
+     */
+    public static void main(String[] args) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(Paths.get(args[0]))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("not a collision log: " + args[0]);
+                return;
+            }
+            // per (type, subject, other): records, sum of values, largest value
+            TreeMap<Long, long[]> byKey = new TreeMap<>();
+            int blockCount;
+            while ((blockCount = in.readInt()) > 0) {
+                byte[] types = new byte[blockCount];
+                short[] subjects = new short[blockCount];
+                short[] others = new short[blockCount];
+                int[] values = new int[blockCount];
+                in.skipNBytes((long) Long.BYTES * blockCount);
+                in.readFully(types);
+                for (int i = 0; i < blockCount; i++) subjects[i] = in.readShort();
+                for (int i = 0; i < blockCount; i++) others[i] = in.readShort();
+                for (int i = 0; i < blockCount; i++) values[i] = in.readInt();
+                in.skipNBytes((long) Float.BYTES * 4 * blockCount);
+                for (int i = 0; i < blockCount; i++) {
+                    long key = ((long) types[i] << 32) | ((subjects[i] & 0xFFFFL) << 16) |
+                            (others[i] & 0xFFFFL);
+                    long[] stats = byKey.computeIfAbsent(key, k -> new long[3]);
+                    stats[0]++;
+                    stats[1] += values[i];
+                    stats[2] = Math.max(stats[2], values[i]);
+                }
+            }
+            long written = in.readLong();
+            long dropped = in.readLong();
+            String[] names = new String[in.readInt()];
+            for (int i = 0; i < names.length; i++) {
+                byte[] utf = new byte[in.readShort()];
+                in.readFully(utf);
+                names[i] = new String(utf, StandardCharsets.UTF_8);
+            }
+            System.out.printf("%d records, %d dropped%n", written, dropped);
+            for (Map.Entry<Long, long[]> entry : byKey.entrySet()) {
+                long key = entry.getKey();
+                int type = (int) (key >>> 32);
+                String subject = name(names, (short) (key >>> 16));
+                String other = name(names, (short) key);
+                long[] stats = entry.getValue();
+                if (type == STRATEGY_EFFECT) {
+                    System.out.printf("%-16s %-24s %10d  avg %.2f  max %d%n", TYPE_NAMES[type],
+                            subject, stats[0], stats[1] / (double) stats[0], stats[2]);
+                } else {
+                    System.out.printf("%-16s %-24s %-24s %10d%n", TYPE_NAMES[type], subject,
+                            other, stats[0]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String name(String[] names, short id) {
+        return id >= 0 && id < names.length ? names[id] : "-";
+    }
+}
@@ -0,0 +1,148 @@
+package bricker.profiling;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, preallocated ring of collision records, kept as one primitive array per field,
+ * that any number of game threads write to and a single thread drains. Writers claim a slot
+ * with a compare-and-set on the tail, fill it, and publish it through the slot's sequence
+ * number; the reader frees a slot the same way. Writing never allocates, never takes a lock
+ * and never waits for the reader: when the ring is full, the record is dropped and counted.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see CollisionLog
+ */
+public final class CollisionRing {
+    /**
+     * Receives the drained records, oldest first.
+     */
+    public interface Sink {
+        /**
+         * @param nanos   when the record was written, from System.nanoTime()
+         * @param type    the type of the record
+         * @param subject the class id of the object the record is about
+         * @param other   the class id of the other object, or of the strategy
+         * @param value   a number that depends on the type
+         * @param x       x coordinate of the event
+         * @param y       y coordinate of the event
+         * @param vx      x velocity at the event
+         * @param vy      y velocity at the event
+         */
+        void accept(long nanos, byte type, short subject, short other, int value,
+                    float x, float y, float vx, float vy);
+    }
+
+    /**
+     * private members
+     * mask - capacity minus one, the capacity is a power of two
+     * sequences - per slot: its position when free for writing, its position plus one when
+     * written and not drained yet
+     * nanos, types, subjects, others, values, xs, ys, vxs, vys - the fields of the records
+     * tail - the position of the next slot to claim, head - of the next slot to drain
+     * dropped - records dropped because the ring was full
+     */
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] nanos;
+    private final byte[] types;
+    private final short[] subjects;
+    private final short[] others;
+    private final int[] values;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] vxs;
+    private final float[] vys;
+    private final AtomicLong tail;
+    private long head;
+    private final AtomicLong dropped;
+
+    /**
+     * constructs an empty ring
+     * @param capacity number of records the ring holds, a power of two
+     */
+    public CollisionRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        nanos = new long[capacity];
+        types = new byte[capacity];
+        subjects = new short[capacity];
+        others = new short[capacity];
+        values = new int[capacity];
+        xs = new float[capacity];
+        ys = new float[capacity];
+        vxs = new float[capacity];
+        vys = new float[capacity];
+        tail = new AtomicLong();
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * Writes a record, from any thread.
+     * @return false if the ring was full and the record was dropped
+     */
+    public boolean offer(long time, byte type, short subject, short other, int value,
+                         float x, float y, float vx, float vy) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long sequence = sequences.get(slot);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) break;
+                position = tail.get();
+            } else if (sequence < position) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+        int slot = (int) (position & mask);
+        nanos[slot] = time;
+        types[slot] = type;
+        subjects[slot] = subject;
+        others[slot] = other;
+        values[slot] = value;
+        xs[slot] = x;
+        ys[slot] = y;
+        vxs[slot] = vx;
+        vys[slot] = vy;
+        sequences.lazySet(slot, position + 1);
+        return true;
+    }
+
+    /**
+     * Passes the written records to the sink, oldest first, stopping at the first record that
+     * is claimed but not written yet. Called by a single reader thread.
+     * @param sink  receives the records
+     * @param limit the most records to drain
+     * @return the number of records drained
+     */
+    public int drain(Sink sink, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) (head & mask);
+            if (sequences.get(slot) != head + 1) break;
+            sink.accept(nanos[slot], types[slot], subjects[slot], others[slot], values[slot],
+                    xs[slot], ys[slot], vxs[slot], vys[slot]);
+            sequences.lazySet(slot, head + mask + 1);
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return the number of records dropped because the ring was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+}
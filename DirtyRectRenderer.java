@@ -0,0 +1,334 @@
+package bricker.rendering;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.components.RendererComponent;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders a game by redrawing only the parts of the window that changed since the previous
+ * frame. The renderer remembers where every game object was drawn and with what renderable.
+ * Every object that moved, was resized, changed its renderable or opaqueness, was added or was
+ * removed marks its previous and current bounds as dirty. The dirty rectangles are merged,
+ * and every merged region is redrawn over a cached copy of the background layer, with only
+ * the objects that overlap it. The frame is kept in an off-screen image that is copied to the
+ * window in one unscaled blit, since the window does not keep its content between frames.
+ * When the dirty area covers more than a share of the window, the whole frame is redrawn.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see bricker.main.BrickerGameManager#render
+ */
+public class DirtyRectRenderer {
+    /** System property that turns dirty-rectangle rendering on or off (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.dirtyRects";
+
+    /** System property of the share of the window above which the whole frame is redrawn */
+    public static final String THRESHOLD_PROPERTY = "bricker.dirtyRectsThreshold";
+
+    private static final String DEFAULT_THRESHOLD = "0.5";
+
+    /** Merged regions above this number are combined into one bounding region */
+    private static final int MAX_REGIONS = 16;
+
+    /** Pixels added around every dirty rectangle, to cover anti-aliased edges */
+    private static final int MARGIN = 1;
+
+    /**
+     * Where and how an object was drawn in the previous frame.
+     */
+    private static final class Drawn {
+        private final Rectangle bounds;
+        private final Renderable renderable;
+        private final float opaqueness;
+
+        private Drawn(Rectangle bounds, Renderable renderable, float opaqueness) {
+            this.bounds = bounds;
+            this.renderable = renderable;
+            this.opaqueness = opaqueness;
+        }
+
+        private boolean sameAs(Drawn other) {
+            return bounds.equals(other.bounds) && renderable == other.renderable &&
+                    opaqueness == other.opaqueness;
+        }
+    }
+
+    /**
+     * private members
+     * threshold - share of the window above which the whole frame is redrawn
+     * drawn - every object drawn in the previous frame
+     * invalidated - objects whose renderable changed its content in place
+     * frame - the frame, kept between frames
+     * background - the background layer, drawn once
+     * fullRedraw - whether the next frame is redrawn entirely
+     * frames, fullRedraws, regionsDrawn, lastDirtyShare - statistics
+     */
+    private final double threshold;
+    private final Map<GameObject, Drawn> drawn;
+    private final Set<GameObject> invalidated;
+    private BufferedImage frame;
+    private BufferedImage background;
+    private boolean fullRedraw;
+    private long frames;
+    private long fullRedraws;
+    private long regionsDrawn;
+    private double lastDirtyShare;
+
+    /**
+     * constructs a renderer configured by the {@value #THRESHOLD_PROPERTY} system property
+     */
+    public DirtyRectRenderer() {
+        this(Double.parseDouble(System.getProperty(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD)));
+    }
+
+    /**
+     * constructs a renderer
+     * @param threshold share of the window (0 to 1) above which the whole frame is redrawn
+     */
+    public DirtyRectRenderer(double threshold) {
+        this.threshold = threshold;
+        this.drawn = new IdentityHashMap<>();
+        this.invalidated = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.fullRedraw = true;
+    }
+
+    /**
+     * @return true if dirty-rectangle rendering was turned on with {@value #ENABLED_PROPERTY}
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "false"));
+    }
+
+    /**
+     * Marks an object as changed even though it did not move, for renderables that change
+     * their content in place (such as a text whose string was set).
+     * @param gameObject the changed object
+     */
+    public void invalidate(GameObject gameObject) {
+        invalidated.add(gameObject);
+    }
+
+    /**
+     * Redraws the whole window in the next frame, and draws the background layer again.
+     * Called when the game is reset.
+     */
+    public void invalidateAll() {
+        fullRedraw = true;
+        background = null;
+    }
+
+    /**
+     * Draws a frame of the game.
+     * @param g the graphics of the window
+     * @param gameObjects the objects of the game, in drawing order
+     * @param width width of the window, in pixels
+     * @param height height of the window, in pixels
+     */
+    public void render(Graphics2D g, GameObjectCollection gameObjects, int width, int height) {
+        frames++;
+        prepareImages(g.getDeviceConfiguration(), width, height);
+        Set<GameObject> backgroundLayer = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.BACKGROUND)) {
+            backgroundLayer.add(gameObject);
+        }
+        List<Rectangle> dirty = collectDirty(gameObjects, backgroundLayer);
+        Graphics2D frameGraphics = frame.createGraphics();
+        if (background == null) {
+            drawBackground(backgroundLayer);
+            fullRedraw = true;
+        }
+        List<Rectangle> regions = fullRedraw ? null : merge(dirty);
+        if (regions != null && area(regions) > threshold * width * height) {
+            regions = null;
+        }
+        if (regions == null) {
+            fullRedraws++;
+            lastDirtyShare = 1;
+            drawRegion(frameGraphics, gameObjects, backgroundLayer,
+                    new Rectangle(0, 0, width, height));
+        } else {
+            lastDirtyShare = (double) area(regions) / ((long) width * height);
+            for (Rectangle region : regions) {
+                frameGraphics.setClip(region);
+                drawRegion(frameGraphics, gameObjects, backgroundLayer, region);
+            }
+            regionsDrawn += regions.size();
+        }
+        frameGraphics.dispose();
+        fullRedraw = false;
+        g.drawImage(frame, 0, 0, null);
+    }
+
+    /**
+     * @return the number of frames rendered
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return the number of frames that were redrawn entirely
+     */
+    public long getFullRedraws() {
+        return fullRedraws;
+    }
+
+    /**
+     * @return the number of dirty regions redrawn in all the partial frames
+     */
+    public long getRegionsDrawn() {
+        return regionsDrawn;
+    }
+
+    /**
+     * @return the share of the window redrawn in the last frame (1 for a full redraw)
+     */
+    public double getLastDirtyShare() {
+        return lastDirtyShare;
+    }
+
+    /**
+     * (Re)creates the frame and background images when the window size or screen changed.
+     */
+    private void prepareImages(GraphicsConfiguration configuration, int width, int height) {
+        if (frame != null && frame.getWidth() == width && frame.getHeight() == height) return;
+        frame = configuration != null ?
+                configuration.createCompatibleImage(width, height, Transparency.OPAQUE) :
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        invalidateAll();
+    }
+
+    /**
+     * Draws the background layer into its cached image.
+     */
+    private void drawBackground(Set<GameObject> backgroundLayer) {
+        background = new BufferedImage(frame.getWidth(), frame.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = background.createGraphics();
+        for (GameObject gameObject : backgroundLayer) {
+            gameObject.render(graphics);
+        }
+        graphics.dispose();
+    }
+
+    /**
+     * Compares every object to where it was drawn in the previous frame, and returns the
+     * rectangles that must be redrawn. A change in the background layer redraws everything.
+     */
+    private List<Rectangle> collectDirty(GameObjectCollection gameObjects,
+                                         Set<GameObject> backgroundLayer) {
+        List<Rectangle> dirty = new ArrayList<>();
+        Map<GameObject, Drawn> previous = new IdentityHashMap<>(drawn);
+        drawn.clear();
+        for (GameObject gameObject : gameObjects) {
+            Drawn current = describe(gameObject);
+            drawn.put(gameObject, current);
+            Drawn before = previous.remove(gameObject);
+            if (before != null && before.sameAs(current) && !invalidated.contains(gameObject)) {
+                continue;
+            }
+            if (backgroundLayer.contains(gameObject)) {
+                background = null;
+                continue;
+            }
+            if (before != null) dirty.add(before.bounds);
+            dirty.add(current.bounds);
+        }
+        for (Drawn removed : previous.values()) {
+            dirty.add(removed.bounds);
+        }
+        invalidated.clear();
+        return dirty;
+    }
+
+    /**
+     * Draws the background and every object that overlaps the region.
+     */
+    private void drawRegion(Graphics2D graphics, GameObjectCollection gameObjects,
+                            Set<GameObject> backgroundLayer, Rectangle region) {
+        graphics.drawImage(background, 0, 0, null);
+        for (GameObject gameObject : gameObjects) {
+            if (backgroundLayer.contains(gameObject)) continue;
+            if (drawn.get(gameObject).bounds.intersects(region)) {
+                gameObject.render(graphics);
+            }
+        }
+    }
+
+    /**
+     * Merges overlapping or touching rectangles, until no two of them overlap. When too many
+     * regions are left, they are combined into their bounding rectangle.
+     */
+    private static List<Rectangle> merge(List<Rectangle> dirty) {
+        List<Rectangle> regions = new ArrayList<>();
+        for (Rectangle rectangle : dirty) {
+            if (rectangle.isEmpty()) continue;
+            Rectangle region = new Rectangle(rectangle);
+            boolean merged = true;
+            while (merged) {
+                merged = false;
+                for (int i = 0; i < regions.size(); i++) {
+                    if (touches(regions.get(i), region)) {
+                        region.add(regions.remove(i));
+                        merged = true;
+                        break;
+                    }
+                }
+            }
+            regions.add(region);
+        }
+        if (regions.size() > MAX_REGIONS) {
+            Rectangle union = new Rectangle(regions.get(0));
+            for (Rectangle region : regions) {
+                union.add(region);
+            }
+            regions.clear();
+            regions.add(union);
+        }
+        return regions;
+    }
+
+    private static boolean touches(Rectangle a, Rectangle b) {
+        return a.x <= b.x + b.width && b.x <= a.x + a.width &&
+                a.y <= b.y + b.height && b.y <= a.y + a.height;
+    }
+
+    private static long area(List<Rectangle> regions) {
+        long area = 0;
+        for (Rectangle region : regions) {
+            area += (long) region.width * region.height;
+        }
+        return area;
+    }
+
+    /**
+     * @return the bounds of the object in whole pixels, grown by the margin, and its
+     * renderable and opaqueness
+     */
+    private static Drawn describe(GameObject gameObject) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        int left = (int) Math.floor(topLeft.x()) - MARGIN;
+        int top = (int) Math.floor(topLeft.y()) - MARGIN;
+        int right = (int) Math.ceil(topLeft.x() + dimensions.x()) + MARGIN;
+        int bottom = (int) Math.ceil(topLeft.y() + dimensions.y()) + MARGIN;
+        RendererComponent renderer = gameObject.renderer();
+        return new Drawn(new Rectangle(left, top, right - left, bottom - top),
+                renderer.getRenderable(), renderer.getOpaqueness());
+    }
+}
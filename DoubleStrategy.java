@@ -2,6 +2,7 @@ package bricker.brick_strategies;
 
 import bricker.gameobjects.Ball;
 import bricker.main.BrickerGameManager;
+import bricker.profiling.GameEvents;
 import danogl.GameObject;
 import danogl.gui.ImageReader;
 import danogl.gui.Sound;
@@ -19,14 +20,8 @@ import java.util.Random;
 public class DoubleStrategy implements CollisionStrategy{
     private static final int MAX_STRATEGIES = 3;
     private static final int TURNS = 2;
-    private static final int NUM_AVAILABLE_STRATEGIES = 5;
     private static final String PUCK_IMAGE = "assets/mockBall.png";
     private static final String HEART_IMAGE_PATH = "assets/heart.png";
-    private static final int EXTRA_BALLS_INDEX = 0;
-    private static final int EXTRA_PADDLE_INDEX = 1;
-    private static final int TURBO_INDEX = 2;
-    private static final int DOUBLE_STRATEGY_INDEX = 3;
-    private static final int EXTRA_LIFE_INDEX = 4;
 
 
     /**
@@ -41,6 +36,7 @@ public class DoubleStrategy implements CollisionStrategy{
      * sound - of the ball, also in use for extraBalls
      * other - this is the paddle, in use for extraPaddle
      * reader - so we can read images for ExtraPaddle
+     * weights - the weight table of the game, gives the odds of the picks
      */
     private final CollisionStrategy[] realCollisions;
     private int size;
@@ -49,6 +45,7 @@ public class DoubleStrategy implements CollisionStrategy{
     private final Sound sound;
     private final GameObject paddle;
     private final Random rand;
+    private final StrategyWeights weights;
     private final ImageReader reader;
     private boolean hasDouble;
     private final Ball mainBall;
@@ -75,44 +72,46 @@ public class DoubleStrategy implements CollisionStrategy{
         this.paddle = paddle;
         this.reader = imageReader;
         this.mainBall = mainBall;
-        this.heartImage = imageReader.readImage(HEART_IMAGE_PATH, true);
+        this.heartImage = GameEvents.loadImage(imageReader, HEART_IMAGE_PATH, true);
         hasDouble = false;
-        rand = new Random();
+        rand = gameManager.getRandom();
+        weights = gameManager.getStrategyWeights();
         pickRandomStrategies();
     }
 
 
     /**
-     * Assigns random collision strategies to this strategy.
+     * Assigns random collision strategies to this strategy, with the nested odds of the
+     * weight table of the game.
      * Ensures no more than one nested DoubleStrategy is included.
      */
     public void pickRandomStrategies(){
         int turn = 1;
         while(turn <= TURNS && size <= MAX_STRATEGIES - 1){
-            int num = rand.nextInt(NUM_AVAILABLE_STRATEGIES);
+            int num = weights.sampleNested(rand);
             switch (num) {
-                case EXTRA_BALLS_INDEX:
-                    Renderable image = reader.readImage(PUCK_IMAGE, true);
+                case StrategyWeights.EXTRA_BALLS:
+                    Renderable image = GameEvents.loadImage(reader, PUCK_IMAGE, true);
                     realCollisions[size] = new ExtraBallsStrategy(
                             image, sound, gameManager, brickCounter);
                     size++;
                     break;
-                case EXTRA_PADDLE_INDEX:
+                case StrategyWeights.EXTRA_PADDLE:
                     realCollisions[size] = new ExtraPaddleStrategy(gameManager, paddle, brickCounter);
                     size++;
                     break;
-                case TURBO_INDEX:
+                case StrategyWeights.TURBO:
                     realCollisions[size] = new TurboStrategy(reader, gameManager, brickCounter, mainBall);
                     size++;
                     break;
-                case DOUBLE_STRATEGY_INDEX:
+                case StrategyWeights.DOUBLE:
                     if(hasDouble){continue;}
                     DoubleStrategy doubleStrategy = new DoubleStrategy(gameManager, brickCounter,
                             sound, paddle, reader, mainBall);
                     addFromOtherDouble(doubleStrategy);
                     hasDouble = true;
                     break;
-                case EXTRA_LIFE_INDEX:
+                case StrategyWeights.EXTRA_LIFE:
                     realCollisions[size] = new ExtraLifeStrategy(heartImage, gameManager, brickCounter);
                     size++;
                     break;
@@ -0,0 +1,262 @@
+package bricker.main;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ends the timed effects of a game, such as the turbo ball and the AI paddle, in one place
+ * instead of in counters spread over the game objects. An effect expires after a time, after
+ * a number of events reported for a source object, or after whichever of the two comes first.
+ * <p>
+ * Time-based expiry is kept in a hashed timing wheel: a ring of slots, one per tick, where
+ * every effect waits in the slot of its deadline, with the number of full turns of the wheel
+ * left before it is due. Scheduling and cancelling an effect, and advancing the wheel by one
+ * tick, cost O(1) no matter how many effects are waiting. Event-based expiry keeps the
+ * effects of every source together, so reporting an event only touches the effects that
+ * count it.
+ * <p>
+ * Game objects report their events with {@link #onEvent(Object)}, and do not need to know
+ * which effects count them. Expiry actions run on the game thread, during
+ * {@link #advance(float)} or {@link #onEvent(Object)}.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#getEffectScheduler
+ */
+public class EffectScheduler {
+    /** Duration of a tick of the wheel, in seconds */
+    private static final float TICK_SECONDS = 1f / 60f;
+
+    /** Number of slots of the wheel, a power of two */
+    private static final int SLOTS = 512;
+
+    /** Deadline of an effect that does not expire by time */
+    private static final long NO_DEADLINE = -1;
+
+    /** Event count of an effect that does not expire by events */
+    private static final int NO_EVENTS = 0;
+
+    /**
+     * A scheduled effect. It can be cancelled before it expires, in which case its expiry
+     * action does not run.
+     */
+    public static final class Effect {
+        private final Runnable onExpire;
+        private final Object source;
+        private int eventsLeft;
+        private long deadlineTick;
+        private long rounds;
+        private Effect previous;
+        private Effect next;
+        private int slot;
+        private boolean active;
+
+        private Effect(Runnable onExpire, Object source, int events) {
+            this.onExpire = onExpire;
+            this.source = source;
+            this.eventsLeft = events;
+            this.deadlineTick = NO_DEADLINE;
+            this.active = true;
+        }
+
+        /**
+         * @return true if the effect has neither expired nor been cancelled
+         */
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * @return the number of events left before the effect expires, 0 if it does not
+         * expire by events
+         */
+        public int getEventsLeft() {
+            return eventsLeft;
+        }
+    }
+
+    /**
+     * private members
+     * wheel - the first effect waiting in every slot, effects of a slot are doubly linked
+     * bySource - the effects that count the events of every source
+     * currentTick - number of ticks the wheel has advanced
+     * elapsed - time since the last tick, in seconds
+     * activeEffects - number of effects that are scheduled and did not end
+     */
+    private final Effect[] wheel;
+    private final Map<Object, List<Effect>> bySource;
+    private long currentTick;
+    private float elapsed;
+    private int activeEffects;
+
+    /**
+     * constructs a scheduler with no effects
+     */
+    public EffectScheduler() {
+        wheel = new Effect[SLOTS];
+        bySource = new IdentityHashMap<>();
+    }
+
+    /**
+     * Schedules an effect that expires after the given time.
+     * @param seconds  time until the effect expires
+     * @param onExpire what to do when the effect expires
+     * @return the effect, which can be cancelled
+     */
+    public Effect expireAfter(float seconds, Runnable onExpire) {
+        return expireAfter(seconds, null, NO_EVENTS, onExpire);
+    }
+
+    /**
+     * Schedules an effect that expires once the given number of events were reported for
+     * the source.
+     * @param source   the object whose events are counted
+     * @param events   number of events until the effect expires, at least 1
+     * @param onExpire what to do when the effect expires
+     * @return the effect, which can be cancelled
+     */
+    public Effect expireAfterEvents(Object source, int events, Runnable onExpire) {
+        return expireAfter(Float.NaN, source, events, onExpire);
+    }
+
+    /**
+     * Schedules an effect that expires after the given time, or once the given number of
+     * events were reported for the source, whichever comes first.
+     * @param seconds  time until the effect expires, or NaN for no time limit
+     * @param source   the object whose events are counted, or null for no event limit
+     * @param events   number of events until the effect expires, ignored without a source
+     * @param onExpire what to do when the effect expires
+     * @return the effect, which can be cancelled
+     */
+    public Effect expireAfter(float seconds, Object source, int events, Runnable onExpire) {
+        Effect effect = new Effect(onExpire, source, source == null ? NO_EVENTS : events);
+        activeEffects++;
+        if (source != null) {
+            bySource.computeIfAbsent(source, key -> new ArrayList<>()).add(effect);
+        }
+        if (!Float.isNaN(seconds)) {
+            long ticks = Math.max(1, (long) Math.ceil((seconds - elapsed) / TICK_SECONDS));
+            effect.deadlineTick = currentTick + ticks;
+            effect.rounds = (ticks - 1) / SLOTS;
+            effect.slot = (int) (effect.deadlineTick & (SLOTS - 1));
+            link(effect);
+        }
+        return effect;
+    }
+
+    /**
+     * Cancels an effect, so its expiry action never runs. Cancelling an effect that already
+     * ended does nothing.
+     * @param effect the effect to cancel, may be null
+     */
+    public void cancel(Effect effect) {
+        if (effect == null || !effect.active) return;
+        end(effect);
+    }
+
+    /**
+     * Reports an event of a source, such as a collision of a game object. Every effect that
+     * counts the events of the source and reaches its count expires.
+     * @param source the object the event happened to
+     */
+    public void onEvent(Object source) {
+        List<Effect> effects = bySource.get(source);
+        if (effects == null) return;
+        List<Effect> expired = null;
+        for (Effect effect : effects) {
+            if (--effect.eventsLeft <= 0) {
+                if (expired == null) expired = new ArrayList<>();
+                expired.add(effect);
+            }
+        }
+        if (expired != null) expireAll(expired);
+    }
+
+    /**
+     * Advances the wheel by the elapsed time, expiring every effect whose time has come.
+     * Called by the game manager once per frame.
+     * @param deltaTime time since the last frame, in seconds
+     */
+    public void advance(float deltaTime) {
+        elapsed += deltaTime;
+        while (elapsed >= TICK_SECONDS) {
+            elapsed -= TICK_SECONDS;
+            currentTick++;
+            tick((int) (currentTick & (SLOTS - 1)));
+        }
+    }
+
+    /**
+     * @return the number of effects that are scheduled and did not expire or get cancelled
+     */
+    public int getActiveEffects() {
+        return activeEffects;
+    }
+
+    /**
+     * Expires the effects of a slot that are due in this turn of the wheel, and brings the
+     * others one turn closer.
+     */
+    private void tick(int slot) {
+        List<Effect> expired = null;
+        for (Effect effect = wheel[slot]; effect != null; effect = effect.next) {
+            if (effect.rounds > 0) {
+                effect.rounds--;
+            } else {
+                if (expired == null) expired = new ArrayList<>();
+                expired.add(effect);
+            }
+        }
+        if (expired != null) expireAll(expired);
+    }
+
+    /**
+     * Ends the effects and runs their expiry actions. An action may cancel other effects
+     * of the list, which then do not run.
+     */
+    private void expireAll(List<Effect> expired) {
+        for (Effect effect : expired) {
+            if (!effect.active) continue;
+            end(effect);
+            effect.onExpire.run();
+        }
+    }
+
+    /**
+     * Removes an effect from the wheel and from the effects of its source.
+     */
+    private void end(Effect effect) {
+        effect.active = false;
+        activeEffects--;
+        if (effect.deadlineTick != NO_DEADLINE) {
+            unlink(effect);
+        }
+        if (effect.source != null) {
+            List<Effect> effects = bySource.get(effect.source);
+            effects.remove(effect);
+            if (effects.isEmpty()) {
+                bySource.remove(effect.source);
+            }
+        }
+    }
+
+    private void link(Effect effect) {
+        Effect head = wheel[effect.slot];
+        effect.next = head;
+        if (head != null) head.previous = effect;
+        wheel[effect.slot] = effect;
+    }
+
+    private void unlink(Effect effect) {
+        if (effect.previous != null) {
+            effect.previous.next = effect.next;
+        } else {
+            wheel[effect.slot] = effect.next;
+        }
+        if (effect.next != null) effect.next.previous = effect.previous;
+        effect.previous = null;
+        effect.next = null;
+    }
+}
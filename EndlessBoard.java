@@ -0,0 +1,137 @@
+package bricker.main;
+
+import bricker.brick_strategies.StrategyFactory;
+import bricker.gameobjects.Brick;
+import danogl.util.Vector2;
+
+/**
+ * The endless mode of the game: the bricks keep moving down, and whenever they moved by a row,
+ * the bottom row is taken off the board and comes back at the top as a new row, with new
+ * strategies from the {@link StrategyFactory}.
+ * <p>
+ * The rows are kept in a ring of the slots of the {@link BrickGrid}, with the same bricks for
+ * the whole game: recycling a row moves its bricks to the top and gives them new strategies,
+ * and puts back into the game the ones that were destroyed. Recycling a row takes
+ * O(bricksPerRow), every brick keeps its grid index, and the memory of the board does not
+ * grow however long the game runs. The bricks move by their velocity, like every other
+ * object, so scrolling costs nothing per frame beyond the engine update.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickGrid#scrollTo
+ */
+public class EndlessBoard {
+    /** System property that turns the endless mode on (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.endless";
+
+    /** System property of the speed the bricks move down by, in pixels per second */
+    public static final String SPEED_PROPERTY = "bricker.endlessSpeed";
+
+    /** Speed of the bricks when {@value #SPEED_PROPERTY} is unset or invalid */
+    private static final float DEFAULT_SPEED = 8f;
+
+    /**
+     * private members
+     * gameManager - the game the destroyed bricks are put back into
+     * grid, layout - where the bricks are
+     * factory - gives the strategies of the new rows
+     * bricks - every brick of the board, by its grid index, whether it is in the game or not
+     * velocity - the velocity of every brick
+     * headSlot - the slot of the row at the top of the board
+     * scrollOffset - how far the rows moved down from their place in the layout
+     * recycledRows - the number of rows recycled in this game
+     */
+    private final BrickerGameManager gameManager;
+    private final BrickGrid grid;
+    private final BrickLayout layout;
+    private final StrategyFactory factory;
+    private final Brick[] bricks;
+    private final Vector2 velocity;
+    private int headSlot;
+    private float scrollOffset;
+    private int recycledRows;
+
+    /**
+     * constructs an endless board with no bricks, moving at the speed of
+     * {@value #SPEED_PROPERTY}
+     * @param gameManager the game of the board
+     * @param grid        the grid of the bricks
+     * @param factory     gives the strategies of the new rows
+     */
+    public EndlessBoard(BrickerGameManager gameManager, BrickGrid grid, StrategyFactory factory) {
+        this.gameManager = gameManager;
+        this.grid = grid;
+        this.layout = grid.getLayout();
+        this.factory = factory;
+        this.bricks = new Brick[layout.brickCount()];
+        this.velocity = new Vector2(0, readSpeed());
+    }
+
+    /**
+     * @return true if {@value #ENABLED_PROPERTY} turns the endless mode on
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * @param brick a brick of the grid, when the board is laid out
+     */
+    public void add(Brick brick) {
+        bricks[brick.getIndex()] = brick;
+        brick.setVelocity(velocity);
+    }
+
+    /**
+     * Scrolls the board along with the bricks, which were just moved by the engine, and
+     * recycles the bottom row once the rows moved by a full row.
+     * @param deltaTime time since the previous step, in seconds
+     */
+    public void advance(float deltaTime) {
+        scrollOffset += velocity.y() * deltaTime;
+        while (scrollOffset >= grid.getRowPitch()) {
+            scrollOffset -= grid.getRowPitch();
+            recycleBottomRow();
+        }
+        grid.scrollTo(headSlot, scrollOffset);
+    }
+
+    /**
+     * @return the number of rows recycled in this game
+     */
+    public int getRecycledRows() {
+        return recycledRows;
+    }
+
+    /**
+     * Moves the bottom row to the top, with new strategies, and puts its destroyed bricks
+     * back into the game.
+     */
+    private void recycleBottomRow() {
+        int slot = grid.slotOfRow(layout.rows() - 1);
+        headSlot = slot;
+        grid.scrollTo(headSlot, scrollOffset);
+        float top = layout.rowY(0) + scrollOffset;
+        for (int col = 0; col < layout.bricksPerRow(); col++) {
+            Brick brick = bricks[layout.index(col, slot)];
+            brick.recycle(new Vector2(layout.columnX(col), top), factory.randomStrategy());
+            if (!grid.contains(brick)) {
+                gameManager.restoreBrick(brick);
+            }
+        }
+        recycledRows++;
+    }
+
+    /**
+     * @return the speed set with {@value #SPEED_PROPERTY}, or the default speed when it is
+     * unset or not a positive number
+     */
+    private static float readSpeed() {
+        try {
+            float speed = Float.parseFloat(System.getProperty(SPEED_PROPERTY, ""));
+            return speed > 0 ? speed : DEFAULT_SPEED;
+        } catch (NumberFormatException e) {
+            return DEFAULT_SPEED;
+        }
+    }
+}
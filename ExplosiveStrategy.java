@@ -0,0 +1,105 @@
+package bricker.brick_strategies;
+
+import bricker.gameobjects.Brick;
+import bricker.main.BrickGrid;
+import bricker.main.BrickerGameManager;
+import bricker.profiling.CollisionLog;
+import danogl.GameObject;
+import danogl.util.Counter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A collision strategy that blows up the bricks around the brick that was hit. Every brick
+ * within the blast radius is destroyed, and when one of them is explosive too, it explodes
+ * in turn, so a chain can clear a large part of the board at once.
+ * The bricks around a brick are found in the brick grid of the game, and all the destroyed
+ * bricks are removed together, with a single update of the brick counter. Only the blasts
+ * spread through the chain: the other strategies of the destroyed bricks are not performed.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickGrid
+ */
+public class ExplosiveStrategy implements CollisionStrategy {
+    /** The blast reaches the bricks next to the hit brick, including the diagonal ones. */
+    private static final float BLAST_RADIUS = 10f;
+
+    private final BrickerGameManager gameManager;
+    private final Counter brickCounter;
+
+    /**
+     * Constructs an Explosive collision strategy.
+     *
+     * @param gameManager  The game manager.
+     * @param brickCounter The brick counter, decreased by the number of destroyed bricks.
+     */
+    public ExplosiveStrategy(BrickerGameManager gameManager, Counter brickCounter) {
+        this.gameManager = gameManager;
+        this.brickCounter = brickCounter;
+    }
+
+    /**
+     * Destroys the brick, the bricks in its blast radius and the bricks in the blast radius
+     * of every explosive brick among them.
+     *
+     * @param thisObj  The brick that was hit.
+     * @param otherObj The object that hit the brick.
+     */
+    @Override
+    public void onCollision(GameObject thisObj, GameObject otherObj) {
+        List<Brick> destroyed = new ArrayList<>();
+        if (thisObj instanceof Brick) {
+            chainReaction((Brick) thisObj, destroyed);
+        } else if (gameManager.removeGameObjectFromGame(thisObj)) {
+            brickCounter.decrement();
+        }
+        brickCounter.decreaseBy(gameManager.removeBricks(destroyed));
+        CollisionLog.strategyEffect(this, thisObj, destroyed.size());
+    }
+
+    /**
+     * Collects the bricks destroyed by the blast of a brick, and by the blasts it sets off,
+     * visiting every brick at most once.
+     *
+     * @param brick     The brick that explodes first.
+     * @param destroyed Receives the destroyed bricks, starting with the exploding brick.
+     */
+    private void chainReaction(Brick brick, List<Brick> destroyed) {
+        BrickGrid grid = gameManager.getBrickGrid();
+        // marked on the grid, so a blast costs in proportion to the bricks it reaches
+        grid.beginVisit();
+        ArrayDeque<Brick> explosions = new ArrayDeque<>();
+        destroyed.add(brick);
+        explosions.add(brick);
+        grid.markVisited(brick);
+        while (!explosions.isEmpty()) {
+            grid.forEachWithin(explosions.poll(), BLAST_RADIUS, neighbor -> {
+                if (!grid.markVisited(neighbor)) return;
+                destroyed.add(neighbor);
+                if (isExplosive(neighbor.getStrategy())) {
+                    explosions.add(neighbor);
+                }
+            });
+        }
+    }
+
+    /**
+     * @param strategy the strategy of a brick
+     * @return true if the strategy, or one of the strategies it combines, is explosive
+     */
+    private static boolean isExplosive(CollisionStrategy strategy) {
+        if (strategy instanceof ExplosiveStrategy) return true;
+        if (strategy instanceof DoubleStrategy) {
+            DoubleStrategy doubleStrategy = (DoubleStrategy) strategy;
+            for (int i = 0; i < doubleStrategy.getSize(); i++) {
+                if (doubleStrategy.getRealCollisions()[i] instanceof ExplosiveStrategy) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
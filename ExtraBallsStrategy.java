@@ -3,6 +3,7 @@ package bricker.brick_strategies;
 
 import bricker.gameobjects.Puck;
 import bricker.main.BrickerGameManager;
+import bricker.profiling.CollisionLog;
 import danogl.GameObject;
 import danogl.gui.Sound;
 import danogl.gui.rendering.Renderable;
@@ -67,7 +68,8 @@ public class ExtraBallsStrategy implements CollisionStrategy {
      * Handles collision with a brick:
      * - Removes the brick from the game.
      * - Decrements the brick counter.
-     * - Spawns two pucks that move upward in random directions.
+     * - Spawns two pucks that move upward in random directions (fewer if the frame governor
+     *   caps the number of pucks).
      *
      * @param thisObj The brick that was hit.
      * @param otherObj The object that collided with the brick (e.g., ball).
@@ -80,7 +82,9 @@ public class ExtraBallsStrategy implements CollisionStrategy {
         Vector2 brickCenter = thisObj.getCenter();
 
 
-        for (int i = 0; i < NUM_PUCKS; i++) {
+        int livePucks = gameManager.getLiveBalls().size() - 1;
+        int numPucks = gameManager.getFrameGovernor().allowedPuckSpawns(NUM_PUCKS, livePucks);
+        for (int i = 0; i < numPucks; i++) {
             Puck puck = new Puck(
                     brickCenter,
                     PUCK_SIZE,
@@ -91,6 +95,7 @@ public class ExtraBallsStrategy implements CollisionStrategy {
             puck.setVelocity(randomUpperUnitVector());
             gameManager.addGameObjectFromGame(puck);
         }
+        CollisionLog.strategyEffect(this, thisObj, numPucks);
     }
 
     /**
@@ -100,10 +105,11 @@ public class ExtraBallsStrategy implements CollisionStrategy {
      * @return A velocity vector pointing upward.
      */
     private Vector2 randomUpperUnitVector() {
-        Random random = new Random();
+        Random random = gameManager.getRandom();
         double angle = random.nextDouble() * Math.PI;
-        float velocityX = (float) Math.cos(angle) * PUCK_SPEED;
-        float velocityY = (float) Math.sin(angle) * PUCK_SPEED;
+        // StrictMath gives the same directions on every machine, for seeded games
+        float velocityX = (float) StrictMath.cos(angle) * PUCK_SPEED;
+        float velocityY = (float) StrictMath.sin(angle) * PUCK_SPEED;
         return new Vector2(velocityX, velocityY);
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package bricker.brick_strategies;
 
 import bricker.gameobjects.Heart;
 import bricker.main.BrickerGameManager;
+import bricker.profiling.CollisionLog;
 import danogl.GameObject;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
@@ -60,5 +61,6 @@ public class ExtraLifeStrategy implements CollisionStrategy {
         Vector2 heartPosition = thisObj.getCenter();
         Heart fallingHeart = new Heart(heartPosition, heartImage, true, gameManager);
         gameManager.addGameObjectFromGame(fallingHeart);
+        CollisionLog.strategyEffect(this, thisObj, 1);
     }
 }
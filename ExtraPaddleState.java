@@ -0,0 +1,80 @@
+package bricker.brick_strategies;
+
+import bricker.gameobjects.AIPaddle;
+import bricker.main.EffectScheduler;
+
+/**
+ * Holds the AI paddle of a single game, shared by all the ExtraPaddleStrategy instances of
+ * that game. Keeping this per game (instead of in static fields) allows several games to run
+ * in the same process without corrupting each other.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ExtraPaddleStrategy
+ */
+public class ExtraPaddleState {
+    /**
+     * private members
+     * paddle - the AI paddle of the game, created by the first ExtraPaddleStrategy
+     * existsPaddle - whether the AI paddle is currently in the game
+     * expiries - the effects that remove the AI paddle, while it is in the game
+     */
+    private AIPaddle paddle;
+    private boolean existsPaddle;
+    private EffectScheduler.Effect[] expiries;
+
+    /**
+     * constructs an empty state, with no AI paddle in the game
+     */
+    public ExtraPaddleState() {
+        paddle = null;
+        existsPaddle = false;
+        expiries = new EffectScheduler.Effect[0];
+    }
+
+    /**
+     * @return the AI paddle of the game, or null if it was not created yet
+     */
+    AIPaddle getPaddle() {
+        return paddle;
+    }
+
+    /**
+     * @param paddle the AI paddle of the game
+     */
+    void setPaddle(AIPaddle paddle) {
+        this.paddle = paddle;
+    }
+
+    /**
+     * @return true if the AI paddle is currently in the game
+     */
+    boolean existsPaddle() {
+        return existsPaddle;
+    }
+
+    /**
+     * @param existsPaddle whether the AI paddle is currently in the game
+     */
+    void setExistsPaddle(boolean existsPaddle) {
+        this.existsPaddle = existsPaddle;
+    }
+
+    /**
+     * @param expiries the effects that remove the AI paddle from the game
+     */
+    void setExpiries(EffectScheduler.Effect... expiries) {
+        this.expiries = expiries;
+    }
+
+    /**
+     * cancels the effects that remove the AI paddle, once it was removed by one of them
+     * @param effectScheduler the scheduler the effects were scheduled in
+     */
+    void cancelExpiries(EffectScheduler effectScheduler) {
+        for (EffectScheduler.Effect expiry : expiries) {
+            effectScheduler.cancel(expiry);
+        }
+        expiries = new EffectScheduler.Effect[0];
+    }
+}
@@ -5,11 +5,14 @@ import bricker.gameobjects.AIPaddle;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 import bricker.main.BrickerGameManager;
+import bricker.main.EffectScheduler;
+import bricker.profiling.CollisionLog;
 
 /**
  * A collision strategy that spawns an AI-controlled paddle (AIPaddle)
  * in the middle of the screen upon brick destruction.
- * If the AI paddle already exists and is hit MAX_HITS times, it is removed.
+ * The AI paddle is removed after MAX_HITS more extra paddle bricks are hit, or after it is
+ * hit more than MAX_HITS times itself, whichever comes first.
  *
  * @author Ishay Shaul
  * @author Maoz Bar Shimon
@@ -18,17 +21,17 @@ import bricker.main.BrickerGameManager;
 public class ExtraPaddleStrategy implements CollisionStrategy{
     private static final int MAX_HITS = 4;
 
+    /** The AI paddle is removed on this collision of its own. */
+    private static final int MAX_PADDLE_COLLISIONS = MAX_HITS + 1;
+
     /** Divider used to position paddle in the center. */
     private static final int TWO = 2;
 
     /** Factor to scale the paddle size down. */
     private static final float THREE_QUARTERS = 0.75f;
 
-    /** Hit counter for the AI paddle. */
-    private static int hits = 0;
-
-    private static boolean existsPaddle = false;
-    private static AIPaddle paddle;
+    /** The AI paddle of this game and its hit counter, shared by all its strategies. */
+    private final ExtraPaddleState state;
     private final GameObject userPaddle;
     private final BrickerGameManager gameManager;
     private final Counter brickCounter;
@@ -43,16 +46,20 @@ public class ExtraPaddleStrategy implements CollisionStrategy{
      */
     public ExtraPaddleStrategy(BrickerGameManager gameManager, GameObject userPaddle,
                                Counter brickCounter){
-        existsPaddle = false;
         this.gameManager = gameManager;
         this.userPaddle = userPaddle;
         this.brickCounter = brickCounter;
+        this.state = gameManager.getExtraPaddleState();
+        if(state.getPaddle() != null){
+            return;
+        }
         Vector2 newDimensions = new Vector2(userPaddle.getDimensions().x() * THREE_QUARTERS,
                 userPaddle.getDimensions().y() * THREE_QUARTERS);
-        Vector2 topLeftCorner = new Vector2(this.gameManager.getWindowDimensions().x()/TWO,
-                this.gameManager.getWindowDimensions().y()/TWO);
-        paddle = new AIPaddle(topLeftCorner, newDimensions, userPaddle.renderer().getRenderable(),
-                this.userPaddle, this.gameManager);
+        Vector2 topLeftCorner = new Vector2(this.gameManager.getBoardDimensions().x()/TWO,
+                this.gameManager.getBoardDimensions().y()/TWO);
+        state.setPaddle(new AIPaddle(topLeftCorner, newDimensions,
+                userPaddle.renderer().getRenderable(), this.userPaddle, this.gameManager,
+                this.gameManager.getAIPaddleMode()));
     }
 
     /**
@@ -67,25 +74,29 @@ public class ExtraPaddleStrategy implements CollisionStrategy{
         if (gameManager.removeGameObjectFromGame(thisObj)) {
             brickCounter.decrement();
         }
-        if(existsPaddle){
-            hits++;
-            if(hits >= MAX_HITS){
-                gameManager.removeGameObjectFromGame(paddle);
-                existsPaddle = false;
-                hits = 0;
-            }
-            if (gameManager.removeGameObjectFromGame(thisObj)) {
-                brickCounter.decrement();
-            }
+        EffectScheduler effectScheduler = gameManager.getEffectScheduler();
+        if(state.existsPaddle()){
+            effectScheduler.onEvent(state);
         }
         else{
-            gameManager.addGameObjectFromGame(paddle);
-            existsPaddle = true;
-            if (gameManager.removeGameObjectFromGame(thisObj)) {
-                brickCounter.decrement();
-            }
+            gameManager.addGameObjectFromGame(state.getPaddle());
+            state.setExistsPaddle(true);
+            state.setExpiries(
+                    effectScheduler.expireAfterEvents(state, MAX_HITS, this::removePaddle),
+                    effectScheduler.expireAfterEvents(state.getPaddle(), MAX_PADDLE_COLLISIONS,
+                            this::removePaddle));
+            CollisionLog.strategyEffect(this, thisObj, 1);
         }
     }
+
+    /**
+     * Removes the AI paddle from the game, so the next extra paddle brick adds it again.
+     */
+    private void removePaddle() {
+        gameManager.removeGameObjectFromGame(state.getPaddle());
+        state.setExistsPaddle(false);
+        state.cancelExpiries(gameManager.getEffectScheduler());
+    }
 }
 
 
@@ -0,0 +1,109 @@
+package bricker.main;
+
+/**
+ * Integer fixed-point arithmetic for the deterministic physics mode. When the mode is on,
+ * the positions and velocities of the moving objects are kept as 64-bit integers in units of
+ * 1/{@value #ONE} of a pixel, and every step and bounce is computed with integer operations
+ * only, so the same game gives bit-identical states on every JVM and CPU. The floating-point
+ * positions the engine draws and collides with are only projections of the integer state.
+ * <p>
+ * Setting {@value #SEED_PROPERTY} as well makes every random choice of the game (the first
+ * direction of the ball, the strategies of the bricks, the directions of the pucks) the same
+ * in every run, so two runs with the same seed and the same inputs can be compared with
+ * {@link BrickerGameManager#stateHash()}.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see bricker.gameobjects.FixedPointObject
+ */
+public final class FixedPoint {
+    /** System property that turns the fixed-point physics mode on (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.fixedPoint";
+
+    /** System property of the seed of the random choices of the game (unseeded by default) */
+    public static final String SEED_PROPERTY = "bricker.seed";
+
+    /** Number of fraction bits of a fixed-point number */
+    public static final int FRACTION_BITS = 16;
+
+    /** The fixed-point number 1 */
+    public static final long ONE = 1L << FRACTION_BITS;
+
+    /** Steps per second of the game in fixed-point mode, the same on every machine */
+    public static final int STEP_RATE = 60;
+
+    /** Duration of a step in fixed-point mode, the only time step the moving objects see */
+    public static final float STEP_SECONDS = 1f / STEP_RATE;
+
+    /** 1 / ONE, exact since ONE is a power of two */
+    private static final double INVERSE_ONE = 1.0 / ONE;
+
+    /** Offset basis of the FNV-1a hash the state hashes are built with */
+    public static final long HASH_SEED = 0xcbf29ce484222325L;
+
+    /** Prime of the FNV-1a hash */
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @return true if the moving objects use fixed-point physics
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the seed set with {@value #SEED_PROPERTY}, or null if it is unset or not a number
+     */
+    public static Long seed() {
+        try {
+            return Long.valueOf(System.getProperty(SEED_PROPERTY, ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a float to fixed-point, rounding to the nearest representable number. The
+     * conversion is exact IEEE arithmetic, so it gives the same result everywhere.
+     * @param value the float
+     * @return the fixed-point number
+     */
+    public static long fromFloat(float value) {
+        return Math.round(value * (double) ONE);
+    }
+
+    /**
+     * @param value a fixed-point number
+     * @return the nearest float
+     */
+    public static float toFloat(long value) {
+        return (float) (value * INVERSE_ONE);
+    }
+
+    /**
+     * @param a a fixed-point number
+     * @param b a fixed-point number
+     * @return the product, rounded towards negative infinity
+     */
+    public static long mul(long a, long b) {
+        return (a * b) >> FRACTION_BITS;
+    }
+
+    /**
+     * Adds a value to a hash of the game state.
+     * @param hash  the hash so far, {@link #HASH_SEED} at first
+     * @param value the value to add
+     * @return the new hash
+     */
+    public static long hash(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * HASH_PRIME;
+        }
+        return hash;
+    }
+}
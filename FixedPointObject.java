@@ -0,0 +1,168 @@
+package bricker.gameobjects;
+
+import bricker.main.FixedPoint;
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * A moving game object (ball, puck, paddle, AI paddle, falling heart) that keeps its position
+ * and velocity in integer fixed-point when the deterministic physics mode of
+ * {@link FixedPoint} is on. The object then moves and bounces with integer operations only,
+ * and the float position and velocity of the engine are set to the projection of the integer
+ * state after every change. When the mode is off, the object is a regular game object.
+ * <p>
+ * A float that is already the projection of the integer state does not change the state, so
+ * code that reads the velocity and sets it back (like the intercept planner of the ball) does
+ * not lose the precision the float cannot hold.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see FixedPoint
+ */
+public abstract class FixedPointObject extends GameObject {
+    /**
+     * private members
+     * fixed - whether the object uses fixed-point physics
+     * x, y - the top left corner, in fixed-point
+     * velocityX, velocityY - the velocity, in fixed-point per second
+     */
+    private final boolean fixed;
+    private long x;
+    private long y;
+    private long velocityX;
+    private long velocityY;
+
+    /**
+     * constructs the object
+     * @param topLeftCorner where the object is placed
+     * @param dimensions    size of the object
+     * @param renderable    image of the object
+     */
+    protected FixedPointObject(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
+        fixed = FixedPoint.isEnabled();
+        if (fixed) {
+            setFixedPosition(getTopLeftCorner());
+            setFixedVelocity(getVelocity());
+        }
+    }
+
+    /**
+     * Moves the object. In fixed-point mode, the integer position is advanced by the integer
+     * velocity instead of the engine moving the float position. The moving objects have no
+     * components and static images, so moving them is all the engine update would do. The
+     * game only steps them by FixedPoint.STEP_SECONDS in this mode.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        if (!fixed) {
+            super.update(deltaTime);
+            return;
+        }
+        long step = FixedPoint.fromFloat(deltaTime);
+        x += FixedPoint.mul(velocityX, step);
+        y += FixedPoint.mul(velocityY, step);
+        super.setTopLeftCorner(projection(x, y));
+    }
+
+    /**
+     * Sets the velocity. In fixed-point mode, the velocity is rounded to fixed-point, unless
+     * it is the projection of the current integer velocity.
+     * @param velocity The new velocity
+     */
+    @Override
+    public void setVelocity(Vector2 velocity) {
+        if (fixed && !isProjection(velocity, velocityX, velocityY)) {
+            setFixedVelocity(velocity);
+            velocity = projection(velocityX, velocityY);
+        }
+        super.setVelocity(velocity);
+    }
+
+    /**
+     * Sets the position. In fixed-point mode, the position is rounded to fixed-point, unless
+     * it is the projection of the current integer position.
+     * @param topLeftCorner The new top left corner
+     */
+    @Override
+    public void setTopLeftCorner(Vector2 topLeftCorner) {
+        if (fixed && !isProjection(topLeftCorner, x, y)) {
+            setFixedPosition(topLeftCorner);
+            topLeftCorner = projection(x, y);
+        }
+        super.setTopLeftCorner(topLeftCorner);
+    }
+
+    /**
+     * Sets the position by the center. In fixed-point mode, the resulting top left corner is
+     * rounded to fixed-point.
+     * @param center The new center
+     */
+    @Override
+    public void setCenter(Vector2 center) {
+        super.setCenter(center);
+        if (fixed) {
+            setTopLeftCorner(getTopLeftCorner());
+        }
+    }
+
+    /**
+     * Reflects the velocity off a surface, as in an elastic bounce. In fixed-point mode the
+     * integer velocity is reflected with integer operations. The velocity is not set, the
+     * caller sets the returned velocity.
+     * @param normal the normal of the surface
+     * @return the reflected velocity
+     */
+    protected Vector2 reflected(Vector2 normal) {
+        if (!fixed) {
+            return getVelocity().flipped(normal);
+        }
+        long normalX = FixedPoint.fromFloat(normal.x());
+        long normalY = FixedPoint.fromFloat(normal.y());
+        long dot = FixedPoint.mul(velocityX, normalX) + FixedPoint.mul(velocityY, normalY);
+        velocityX -= 2 * FixedPoint.mul(dot, normalX);
+        velocityY -= 2 * FixedPoint.mul(dot, normalY);
+        return projection(velocityX, velocityY);
+    }
+
+    /**
+     * Adds the position and velocity of the object to a hash of the game state: the integer
+     * state in fixed-point mode, the bits of the floats otherwise.
+     * @param hash the hash so far
+     * @return the new hash
+     */
+    public long stateHash(long hash) {
+        if (fixed) {
+            hash = FixedPoint.hash(hash, x);
+            hash = FixedPoint.hash(hash, y);
+            hash = FixedPoint.hash(hash, velocityX);
+            return FixedPoint.hash(hash, velocityY);
+        }
+        Vector2 corner = getTopLeftCorner();
+        Vector2 velocity = getVelocity();
+        hash = FixedPoint.hash(hash, Float.floatToIntBits(corner.x()));
+        hash = FixedPoint.hash(hash, Float.floatToIntBits(corner.y()));
+        hash = FixedPoint.hash(hash, Float.floatToIntBits(velocity.x()));
+        return FixedPoint.hash(hash, Float.floatToIntBits(velocity.y()));
+    }
+
+    private void setFixedPosition(Vector2 topLeftCorner) {
+        x = FixedPoint.fromFloat(topLeftCorner.x());
+        y = FixedPoint.fromFloat(topLeftCorner.y());
+    }
+
+    private void setFixedVelocity(Vector2 velocity) {
+        velocityX = FixedPoint.fromFloat(velocity.x());
+        velocityY = FixedPoint.fromFloat(velocity.y());
+    }
+
+    private static boolean isProjection(Vector2 vector, long fixedX, long fixedY) {
+        return vector.x() == FixedPoint.toFloat(fixedX) && vector.y() == FixedPoint.toFloat(fixedY);
+    }
+
+    private static Vector2 projection(long fixedX, long fixedY) {
+        return new Vector2(FixedPoint.toFloat(fixedX), FixedPoint.toFloat(fixedY));
+    }
+}
@@ -0,0 +1,234 @@
+package bricker.main;
+
+import bricker.profiling.GameEvents;
+
+/**
+ * Keeps the game within its frame budget when chains of ExtraBalls and Double strategies fill
+ * the screen with pucks, sounds and hearts. The governor measures the time the game spends
+ * simulating and drawing every frame, without the time the engine sleeps to cap the frame
+ * rate, and compares a smoothed value to the budget. The drawing time is the one of the
+ * previous frame, since a frame is drawn after it is simulated. While the game is over budget it steps through the
+ * degradations one level at a time, and when headroom returns it restores them one level at a
+ * time. Every level includes the degradations of the levels below it. Game objects ask the
+ * governor what they may do, so nothing has to be switched on or off explicitly.
+ * <p>
+ * The governor never degrades a game in the fixed-point physics mode: most levels change how
+ * the game plays, and a deterministic game must not depend on the speed of the machine.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager
+ */
+public class FrameGovernor {
+    /** System property that turns the governor on (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.frameGovernor";
+
+    /** System property of the frame budget, in milliseconds */
+    public static final String BUDGET_PROPERTY = "bricker.frameBudgetMs";
+
+    /** Frame budget used when none is configured (60 frames per second) */
+    private static final String DEFAULT_BUDGET_MS = "16.6";
+
+    /** Weight of the newest frame in the smoothed frame time */
+    private static final double SMOOTHING = 0.1;
+
+    /** Consecutive frames over budget before degrading one more level */
+    private static final int FRAMES_TO_DEGRADE = 30;
+
+    /** Consecutive frames with headroom before restoring one level */
+    private static final int FRAMES_TO_RESTORE = 120;
+
+    /** The smoothed frame time must drop below this share of the budget to count as headroom */
+    private static final double HEADROOM = 0.7;
+
+    /** Live pucks allowed when spawns are capped */
+    private static final int CAPPED_PUCKS = 8;
+
+    /** Frames between two updates of the life indicators when overlays are slowed down */
+    private static final int SLOW_OVERLAY_INTERVAL = 10;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /**
+     * The degradation levels, in the order they are applied.
+     */
+    public enum Level {
+        /** Everything runs normally */
+        NONE,
+        /** At most one collision sound is played per frame */
+        MERGE_SOUNDS,
+        /** ExtraBallsStrategy stops spawning pucks above a fixed number of live pucks */
+        CAP_PUCKS,
+        /** The life indicators are updated every few frames instead of immediately */
+        SLOW_OVERLAYS,
+        /** Pucks no longer collide with other balls or with paddles other than the user's */
+        CHEAP_PUCKS
+    }
+
+    /**
+     * private members
+     * enabled - when false the governor stays at Level.NONE
+     * budgetNanos - the frame budget
+     * level - the current degradation level
+     * smoothedNanos - exponential moving average of the time spent simulating and drawing a
+     * frame
+     * frameStart - when the current frame started
+     * renderNanos - the time the last frame took to draw, written by the window thread
+     * overBudgetFrames, headroomFrames - consecutive frames over budget / with headroom
+     * frame - number of frames measured, soundPlayedFrame - last frame a sound was played
+     * transitions - number of transitions into each level
+     */
+    private final boolean enabled;
+    private final long budgetNanos;
+    private Level level;
+    private double smoothedNanos;
+    private long frameStart;
+    private volatile long renderNanos;
+    private int overBudgetFrames;
+    private int headroomFrames;
+    private long frame;
+    private long soundPlayedFrame;
+    private final int[] transitions;
+
+    /**
+     * constructs a governor configured by the {@value #ENABLED_PROPERTY} and
+     * {@value #BUDGET_PROPERTY} system properties, disabled in the fixed-point physics mode
+     */
+    public FrameGovernor() {
+        this(Boolean.getBoolean(ENABLED_PROPERTY) && !FixedPoint.isEnabled(),
+                Double.parseDouble(System.getProperty(BUDGET_PROPERTY, DEFAULT_BUDGET_MS)));
+    }
+
+    /**
+     * constructs a governor
+     * @param enabled  whether the governor may degrade the game at all
+     * @param budgetMs the frame budget, in milliseconds
+     */
+    public FrameGovernor(boolean enabled, double budgetMs) {
+        this.enabled = enabled;
+        this.budgetNanos = (long) (budgetMs * NANOS_PER_MILLI);
+        this.level = Level.NONE;
+        this.soundPlayedFrame = -1;
+        this.transitions = new int[Level.values().length];
+    }
+
+    /**
+     * Starts measuring a frame. Called by the game manager at the start of every frame.
+     * @param now the current time, from System.nanoTime()
+     */
+    public void onFrameStart(long now) {
+        frame++;
+        frameStart = now;
+    }
+
+    /**
+     * Records how long drawing a frame took. Called by the game manager after every render.
+     * @param nanos the time spent drawing, in nanoseconds
+     */
+    public void onRender(long nanos) {
+        renderNanos = nanos;
+    }
+
+    /**
+     * Measures the time the frame took since {@link #onFrameStart}, adds the time the last
+     * frame took to draw, and degrades or restores one level if the game has been over budget,
+     * or has had headroom, for long enough.
+     * Called by the game manager once the frame was simulated.
+     * @param now the current time, from System.nanoTime()
+     */
+    public void onFrameEnd(long now) {
+        long frameNanos = now - frameStart + renderNanos;
+        smoothedNanos = smoothedNanos == 0 ? frameNanos :
+                smoothedNanos + SMOOTHING * (frameNanos - smoothedNanos);
+        if (!enabled) return;
+
+        if (smoothedNanos > budgetNanos) {
+            overBudgetFrames++;
+            headroomFrames = 0;
+        } else if (smoothedNanos < budgetNanos * HEADROOM) {
+            headroomFrames++;
+            overBudgetFrames = 0;
+        } else {
+            overBudgetFrames = 0;
+            headroomFrames = 0;
+        }
+        Level[] levels = Level.values();
+        if (overBudgetFrames >= FRAMES_TO_DEGRADE && level.ordinal() < levels.length - 1) {
+            changeLevel(levels[level.ordinal() + 1]);
+        } else if (headroomFrames >= FRAMES_TO_RESTORE && level != Level.NONE) {
+            changeLevel(levels[level.ordinal() - 1]);
+        }
+    }
+
+    /**
+     * Asks whether a collision sound may be played now. When sounds are merged, only the first
+     * sound of every frame is played.
+     * @return true if the sound should be played
+     */
+    public boolean claimCollisionSound() {
+        if (level.compareTo(Level.MERGE_SOUNDS) < 0) return true;
+        if (soundPlayedFrame == frame) return false;
+        soundPlayedFrame = frame;
+        return true;
+    }
+
+    /**
+     * Asks how many of the requested pucks may be spawned.
+     * @param requested  number of pucks the strategy wants to spawn
+     * @param livePucks  number of pucks currently in the game
+     * @return the number of pucks to spawn
+     */
+    public int allowedPuckSpawns(int requested, int livePucks) {
+        if (level.compareTo(Level.CAP_PUCKS) < 0) return requested;
+        return Math.max(0, Math.min(requested, CAPPED_PUCKS - livePucks));
+    }
+
+    /**
+     * Asks whether the life indicators may be updated in this frame.
+     * @return true if the overlays should be refreshed now
+     */
+    public boolean shouldUpdateOverlays() {
+        return level.compareTo(Level.SLOW_OVERLAYS) < 0 || frame % SLOW_OVERLAY_INTERVAL == 0;
+    }
+
+    /**
+     * @return true if pucks should use the cheaper simulation
+     */
+    public boolean isCheapPuckSimulation() {
+        return level.compareTo(Level.CHEAP_PUCKS) >= 0;
+    }
+
+    /**
+     * @return the current degradation level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the smoothed time spent simulating and drawing a frame, in milliseconds
+     */
+    public double getSmoothedFrameMillis() {
+        return smoothedNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @param target a degradation level
+     * @return how many times the governor moved into that level
+     */
+    public int getTransitionsTo(Level target) {
+        return transitions[target.ordinal()];
+    }
+
+    /**
+     * Moves to the given level, counts and records the transition.
+     * @param next the new level
+     */
+    private void changeLevel(Level next) {
+        GameEvents.governorTransition(level.name(), next.name(), getSmoothedFrameMillis());
+        level = next;
+        transitions[next.ordinal()]++;
+        overBudgetFrames = 0;
+        headroomFrames = 0;
+    }
+}
@@ -0,0 +1,87 @@
+package bricker.profiling;
+
+/**
+ * Finds when the frame times of a game settle after it starts: the first frame after which the
+ * frame times of a whole window of frames vary by less than a fraction of their mean. Until
+ * then the JIT is still compiling and classes are still loading, and the game stutters.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see bricker.main.JitWarmup
+ */
+public class FrameStability {
+    /** Number of consecutive frames the variation is measured over */
+    private static final int WINDOW = 60;
+
+    /** Largest standard deviation of a settled window, as a fraction of its mean */
+    private static final double SETTLED_VARIATION = 0.25;
+
+    /**
+     * private members
+     * frameNanos - the durations of the last frames, as a ring
+     * frames - the number of frames measured
+     * sum, sumOfSquares - of the durations in the ring
+     * firstFrame, lastFrame - when the first and the latest frames started
+     * settledNanos - time from the first frame until the frames settled, 0 until they do
+     */
+    private final long[] frameNanos = new long[WINDOW];
+    private int frames;
+    private double sum;
+    private double sumOfSquares;
+    private long firstFrame;
+    private long lastFrame;
+    private long settledNanos;
+
+    /**
+     * Measures a frame.
+     * @param now the time the frame starts, from System.nanoTime()
+     * @return true for the frame at which the frame times settled, false for every other
+     */
+    public boolean onFrame(long now) {
+        if (settledNanos != 0) return false;
+        if (firstFrame == 0) {
+            firstFrame = now;
+            lastFrame = now;
+            return false;
+        }
+        long duration = now - lastFrame;
+        lastFrame = now;
+        int slot = frames % WINDOW;
+        if (frames >= WINDOW) {
+            double old = frameNanos[slot];
+            sum -= old;
+            sumOfSquares -= old * old;
+        }
+        frameNanos[slot] = duration;
+        sum += duration;
+        sumOfSquares += (double) duration * duration;
+        frames++;
+        if (frames < WINDOW) return false;
+        double mean = sum / WINDOW;
+        double variance = Math.max(0, sumOfSquares / WINDOW - mean * mean);
+        if (Math.sqrt(variance) > SETTLED_VARIATION * mean) return false;
+        settledNanos = Math.max(1, now - firstFrame);
+        return true;
+    }
+
+    /**
+     * @return whether the frame times settled
+     */
+    public boolean isSettled() {
+        return settledNanos != 0;
+    }
+
+    /**
+     * @return the time from the first frame until the frames settled, 0 until they do
+     */
+    public long getSettledNanos() {
+        return settledNanos;
+    }
+
+    /**
+     * @return the number of frames measured until the frames settled, or so far
+     */
+    public int getFrames() {
+        return frames;
+    }
+}
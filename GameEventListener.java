@@ -0,0 +1,57 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+
+/**
+ * Receives notifications about what happens in a game, so features that observe the game
+ * (networking, profiling, statistics) can be attached to a {@link BrickerGameManager} without
+ * changing the game objects. All methods do nothing by default, implementations override only
+ * what they need. Notifications are delivered on the game thread.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#addGameEventListener
+ */
+public interface GameEventListener {
+
+    /**
+     * Called at the end of every game initialization (including after a reset), once all the
+     * game objects were created.
+     *
+     * @param gameManager the game that was initialized
+     */
+    default void onGameInitialized(BrickerGameManager gameManager) {
+    }
+
+    /**
+     * Called when a brick was removed from the game.
+     *
+     * @param brick the removed brick
+     */
+    default void onBrickRemoved(Brick brick) {
+    }
+
+    /**
+     * Called when a removed brick was put back, because the game was rewound.
+     *
+     * @param brick the brick that was put back
+     */
+    default void onBrickRestored(Brick brick) {
+    }
+
+    /**
+     * Called at the end of every frame, after all the game objects were updated.
+     *
+     * @param deltaTime time since the last frame, in seconds
+     */
+    default void onFrameEnd(float deltaTime) {
+    }
+
+    /**
+     * Called when a game was won or lost, before it is reset or closed.
+     *
+     * @param won true if the player won the game
+     */
+    default void onGameEnded(boolean won) {
+    }
+}
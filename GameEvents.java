@@ -0,0 +1,307 @@
+package bricker.profiling;
+
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.rendering.Renderable;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the game, so GC pauses and frame hitches can be correlated
+ * with what happened in the game (in JDK Mission Control, under the "Bricker" category).
+ * The game calls the static methods of this class. When a recording is not running, JFR makes
+ * each call a cheap check. Setting the system property {@value #ENABLED_PROPERTY} to false
+ * turns the events off completely, and the calls become empty.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ */
+public final class GameEvents {
+    /** System property that turns the events on or off (on by default) */
+    public static final String ENABLED_PROPERTY = "bricker.jfrEvents";
+
+    /** Whether the game emits events at all. Final, so disabled calls are compiled away. */
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+
+    private static final String CATEGORY = "Bricker";
+
+    /** A thread whose events are dropped, such as the JIT warm-up's, null for none */
+    private static volatile Thread mutedThread;
+
+    /** A single frame of the game, from the start to the end of its update. */
+    @Name("bricker.FrameTick")
+    @Label("Frame Tick")
+    @Category({CATEGORY, "Game Loop"})
+    public static final class FrameTickEvent extends Event {
+        @Label("Live Objects")
+        @Description("Number of game objects in the game at the end of the frame")
+        int liveObjects;
+
+        @Label("Live Balls")
+        @Description("The main ball and the pucks")
+        int liveBalls;
+    }
+
+    @Name("bricker.BrickDestroyed")
+    @Label("Brick Destroyed")
+    @Category({CATEGORY, "Strategies"})
+    static final class BrickDestroyedEvent extends Event {
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Brick Index")
+        int index;
+    }
+
+    @Name("bricker.PuckSpawned")
+    @Label("Puck Spawned")
+    @Category({CATEGORY, "Objects"})
+    static final class PuckSpawnedEvent extends Event {
+    }
+
+    @Name("bricker.PuckDespawned")
+    @Label("Puck Despawned")
+    @Category({CATEGORY, "Objects"})
+    static final class PuckDespawnedEvent extends Event {
+    }
+
+    @Name("bricker.TurboEnter")
+    @Label("Turbo Enter")
+    @Category({CATEGORY, "Ball"})
+    static final class TurboEnterEvent extends Event {
+    }
+
+    @Name("bricker.TurboExit")
+    @Label("Turbo Exit")
+    @Category({CATEGORY, "Ball"})
+    static final class TurboExitEvent extends Event {
+    }
+
+    @Name("bricker.HeartCollected")
+    @Label("Heart Collected")
+    @Category({CATEGORY, "Lives"})
+    static final class HeartCollectedEvent extends Event {
+    }
+
+    @Name("bricker.LifeLost")
+    @Label("Life Lost")
+    @Category({CATEGORY, "Lives"})
+    static final class LifeLostEvent extends Event {
+        @Label("Lives Left")
+        int livesLeft;
+    }
+
+    @Name("bricker.AssetLoad")
+    @Label("Asset Load")
+    @Category({CATEGORY, "Assets"})
+    static final class AssetLoadEvent extends Event {
+        @Label("Path")
+        String path;
+    }
+
+    @Name("bricker.GovernorTransition")
+    @Label("Frame Governor Transition")
+    @Category({CATEGORY, "Game Loop"})
+    static final class GovernorTransitionEvent extends Event {
+        @Label("From Level")
+        String from;
+
+        @Label("To Level")
+        String to;
+
+        @Label("Smoothed Frame Time (ms)")
+        double frameMillis;
+    }
+
+    @Name("bricker.InputLatency")
+    @Label("Input Latency")
+    @Category({CATEGORY, "Input"})
+    static final class InputLatencyEvent extends Event {
+        @Label("Latency")
+        @Description("Time from a key press until the paddle moved because of it")
+        @Timespan
+        long latency;
+    }
+
+    private GameEvents() {
+    }
+
+    /**
+     * Drops the events of a thread, so a game that is not the player's does not show up in
+     * the recording.
+     * @param thread the thread to mute, or null to record every thread
+     */
+    public static void mute(Thread thread) {
+        mutedThread = thread;
+    }
+
+    /**
+     * @return true if the events of the current thread are recorded
+     */
+    private static boolean isOn() {
+        return ENABLED && Thread.currentThread() != mutedThread;
+    }
+
+    /**
+     * Starts timing a frame.
+     * @return the frame event to pass to {@link #endFrame}, or null when events are off
+     */
+    public static FrameTickEvent beginFrame() {
+        if (!isOn()) return null;
+        FrameTickEvent event = new FrameTickEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a frame event, if a recording wants it. The live objects are only counted then.
+     * @param event the event returned by {@link #beginFrame}
+     * @param gameObjects the objects of the game, counted only when the event is recorded
+     * @param liveBalls the number of live balls
+     */
+    public static void endFrame(FrameTickEvent event, Iterable<?> gameObjects, int liveBalls) {
+        if (event == null) return;
+        event.end();
+        if (!event.shouldCommit()) return;
+        int count = 0;
+        for (Object ignored : gameObjects) {
+            count++;
+        }
+        event.liveObjects = count;
+        event.liveBalls = liveBalls;
+        event.commit();
+    }
+
+    /**
+     * @param strategy the strategy of the destroyed brick
+     * @param index the index of the brick in the grid
+     */
+    public static void brickDestroyed(Object strategy, int index) {
+        if (!isOn()) return;
+        BrickDestroyedEvent event = new BrickDestroyedEvent();
+        if (event.shouldCommit()) {
+            event.strategy = strategy.getClass().getSimpleName();
+            event.index = index;
+            event.commit();
+        }
+    }
+
+    /** A puck was added to the game. */
+    public static void puckSpawned() {
+        if (isOn()) {
+            new PuckSpawnedEvent().commit();
+        }
+    }
+
+    /** A puck was removed from the game. */
+    public static void puckDespawned() {
+        if (isOn()) {
+            new PuckDespawnedEvent().commit();
+        }
+    }
+
+    /** The main ball went into turbo mode. */
+    public static void turboEnter() {
+        if (isOn()) {
+            new TurboEnterEvent().commit();
+        }
+    }
+
+    /** The main ball went back to normal mode. */
+    public static void turboExit() {
+        if (isOn()) {
+            new TurboExitEvent().commit();
+        }
+    }
+
+    /** A falling heart was collected by the user paddle. */
+    public static void heartCollected() {
+        if (isOn()) {
+            new HeartCollectedEvent().commit();
+        }
+    }
+
+    /**
+     * @param livesLeft the lives the player has after losing one
+     */
+    public static void lifeLost(int livesLeft) {
+        if (!isOn()) return;
+        LifeLostEvent event = new LifeLostEvent();
+        event.livesLeft = livesLeft;
+        event.commit();
+    }
+
+    /**
+     * @param from the previous degradation level of the frame governor
+     * @param to the new degradation level
+     * @param frameMillis the smoothed frame time that caused the transition
+     */
+    public static void governorTransition(String from, String to, double frameMillis) {
+        if (!isOn()) return;
+        GovernorTransitionEvent event = new GovernorTransitionEvent();
+        event.from = from;
+        event.to = to;
+        event.frameMillis = frameMillis;
+        event.commit();
+    }
+
+    /**
+     * @param latencyNanos time from a key press until the paddle moved because of it
+     */
+    public static void inputLatency(long latencyNanos) {
+        if (!isOn()) return;
+        InputLatencyEvent event = new InputLatencyEvent();
+        event.latency = latencyNanos;
+        event.commit();
+    }
+
+    /**
+     * Reads an image, recording how long it took.
+     * @param imageReader the reader to read with
+     * @param path the path of the image
+     * @param useTopLeftPixelAsTransparent passed to the reader
+     * @return the image
+     */
+    public static Renderable loadImage(ImageReader imageReader, String path,
+                                       boolean useTopLeftPixelAsTransparent) {
+        AssetLoadEvent event = beginAssetLoad();
+        Renderable image = imageReader.readImage(path, useTopLeftPixelAsTransparent);
+        endAssetLoad(event, path);
+        return image;
+    }
+
+    /**
+     * Reads a sound, recording how long it took.
+     * @param soundReader the reader to read with
+     * @param path the path of the sound
+     * @return the sound
+     */
+    public static Sound loadSound(SoundReader soundReader, String path) {
+        AssetLoadEvent event = beginAssetLoad();
+        Sound sound = soundReader.readSound(path);
+        endAssetLoad(event, path);
+        return sound;
+    }
+
+    private static AssetLoadEvent beginAssetLoad() {
+        if (!isOn()) return null;
+        AssetLoadEvent event = new AssetLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    private static void endAssetLoad(AssetLoadEvent event, String path) {
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.commit();
+        }
+    }
+}
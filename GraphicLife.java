@@ -3,6 +3,7 @@ package bricker.gameobjects;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
@@ -63,6 +64,8 @@ public class GraphicLife extends GameObject {
             Vector2 heartPosition = position.add(new Vector2(i *
                     (SIZE_OF_HEART + DISTANCE_BETWEEN_HEARTS), 0));
             Heart heart = new Heart(heartPosition, heartRenderable);
+            // stays in the corner of the window when a camera moves over the board
+            heart.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
             hearts[i] = heart;
             if (i < initialLives) {
                 gameObjects.addGameObject(heart, Layer.UI);
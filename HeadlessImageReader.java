@@ -0,0 +1,38 @@
+package bricker.main;
+
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An image reader for games that run without a window, such as the sessions of a
+ * {@link SessionHost}. Nothing is read from disk, every path is answered with the same
+ * transparent one pixel image, so the game logic can run unchanged.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#initializeHeadless()
+ */
+class HeadlessImageReader extends ImageReader {
+    /** The image shared by every headless game object. */
+    private static final ImageRenderable BLANK_IMAGE =
+            new ImageRenderable(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+
+    /**
+     * constructs a headless image reader, which is not attached to any window
+     */
+    HeadlessImageReader() {
+        super(null);
+    }
+
+    /**
+     * @param imageFilePath ignored, nothing is read from disk
+     * @param useTopLeftPixelAsTransparent ignored
+     * @return a blank image
+     */
+    @Override
+    public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparent) {
+        return BLANK_IMAGE;
+    }
+}
@@ -0,0 +1,31 @@
+package bricker.main;
+
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+
+/**
+ * A sound reader for games that run without a window. No sound is loaded, and game objects
+ * treat the missing sound as silence.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#initializeHeadless()
+ */
+class HeadlessSoundReader extends SoundReader {
+
+    /**
+     * constructs a headless sound reader, which is not attached to any window
+     */
+    HeadlessSoundReader() {
+        super(null);
+    }
+
+    /**
+     * @param soundFilePath ignored, nothing is read from disk
+     * @return null, meaning silence
+     */
+    @Override
+    public Sound readSound(String soundFilePath) {
+        return null;
+    }
+}
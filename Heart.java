@@ -2,6 +2,11 @@ package bricker.gameobjects;
 
 import bricker.brick_strategies.ExtraLifeStrategy;
 import bricker.main.BrickerGameManager;
+import bricker.main.ParallelUpdatable;
+import bricker.main.ParallelUpdater;
+import bricker.main.Transient;
+import bricker.main.UpdateEffects;
+import bricker.profiling.GameEvents;
 import danogl.GameObject;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
@@ -15,7 +20,7 @@ import danogl.util.Vector2;
  * @see GraphicLife
  * @see ExtraLifeStrategy
  */
-public class Heart extends GameObject {
+public class Heart extends FixedPointObject implements ParallelUpdatable, Transient {
     private static final float FALL_SPEED = 100f;
 
 
@@ -64,7 +69,7 @@ public class Heart extends GameObject {
     /**
      * Method that is designed specifically for the ExtraLife strategy.
      * The heart will drop until it hits the paddle, adding a life to the player. And if not,
-     * will leave the window.
+     * will leave the window, and be removed by the off-screen sweep of the game.
      * @param deltaTime The time elapsed, in seconds, since the last frame. Can
      *                  be used to determine a new position/velocity by multiplying
      *                  this delta with the velocity/acceleration respectively
@@ -74,12 +79,30 @@ public class Heart extends GameObject {
      */
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
-        if(!isFalling) return;
-        float screenHeight = gameManager.getWindowDimensions().y();
-        if (getTopLeftCorner().y() > screenHeight) {
-            gameManager.removeGameObjectFromGame(this);
+        if(!isFalling){
+            super.update(deltaTime);
+            return;
         }
+        ParallelUpdater parallelUpdater = gameManager.getParallelUpdater();
+        if(parallelUpdater.isManaged(this)) return;
+        updateDynamic(deltaTime, parallelUpdater.immediateEffects());
+    }
+
+    /**
+     * Moves a falling heart. May run in the parallel update phase.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     * @param effects Unused, moving the heart has no effect on the rest of the game.
+     */
+    @Override
+    public void updateDynamic(float deltaTime, UpdateEffects effects) {
+        super.update(deltaTime);
+    }
+
+    /**
+     * Nothing to clean up once a falling heart that was missed is removed.
+     */
+    @Override
+    public void onDespawn() {
     }
 
     /**
@@ -106,6 +129,7 @@ public class Heart extends GameObject {
     public void onCollisionEnter(GameObject other, danogl.collisions.Collision collision) {
         if (!isFalling) return;
         if (shouldCollideWith(other)) {
+            GameEvents.heartCollected();
             gameManager.addLife();
             gameManager.removeGameObjectFromGame(this);
         }
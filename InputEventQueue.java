@@ -0,0 +1,247 @@
+package bricker.main;
+
+import bricker.profiling.GameEvents;
+
+import java.awt.KeyEventDispatcher;
+import java.awt.KeyboardFocusManager;
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries key presses and releases from the AWT event thread to the game thread, each with
+ * the System.nanoTime() at which it was dispatched, so the game can tell for how long a key
+ * was held during a frame instead of sampling it once per frame. A press and release that
+ * both happen between two frames are not lost.
+ * <p>
+ * The queue is a lock-free single-producer single-consumer ring buffer: the event thread
+ * only writes the tail and the game thread only writes the head, each published with an
+ * ordered store, so neither thread ever blocks or allocates. When the game falls so far
+ * behind that the ring is full, new events are dropped and counted.
+ * <p>
+ * The game thread can also ask whether a key is held, as of the events it drained, for keys
+ * it reads once per step instead of integrating.
+ * <p>
+ * The queue also keeps the input-to-motion latency: the time from a key press until the
+ * first frame in which the paddle moved because of it.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see bricker.gameobjects.Paddle#setInputQueue
+ */
+public class InputEventQueue {
+    /** System property that makes the paddle integrate timestamped input (on by default) */
+    public static final String TIMED_INPUT_PROPERTY = "bricker.timedInput";
+
+    /** Number of events the ring holds, a power of two */
+    private static final int CAPACITY = 1024;
+
+    /** Number of latency samples kept for percentiles */
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final double P99 = 0.99;
+
+    /**
+     * Receives the events drained from the queue, oldest first.
+     */
+    public interface Sink {
+        /**
+         * @param keyCode the key, as in {@link KeyEvent#getKeyCode()}
+         * @param pressed true for a press, false for a release
+         * @param nanos when the event was dispatched, from System.nanoTime()
+         */
+        void onKey(int keyCode, boolean pressed, long nanos);
+    }
+
+    /**
+     * private members
+     * keyCodes, pressed, nanos - the ring, one event per index
+     * head - index of the next event to drain, written by the game thread
+     * tail - index of the next event to write, written by the event thread
+     * dropped - events dropped because the ring was full
+     * keys - the keys that are queued, others are ignored
+     * held - whether each of the keys is down, as of the drained events, by index in keys
+     * dispatcher - the hook in the AWT focus manager, null when not installed
+     * latencies - the last latency samples, latencyCount - number of samples so far
+     * latencyMax, latencySum - over all samples
+     */
+    private final int[] keyCodes;
+    private final boolean[] pressed;
+    private final long[] nanos;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private final AtomicLong dropped;
+    private final int[] keys;
+    private final boolean[] held;
+    private KeyEventDispatcher dispatcher;
+    private final long[] latencies;
+    private long latencyCount;
+    private long latencyMax;
+    private long latencySum;
+
+    /**
+     * constructs an empty queue of the given keys, not yet connected to the keyboard
+     * @param keys the key codes to queue
+     */
+    public InputEventQueue(int... keys) {
+        this.keyCodes = new int[CAPACITY];
+        this.pressed = new boolean[CAPACITY];
+        this.nanos = new long[CAPACITY];
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.keys = keys.clone();
+        this.held = new boolean[keys.length];
+        this.latencies = new long[LATENCY_SAMPLES];
+    }
+
+    /**
+     * @return true if the paddle should integrate timestamped input, as set by
+     * {@value #TIMED_INPUT_PROPERTY}
+     */
+    public static boolean isTimedInputEnabled() {
+        return Boolean.parseBoolean(System.getProperty(TIMED_INPUT_PROPERTY, "true"));
+    }
+
+    /**
+     * Starts receiving key events of the whole application from the AWT focus manager. The
+     * events keep going to the window as before.
+     */
+    public void install() {
+        if (dispatcher != null) return;
+        dispatcher = event -> {
+            int id = event.getID();
+            if (id == KeyEvent.KEY_PRESSED || id == KeyEvent.KEY_RELEASED) {
+                offer(event.getKeyCode(), id == KeyEvent.KEY_PRESSED, System.nanoTime());
+            }
+            return false;
+        };
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(dispatcher);
+    }
+
+    /**
+     * Stops receiving key events.
+     */
+    public void uninstall() {
+        if (dispatcher == null) return;
+        KeyboardFocusManager.getCurrentKeyboardFocusManager()
+                .removeKeyEventDispatcher(dispatcher);
+        dispatcher = null;
+    }
+
+    /**
+     * Adds an event. Called by a single producer thread (the AWT event thread).
+     * @param keyCode the key
+     * @param isPress true for a press, false for a release
+     * @param timestamp when the event happened, from System.nanoTime()
+     * @return false if the key is not queued or the ring is full
+     */
+    public boolean offer(int keyCode, boolean isPress, long timestamp) {
+        if (!isQueued(keyCode)) return false;
+        long t = tail.get();
+        if (t - head.get() >= CAPACITY) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int index = (int) (t & (CAPACITY - 1));
+        keyCodes[index] = keyCode;
+        pressed[index] = isPress;
+        nanos[index] = timestamp;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Passes all the queued events to the sink, oldest first. Called by a single consumer
+     * thread (the game thread).
+     * @param sink receives the events
+     * @return the number of events drained
+     */
+    public int drain(Sink sink) {
+        long h = head.get();
+        long t = tail.get();
+        for (long i = h; i < t; i++) {
+            int index = (int) (i & (CAPACITY - 1));
+            int key = indexOfKey(keyCodes[index]);
+            if (key >= 0) held[key] = pressed[index];
+            sink.onKey(keyCodes[index], pressed[index], nanos[index]);
+        }
+        head.lazySet(t);
+        return (int) (t - h);
+    }
+
+    /**
+     * Tells whether a key is down, as of the events drained so far. Called on the game thread.
+     * @param keyCode the key
+     * @return true if the last drained event of the key was a press
+     */
+    public boolean isHeld(int keyCode) {
+        int key = indexOfKey(keyCode);
+        return key >= 0 && held[key];
+    }
+
+    /**
+     * @return the number of events dropped because the game did not drain the queue in time
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Records the time from a key press until the paddle moved because of it.
+     * Called on the game thread.
+     * @param latencyNanos the latency, in nanoseconds
+     */
+    public void recordLatency(long latencyNanos) {
+        latencies[(int) (latencyCount % LATENCY_SAMPLES)] = latencyNanos;
+        latencyCount++;
+        latencySum += latencyNanos;
+        latencyMax = Math.max(latencyMax, latencyNanos);
+        GameEvents.inputLatency(latencyNanos);
+    }
+
+    /**
+     * @return the number of latency samples recorded
+     */
+    public long getLatencyCount() {
+        return latencyCount;
+    }
+
+    /**
+     * @return the mean input-to-motion latency, in milliseconds
+     */
+    public double getMeanLatencyMillis() {
+        return latencyCount == 0 ? 0 : latencySum / (double) latencyCount / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return the highest input-to-motion latency, in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return latencyMax / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return the 99th percentile of the recent input-to-motion latencies, in milliseconds
+     */
+    public double getP99LatencyMillis() {
+        int samples = (int) Math.min(latencyCount, LATENCY_SAMPLES);
+        if (samples == 0) return 0;
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(P99 * samples) - 1] / NANOS_PER_MILLI;
+    }
+
+    private boolean isQueued(int keyCode) {
+        return indexOfKey(keyCode) >= 0;
+    }
+
+    private int indexOfKey(int keyCode) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == keyCode) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,200 @@
+package bricker.gameobjects;
+
+import danogl.util.Vector2;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Predicts where the balls of the game will cross the AI paddle's line, so an AIPaddle in
+ * intercept mode can move to the landing spot instead of mirroring the user paddle.
+ * A ball's landing x is computed once, by folding its straight path between the side walls,
+ * and is only recomputed when the ball reports a velocity change (which happens on collisions).
+ * Plans are kept in a queue ordered by arrival time, so finding the most urgent ball is a peek,
+ * no matter how many pucks are alive.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see AIPaddle
+ * @see Ball
+ */
+public class InterceptPlanner {
+    /** Marks that no interception line was set yet. */
+    private static final float NO_LINE = Float.NaN;
+
+    /** Used to divide the ball dimensions by 2. */
+    private static final float HALF = 0.5f;
+
+    /** The queue is rebuilt from the latest plans once it holds this many times their number. */
+    private static final int STALE_FACTOR = 2;
+
+    /** Smallest queue that is ever rebuilt, so a few balls do not rebuild it every bounce. */
+    private static final int MIN_REBUILD_SIZE = 32;
+
+    /**
+     * A single prediction of a ball crossing the interception line.
+     * A plan is stale once its ball was re-planned or stopped being tracked.
+     */
+    private static final class Plan implements Comparable<Plan> {
+        private final Ball ball;
+        private final double arrivalTime;
+        private final float landingX;
+
+        private Plan(Ball ball, double arrivalTime, float landingX) {
+            this.ball = ball;
+            this.arrivalTime = arrivalTime;
+            this.landingX = landingX;
+        }
+
+        @Override
+        public int compareTo(Plan other) {
+            return Double.compare(arrivalTime, other.arrivalTime);
+        }
+    }
+
+    /**
+     * private members
+     * leftBound, rightBound - the inner sides of the left and right walls
+     * lineY - the height the balls are intercepted at (top of the AI paddle)
+     * currentTime - game time in seconds, advanced every frame
+     * plans - the latest plan of every tracked ball
+     * byArrival - the plans ordered by arrival time, stale and expired ones are dropped lazily
+     */
+    private final float leftBound;
+    private final float rightBound;
+    private float lineY;
+    private double currentTime;
+    private final Map<Ball, Plan> plans;
+    private final PriorityQueue<Plan> byArrival;
+
+    /**
+     * constructs a planner for a board enclosed between two side walls
+     * @param leftBound  x of the inner side of the left wall
+     * @param rightBound x of the inner side of the right wall
+     */
+    public InterceptPlanner(float leftBound, float rightBound) {
+        this.leftBound = leftBound;
+        this.rightBound = rightBound;
+        this.lineY = NO_LINE;
+        this.currentTime = 0;
+        this.plans = new HashMap<>();
+        this.byArrival = new PriorityQueue<>();
+    }
+
+    /**
+     * Sets the height at which balls should be intercepted. Changing the line re-plans every
+     * tracked ball once, setting the same line again does nothing.
+     * @param lineY the y coordinate of the top of the intercepting paddle
+     */
+    public void setInterceptLine(float lineY) {
+        if (lineY == this.lineY) return;
+        this.lineY = lineY;
+        byArrival.clear();
+        for (Ball ball : plans.keySet().toArray(new Ball[0])) {
+            track(ball);
+        }
+    }
+
+    /**
+     * Advances the planner's clock. Called once per frame by the game manager.
+     * @param deltaTime time since the last frame, in seconds
+     */
+    public void advance(float deltaTime) {
+        currentTime += deltaTime;
+    }
+
+    /**
+     * Computes a new plan for the given ball, replacing its previous one. The previous plan
+     * stays in the queue as a stale plan, until it reaches the head or the queue is rebuilt
+     * because it holds too many stale plans, so even when nothing asks for the most urgent
+     * ball the queue stays within a constant factor of the number of balls.
+     * Should be called whenever the ball's velocity or position changes abruptly.
+     * @param ball the ball to plan for
+     */
+    public void track(Ball ball) {
+        Plan plan = computePlan(ball);
+        plans.put(ball, plan);
+        if (plan != null) {
+            byArrival.add(plan);
+            if (byArrival.size() > Math.max(MIN_REBUILD_SIZE, STALE_FACTOR * plans.size())) {
+                rebuild();
+            }
+        }
+    }
+
+    /**
+     * Stops tracking a ball, for example when a puck leaves the screen. Its plan becomes stale.
+     * @param ball the ball to forget
+     */
+    public void untrack(Ball ball) {
+        plans.remove(ball);
+    }
+
+    /**
+     * Returns the landing x of the ball that will cross the interception line first.
+     * Stale and expired plans are discarded on the way, each plan is discarded at most once.
+     * A second call in the same frame only reads the queue, which is what lets AI paddles call
+     * it from the parallel update phase once the game manager called it at the frame start.
+     * @return the x coordinate to move to, or {@code Float.NaN} if no ball is approaching
+     */
+    public float mostUrgentLandingX() {
+        Plan head = byArrival.peek();
+        while (head != null &&
+                (plans.get(head.ball) != head || head.arrivalTime < currentTime)) {
+            byArrival.poll();
+            head = byArrival.peek();
+        }
+        return head == null ? Float.NaN : head.landingX;
+    }
+
+    /**
+     * Refills the queue with only the latest plans. Runs once for every as many stale plans
+     * as there are balls, so it adds a constant cost to each re-plan on average.
+     */
+    private void rebuild() {
+        byArrival.clear();
+        for (Plan plan : plans.values()) {
+            if (plan != null) {
+                byArrival.add(plan);
+            }
+        }
+    }
+
+    /**
+     * Predicts where the ball crosses the interception line, reflecting its path off the walls.
+     * @param ball the ball to predict
+     * @return the plan, or null if the ball is not moving down towards the line
+     */
+    private Plan computePlan(Ball ball) {
+        if (Float.isNaN(lineY)) return null;
+        Vector2 center = ball.getCenter();
+        Vector2 velocity = ball.getVelocity();
+        float halfWidth = ball.getDimensions().x() * HALF;
+        float targetY = lineY - ball.getDimensions().y() * HALF;
+        if (velocity.y() <= 0 || center.y() > targetY) return null;
+
+        float time = (targetY - center.y()) / velocity.y();
+        float rawX = center.x() + velocity.x() * time;
+        return new Plan(ball, currentTime + time,
+                foldIntoBounds(rawX, leftBound + halfWidth, rightBound - halfWidth));
+    }
+
+    /**
+     * Maps an unbounded x onto the segment [low, high], as if the ball bounced off both ends.
+     * @param x    the x the ball would reach without walls
+     * @param low  the lowest x the ball's center can reach
+     * @param high the highest x the ball's center can reach
+     * @return the x the ball actually reaches
+     */
+    private static float foldIntoBounds(float x, float low, float high) {
+        float span = high - low;
+        if (span <= 0) return low;
+        float period = 2 * span;
+        float offset = (x - low) % period;
+        if (offset < 0) {
+            offset += period;
+        }
+        return offset <= span ? low + offset : low + period - offset;
+    }
+}
@@ -0,0 +1,136 @@
+package bricker.main;
+
+import bricker.brick_strategies.StrategyFactory;
+import bricker.profiling.CollisionLog;
+import bricker.profiling.GameEvents;
+import danogl.util.Vector2;
+
+/**
+ * Warms up the game before its first visible frame. A headless game is simulated on a
+ * background thread while the window opens, so the JIT compiles the updates, the collision
+ * paths and the strategy callbacks before the player sees them, and the classes of every
+ * strategy are loaded up front instead of when a brick of their kind is first hit.
+ * <p>
+ * The warm-up is started by the main method, and the first game waits for it, up to
+ * {@value #MAX_WAIT_MILLIS} ms, before it is initialized; a warm-up that is still running
+ * then is cancelled, so it does not compete with the game. The warm-up game is left out of
+ * the collision log and of the flight recording. How long the frames take to settle
+ * afterwards is reported by {@link bricker.profiling.FrameStability}.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#main
+ */
+public final class JitWarmup {
+    /** System property that turns the warm-up on or off (on by default) */
+    public static final String ENABLED_PROPERTY = "bricker.warmup";
+
+    /** System property of the number of frames the warm-up simulates */
+    public static final String FRAMES_PROPERTY = "bricker.warmupFrames";
+
+    /** Frames simulated when {@value #FRAMES_PROPERTY} is unset or invalid */
+    private static final int DEFAULT_FRAMES = 6000;
+
+    /** Longest time the first game waits for the warm-up */
+    private static final long MAX_WAIT_MILLIS = 1500;
+
+    /** Time step of the simulated frames, in seconds */
+    private static final float FRAME_TIME = 1 / 60f;
+
+    /** Size of the board of the warm-up game, the default board of the game */
+    private static final Vector2 BOARD_DIMENSIONS = new Vector2(700, 500);
+
+    /** Number of bricks in each row of the warm-up game */
+    private static final int BRICKS_PER_ROW = 8;
+
+    /** Number of rows of bricks of the warm-up game */
+    private static final int ROWS = 7;
+
+    /** Nanoseconds in a millisecond, for the reports */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * private members
+     * thread - the thread of the warm-up, null until it is started
+     * framesDone - frames simulated so far
+     * elapsedNanos - how long the warm-up took, once it ended
+     * cancelled - set to stop the warm-up before its last frame
+     */
+    private static Thread thread;
+    private static volatile int framesDone;
+    private static volatile long elapsedNanos;
+    private static volatile boolean cancelled;
+
+    private JitWarmup() {
+    }
+
+    /**
+     * Starts the warm-up on a background thread, unless {@value #ENABLED_PROPERTY} is false or
+     * it was already started.
+     */
+    public static synchronized void start() {
+        if (thread != null || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY,
+                "true"))) {
+            return;
+        }
+        int frames = Integer.getInteger(FRAMES_PROPERTY, DEFAULT_FRAMES);
+        thread = new Thread(() -> run(frames > 0 ? frames : DEFAULT_FRAMES), "bricker-warmup");
+        thread.setDaemon(true);
+        // the window opens at the same time, on the other cores
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Waits for the warm-up to end, up to {@value #MAX_WAIT_MILLIS} ms, and cancels it if it
+     * is still running then. Returns right away if the warm-up was not started.
+     */
+    public static void await() {
+        Thread warmup;
+        synchronized (JitWarmup.class) {
+            warmup = thread;
+        }
+        if (warmup == null) return;
+        try {
+            warmup.join(MAX_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (warmup.isAlive()) {
+            // the frame in progress is the last one
+            cancelled = true;
+        }
+    }
+
+    /**
+     * @return a short description of the warm-up for the reports, such as
+     * "6000 frames in 850 ms", "2400 frames, cancelled", or "off"
+     */
+    public static String describe() {
+        if (thread == null) return "off";
+        if (elapsedNanos == 0) return framesDone + " frames, unfinished";
+        if (cancelled) return framesDone + " frames, cancelled";
+        return framesDone + " frames in " + elapsedNanos / NANOS_PER_MILLI + " ms";
+    }
+
+    private static void run(int frames) {
+        long start = System.nanoTime();
+        Thread current = Thread.currentThread();
+        CollisionLog.mute(current);
+        GameEvents.mute(current);
+        try {
+            StrategyFactory.preloadClasses();
+            BrickerGameManager gameManager = new BrickerGameManager(BrickerGameManager.BRICKER,
+                    BOARD_DIMENSIONS, BRICKS_PER_ROW, ROWS);
+            gameManager.initializeHeadless();
+            for (int frame = 0; frame < frames && !cancelled; frame++) {
+                gameManager.update(FRAME_TIME);
+                framesDone = frame + 1;
+            }
+        } finally {
+            CollisionLog.mute(null);
+            GameEvents.mute(null);
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,503 @@
+package bricker.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the results of all the games played on this machine, across restarts, and answers
+ * which are the best, overall and for every board size.
+ * <p>
+ * Every result is appended to a log file of fixed-size records, which is never rewritten, so
+ * it can hold millions of results and a crash loses at most the record being written. Only
+ * the best {@value #TOP_K} results overall and of every board size are kept in memory, in
+ * arrays sorted by score, so queries and new results cost microseconds whatever the size of
+ * the log. A compact index file next to the log saves these tables together with the number
+ * of records they cover; on start-up, the index is loaded and only the records appended after
+ * it are read from the log. Without a valid index, the whole log is read once.
+ * <p>
+ * Results are ranked on the calling thread, while the log and the index are written on a
+ * background thread, so the game thread never waits for the disk.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ScoreKeeper
+ */
+public class Leaderboard {
+    /** System property of the path of the log; the index is next to it */
+    public static final String PATH_PROPERTY = "bricker.leaderboard";
+
+    /** Path of the log when none is set */
+    private static final String DEFAULT_PATH = "bricker-scores.log";
+
+    /** Suffix of the index file, appended to the path of the log */
+    private static final String INDEX_SUFFIX = ".idx";
+
+    /** Results kept in every table */
+    public static final int TOP_K = 100;
+
+    /** First bytes of the log and of the index */
+    private static final int LOG_MAGIC = 0x42534C47;
+    private static final int INDEX_MAGIC = 0x42534958;
+
+    /** Bytes before the first record of the log: magic and version */
+    private static final int LOG_HEADER_BYTES = 8;
+
+    private static final int VERSION = 1;
+
+    /** Bytes of a record: time, score, bricks destroyed, board size, won, reserved */
+    private static final int RECORD_BYTES = 24;
+
+    /** Records appended between two writes of the index */
+    private static final int INDEX_INTERVAL = 1000;
+
+    /** Records read from the log at once when it is scanned */
+    private static final int SCAN_BATCH = 4096;
+
+    /** Seconds to wait for pending writes when the leaderboard is closed */
+    private static final int CLOSE_TIMEOUT_SECONDS = 5;
+
+    private static final int SHORT_BITS = 16;
+    private static final int SHORT_MASK = 0xFFFF;
+
+    /**
+     * The result of a game.
+     */
+    public static final class Entry {
+        private final long record;
+        private final long timeMillis;
+        private final int score;
+        private final int bricksDestroyed;
+        private final int bricksPerRow;
+        private final int rows;
+        private final boolean won;
+
+        private Entry(long record, long timeMillis, int score, int bricksDestroyed,
+                      int bricksPerRow, int rows, boolean won) {
+            this.record = record;
+            this.timeMillis = timeMillis;
+            this.score = score;
+            this.bricksDestroyed = bricksDestroyed;
+            this.bricksPerRow = bricksPerRow;
+            this.rows = rows;
+            this.won = won;
+        }
+
+        /** @return the score of the game */
+        public int getScore() {
+            return score;
+        }
+
+        /** @return the number of bricks destroyed in the game */
+        public int getBricksDestroyed() {
+            return bricksDestroyed;
+        }
+
+        /** @return the number of bricks in each row of the board */
+        public int getBricksPerRow() {
+            return bricksPerRow;
+        }
+
+        /** @return the number of rows of the board */
+        public int getRows() {
+            return rows;
+        }
+
+        /** @return true if the game was won */
+        public boolean isWon() {
+            return won;
+        }
+
+        /** @return when the game ended, in milliseconds since the epoch */
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        /**
+         * Higher scores first; among equal scores, the earlier result first.
+         */
+        private boolean before(Entry other) {
+            return score != other.score ? score > other.score : record < other.record;
+        }
+    }
+
+    /**
+     * The best results of a board size, or of all of them, sorted best first.
+     */
+    private static final class TopScores {
+        private final Entry[] entries = new Entry[TOP_K];
+        private int size;
+
+        /**
+         * @return the rank, from 1, the entry got, or 0 if it is not among the best
+         */
+        private int offer(Entry entry) {
+            int position = rankOf(entry);
+            if (position >= TOP_K) return 0;
+            int moved = Math.min(size, TOP_K - 1) - position;
+            System.arraycopy(entries, position, entries, position + 1, moved);
+            entries[position] = entry;
+            size = Math.min(TOP_K, size + 1);
+            return position + 1;
+        }
+
+        /**
+         * @return the number of entries that come before the given one, by binary search
+         */
+        private int rankOf(Entry entry) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (entries[middle].before(entry)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private List<Entry> top(int limit) {
+            return new ArrayList<>(Arrays.asList(entries).subList(0, Math.min(limit, size)));
+        }
+    }
+
+    /**
+     * private members
+     * logPath, indexPath - the files of the store
+     * overall - the best results of all board sizes
+     * byBoard - the best results of every board size, by board key
+     * records - number of results, including those not written yet
+     * indexedRecords - number of results the last written index covers
+     * writer - the thread that writes the files
+     * log - the log file, used only by the writer
+     */
+    private final Path logPath;
+    private final Path indexPath;
+    private final TopScores overall;
+    private final Map<Integer, TopScores> byBoard;
+    private long records;
+    private long indexedRecords;
+    private final ExecutorService writer;
+    private FileChannel log;
+
+    /**
+     * Opens the store at the path set by {@value #PATH_PROPERTY}, creating it if needed. A
+     * store that cannot be read or written is reported, and the game is played without one.
+     * @return the leaderboard, or null when it could not be opened
+     */
+    public static Leaderboard openDefault() {
+        Path path = Paths.get(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+        try {
+            return new Leaderboard(path);
+        } catch (UncheckedIOException e) {
+            System.err.println("warning: playing without a leaderboard, cannot open " + path +
+                    ": " + e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Opens a store, creating it if needed, and loads its best results.
+     * @param logPath path of the log; the index is next to it
+     */
+    public Leaderboard(Path logPath) {
+        this.logPath = logPath;
+        this.indexPath = Paths.get(logPath + INDEX_SUFFIX);
+        this.overall = new TopScores();
+        this.byBoard = new HashMap<>();
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bricker-leaderboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long logRecords = openLog();
+            if (!loadIndex(logRecords)) {
+                overall.size = 0;
+                byBoard.clear();
+                indexedRecords = 0;
+            }
+            scan(indexedRecords, logRecords);
+            records = logRecords;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records the result of a game. The result is ranked right away, and written to the disk
+     * in the background.
+     * @param score           the score of the game
+     * @param bricksDestroyed the number of bricks destroyed in the game
+     * @param bricksPerRow    the number of bricks in each row of the board
+     * @param rows            the number of rows of the board
+     * @param won             true if the game was won
+     * @return the rank of the result among the results of the same board size, from 1, or 0
+     * if it is not among the best {@value #TOP_K}
+     */
+    public synchronized int submit(int score, int bricksDestroyed, int bricksPerRow, int rows,
+                                   boolean won) {
+        Entry entry = new Entry(records++, System.currentTimeMillis(), score, bricksDestroyed,
+                bricksPerRow, rows, won);
+        overall.offer(entry);
+        int rank = byBoard.computeIfAbsent(boardKey(bricksPerRow, rows),
+                key -> new TopScores()).offer(entry);
+        ByteBuffer record = encode(entry);
+        boolean writeIndex = records - indexedRecords >= INDEX_INTERVAL;
+        writer.execute(() -> append(record));
+        if (writeIndex) {
+            scheduleIndex();
+        }
+        return rank;
+    }
+
+    /**
+     * @param limit the most results to return
+     * @return the best results of all board sizes, best first
+     */
+    public synchronized List<Entry> top(int limit) {
+        return overall.top(limit);
+    }
+
+    /**
+     * @param bricksPerRow the number of bricks in each row of the board
+     * @param rows         the number of rows of the board
+     * @param limit        the most results to return
+     * @return the best results of the board size, best first
+     */
+    public synchronized List<Entry> top(int bricksPerRow, int rows, int limit) {
+        TopScores scores = byBoard.get(boardKey(bricksPerRow, rows));
+        return scores == null ? new ArrayList<>() : scores.top(limit);
+    }
+
+    /**
+     * @return the number of results in the store
+     */
+    public synchronized long size() {
+        return records;
+    }
+
+    /**
+     * Writes the pending results and the index, and closes the files.
+     */
+    public void close() {
+        scheduleIndex();
+        writer.execute(() -> {
+            try {
+                log.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.shutdown();
+        try {
+            writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int boardKey(int bricksPerRow, int rows) {
+        return (bricksPerRow & SHORT_MASK) << SHORT_BITS | (rows & SHORT_MASK);
+    }
+
+    /**
+     * Writes the header of a new log, or drops a partly written last record.
+     * @return the number of whole records in the log
+     */
+    private long openLog() throws IOException {
+        if (log.size() < LOG_HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+            header.putInt(LOG_MAGIC).putInt(VERSION).flip();
+            log.truncate(0);
+            log.write(header, 0);
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+        log.read(header, 0);
+        header.flip();
+        if (header.getInt() != LOG_MAGIC || header.getInt() != VERSION) {
+            throw new IOException("not a leaderboard log: " + logPath);
+        }
+        long logRecords = (log.size() - LOG_HEADER_BYTES) / RECORD_BYTES;
+        log.truncate(LOG_HEADER_BYTES + logRecords * RECORD_BYTES);
+        return logRecords;
+    }
+
+    /**
+     * Loads the tables of the index, if it is valid for the log.
+     * @return false if there is no valid index
+     */
+    private boolean loadIndex(long logRecords) {
+        if (!Files.exists(indexPath)) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(indexPath)))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != VERSION) return false;
+            long covered = in.readLong();
+            // a log that lost its last records no longer matches the index
+            if (covered > logRecords) return false;
+            readTable(in, overall);
+            int boards = in.readInt();
+            for (int i = 0; i < boards; i++) {
+                TopScores scores = new TopScores();
+                byBoard.put(in.readInt(), scores);
+                readTable(in, scores);
+            }
+            indexedRecords = covered;
+            return true;
+        } catch (EOFException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readTable(DataInputStream in, TopScores scores) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            scores.entries[i] = new Entry(in.readLong(), in.readLong(), in.readInt(),
+                    in.readInt(), in.readShort() & SHORT_MASK, in.readShort() & SHORT_MASK,
+                    in.readBoolean());
+        }
+        scores.size = size;
+    }
+
+    /**
+     * Ranks the records of the log from the given one on.
+     */
+    private void scan(long from, long to) throws IOException {
+        ByteBuffer batch = ByteBuffer.allocate(SCAN_BATCH * RECORD_BYTES);
+        long record = from;
+        while (record < to) {
+            batch.clear();
+            int count = (int) Math.min(SCAN_BATCH, to - record);
+            batch.limit(count * RECORD_BYTES);
+            long position = LOG_HEADER_BYTES + record * RECORD_BYTES;
+            while (batch.hasRemaining()) {
+                if (log.read(batch, position + batch.position()) < 0) {
+                    throw new EOFException(logPath.toString());
+                }
+            }
+            batch.flip();
+            for (int i = 0; i < count; i++) {
+                Entry entry = decode(record + i, batch);
+                overall.offer(entry);
+                byBoard.computeIfAbsent(boardKey(entry.bricksPerRow, entry.rows),
+                        key -> new TopScores()).offer(entry);
+            }
+            record += count;
+        }
+    }
+
+    private static ByteBuffer encode(Entry entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        buffer.putLong(entry.timeMillis).putInt(entry.score).putInt(entry.bricksDestroyed)
+                .putShort((short) entry.bricksPerRow).putShort((short) entry.rows)
+                .put((byte) (entry.won ? 1 : 0));
+        buffer.position(RECORD_BYTES).flip();
+        return buffer;
+    }
+
+    private static Entry decode(long record, ByteBuffer buffer) {
+        int start = buffer.position();
+        Entry entry = new Entry(record, buffer.getLong(), buffer.getInt(), buffer.getInt(),
+                buffer.getShort() & SHORT_MASK, buffer.getShort() & SHORT_MASK,
+                buffer.get() != 0);
+        buffer.position(start + RECORD_BYTES);
+        return entry;
+    }
+
+    /**
+     * Appends a record at the end of the log. Runs on the writer thread.
+     */
+    private void append(ByteBuffer record) {
+        try {
+            long position = log.size();
+            while (record.hasRemaining()) {
+                position += log.write(record, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies the tables, and writes them as the index once the records they cover are in the
+     * log.
+     */
+    private synchronized void scheduleIndex() {
+        long covered = records;
+        indexedRecords = covered;
+        List<Entry> overallCopy = overall.top(TOP_K);
+        Map<Integer, List<Entry>> boardsCopy = new HashMap<>();
+        for (Map.Entry<Integer, TopScores> board : byBoard.entrySet()) {
+            boardsCopy.put(board.getKey(), board.getValue().top(TOP_K));
+        }
+        writer.execute(() -> writeIndex(covered, overallCopy, boardsCopy));
+    }
+
+    /**
+     * Writes the index to a temporary file and moves it over the previous one, so a crash
+     * leaves either index whole. Runs on the writer thread, after the records it covers.
+     */
+    private void writeIndex(long covered, List<Entry> overallCopy,
+                            Map<Integer, List<Entry>> boardsCopy) {
+        Path temporary = Paths.get(indexPath + ".tmp");
+        try {
+            log.force(false);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary)))) {
+                out.writeInt(INDEX_MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(covered);
+                writeTable(out, overallCopy);
+                out.writeInt(boardsCopy.size());
+                for (Map.Entry<Integer, List<Entry>> board : boardsCopy.entrySet()) {
+                    out.writeInt(board.getKey());
+                    writeTable(out, board.getValue());
+                }
+            }
+            Files.move(temporary, indexPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeTable(DataOutputStream out, List<Entry> entries)
+            throws IOException {
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+            out.writeLong(entry.record);
+            out.writeLong(entry.timeMillis);
+            out.writeInt(entry.score);
+            out.writeInt(entry.bricksDestroyed);
+            out.writeShort(entry.bricksPerRow);
+            out.writeShort(entry.rows);
+            out.writeBoolean(entry.won);
+        }
+    }
+}
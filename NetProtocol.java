@@ -0,0 +1,113 @@
+package bricker.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The binary protocol of the networked two player mode.
+ * Every message starts with a 3 byte header: the payload length (short) and the message type
+ * (byte). All messages are written into and read from preallocated direct buffers, so no
+ * objects are allocated per message.
+ * <pre>
+ * HELLO  host to client, on every game (re)start:
+ *        float width, float height, short bricksPerRow, short rows
+ * STATE  host to client, every frame:
+ *        int frame, long hostNanos, byte lives, float userPaddleX, float remotePaddleX,
+ *        short removedCount, int[removedCount] removed brick indices,
+ *        short ballCount, ballCount * (float x, float y, float vx, float vy)
+ *        (the first ball is the main ball, the others are pucks)
+ * INPUT  client to host, every frame:
+ *        int ackFrame, long echoedHostNanos, byte direction
+ * </pre>
+ * Removed brick indices are deltas: a brick is only sent once, in the first state message
+ * written after it was removed.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see NetworkHost
+ * @see NetworkClient
+ */
+final class NetProtocol {
+    /** Port used when none is given on the command line */
+    static final int DEFAULT_PORT = 47800;
+
+    /** Capacity of every send and receive buffer */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Size of the header of every message: payload length and type */
+    static final int HEADER_SIZE = Short.BYTES + Byte.BYTES;
+
+    /** Message types */
+    static final byte HELLO = 1;
+    static final byte STATE = 2;
+    static final byte INPUT = 3;
+
+    /** Size of the fixed part of a state message, before the removed bricks */
+    static final int STATE_FIXED_SIZE = Integer.BYTES + Long.BYTES + Byte.BYTES +
+            2 * Float.BYTES + Short.BYTES;
+
+    /** Size of a single brick index in a state message */
+    static final int BRICK_SIZE = Integer.BYTES;
+
+    /** Size of a single ball in a state message */
+    static final int BALL_SIZE = 4 * Float.BYTES;
+
+    /** Size of the payload of an input message */
+    static final int INPUT_SIZE = Integer.BYTES + Long.BYTES + Byte.BYTES;
+
+    /** Sent as the remote paddle x when there is no remote paddle */
+    static final float NO_PADDLE = Float.NaN;
+
+    private NetProtocol() {
+    }
+
+    /**
+     * Writes a message header, leaving room to fill in the payload length later.
+     * @param buffer the buffer being filled
+     * @param type the message type
+     * @return the position of the length field, to pass to {@link #endMessage}
+     */
+    static int beginMessage(ByteBuffer buffer, byte type) {
+        int start = buffer.position();
+        buffer.putShort((short) 0);
+        buffer.put(type);
+        return start;
+    }
+
+    /**
+     * Fills in the payload length of a message that was started with {@link #beginMessage}.
+     * @param buffer the buffer being filled
+     * @param start the position returned by beginMessage
+     */
+    static void endMessage(ByteBuffer buffer, int start) {
+        buffer.putShort(start, (short) (buffer.position() - start - HEADER_SIZE));
+    }
+
+    /**
+     * Writes as much of the buffer as the channel accepts without blocking.
+     * @param channel the channel to write to
+     * @param buffer a buffer in read mode (flipped)
+     * @return number of bytes written
+     * @throws IOException if the connection failed
+     */
+    static int flush(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            int count = channel.write(buffer);
+            if (count == 0) break;
+            written += count;
+        }
+        return written;
+    }
+
+    /**
+     * @param buffer a buffer in read mode, positioned at the start of a message
+     * @return true if a whole message (header and payload) is available
+     */
+    static boolean hasWholeMessage(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_SIZE) return false;
+        int length = Short.toUnsignedInt(buffer.getShort(buffer.position()));
+        return buffer.remaining() >= HEADER_SIZE + length;
+    }
+}
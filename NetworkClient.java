@@ -0,0 +1,166 @@
+package bricker.network;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * The client side connection of the networked two player mode. It is polled once per frame
+ * by the {@link BrickerClientGameManager}: complete messages from the host are decoded
+ * straight out of a preallocated direct buffer into the mirrored game, and the player's input
+ * is sent back the same way. The channel is non-blocking, so a slow network never stalls the
+ * client's frame.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see NetProtocol
+ * @see NetworkHost
+ */
+class NetworkClient {
+    /** Number of state messages between two statistics reports */
+    private static final int REPORT_STATES = 300;
+
+    /**
+     * private members
+     * channel - the connection to the host
+     * in, out - preallocated direct buffers, out is kept in read mode between frames
+     * lastFrame, lastHostNanos - taken from the newest state, echoed back to the host
+     * bytesReceived, statesReceived - statistics since the last report
+     */
+    private final SocketChannel channel;
+    private final ByteBuffer in;
+    private final ByteBuffer out;
+    private boolean connected;
+    private int lastFrame;
+    private long lastHostNanos;
+    private long bytesReceived;
+    private int statesReceived;
+
+    /**
+     * Starts connecting to the host, the connection completes during the next polls.
+     *
+     * @param address the host to connect to
+     */
+    NetworkClient(InetSocketAddress address) {
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            connected = channel.connect(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        in = ByteBuffer.allocateDirect(NetProtocol.BUFFER_SIZE);
+        out = ByteBuffer.allocateDirect(NetProtocol.BUFFER_SIZE);
+        out.flip();
+    }
+
+    /**
+     * Reads everything that arrived from the host and applies all the complete messages.
+     *
+     * @param game the mirrored game that the messages are applied to
+     * @throws IOException if the host disconnected
+     */
+    void poll(BrickerClientGameManager game) throws IOException {
+        if (!connected) {
+            connected = channel.finishConnect();
+            if (!connected) return;
+        }
+        int read = channel.read(in);
+        if (read < 0) {
+            throw new IOException("host disconnected");
+        }
+        bytesReceived += read;
+        in.flip();
+        while (NetProtocol.hasWholeMessage(in)) {
+            int length = Short.toUnsignedInt(in.getShort());
+            byte type = in.get();
+            int end = in.position() + length;
+            if (type == NetProtocol.HELLO) {
+                readHello(game);
+            } else if (type == NetProtocol.STATE) {
+                readState(game);
+            }
+            in.position(end);
+        }
+        in.compact();
+    }
+
+    /**
+     * Sends the direction the player is pressing, with an echo of the newest state's
+     * timestamp so the host can measure the round trip.
+     *
+     * @param direction -1 for left, 1 for right, 0 for none
+     * @throws IOException if the host disconnected
+     */
+    void sendInput(int direction) throws IOException {
+        if (!connected) return;
+        if (out.hasRemaining()) {
+            NetProtocol.flush(channel, out);
+            if (out.hasRemaining()) return;
+        }
+        out.clear();
+        int start = NetProtocol.beginMessage(out, NetProtocol.INPUT);
+        out.putInt(lastFrame);
+        out.putLong(lastHostNanos);
+        out.put((byte) direction);
+        NetProtocol.endMessage(out, start);
+        out.flip();
+        NetProtocol.flush(channel, out);
+    }
+
+    /**
+     * Closes the connection.
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // nothing left to do with a broken connection
+        }
+    }
+
+    /**
+     * @param game the mirrored game, rebuilt for the announced board
+     */
+    private void readHello(BrickerClientGameManager game) {
+        float width = in.getFloat();
+        float height = in.getFloat();
+        int bricksPerRow = in.getShort();
+        int rows = in.getShort();
+        game.rebuildBoard(width, height, bricksPerRow, rows);
+    }
+
+    /**
+     * @param game the mirrored game, updated to the state of the host's frame
+     */
+    private void readState(BrickerClientGameManager game) {
+        lastFrame = in.getInt();
+        lastHostNanos = in.getLong();
+        int lives = in.get();
+        float userPaddleX = in.getFloat();
+        float remotePaddleX = in.getFloat();
+        game.applyPlayers(lives, userPaddleX, remotePaddleX);
+
+        int removedCount = Short.toUnsignedInt(in.getShort());
+        for (int i = 0; i < removedCount; i++) {
+            game.removeBrick(in.getInt());
+        }
+        int ballCount = Short.toUnsignedInt(in.getShort());
+        for (int i = 0; i < ballCount; i++) {
+            game.applyBall(i, in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat());
+        }
+        game.trimBalls(ballCount);
+
+        statesReceived++;
+        if (statesReceived == REPORT_STATES) {
+            System.out.printf("client: %.1f bytes/frame%n",
+                    (double) bytesReceived / statesReceived);
+            bytesReceived = 0;
+            statesReceived = 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package bricker.network;
+
+import bricker.main.BrickerGameManager;
+import danogl.util.Vector2;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Entry point of the networked two player mode.
+ * <pre>
+ * host [port] [bricksPerRow rows]   runs the game, and waits for a second player
+ * join [address] [port]             joins a hosted game as the second player
+ * </pre>
+ * Both sides default to localhost and {@value NetProtocol#DEFAULT_PORT}, so the mode can be
+ * tried with two processes on the same machine.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see NetworkHost
+ * @see BrickerClientGameManager
+ */
+public class NetworkGame {
+    private static final String HOST = "host";
+    private static final String JOIN = "join";
+    private static final String USAGE =
+            "usage: host [port] [bricksPerRow rows] | join [address] [port]";
+    private static final String CLIENT_TITLE = BrickerGameManager.BRICKER + " (player 2)";
+
+    /** Size of the game window, the same on both sides */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+
+    /** Number of arguments of host, when a board size is given */
+    private static final int HOST_ARGS_WITH_BOARD = 4;
+
+    private NetworkGame() {
+    }
+
+    /**
+     * Hosts or joins a networked game.
+     *
+     * @param args see the class documentation
+     */
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(HOST)) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : NetProtocol.DEFAULT_PORT;
+            BrickerGameManager gameManager = args.length >= HOST_ARGS_WITH_BOARD ?
+                    new BrickerGameManager(BrickerGameManager.BRICKER, WINDOW_DIMENSIONS,
+                            Integer.parseInt(args[2]), Integer.parseInt(args[3])) :
+                    new BrickerGameManager(BrickerGameManager.BRICKER, WINDOW_DIMENSIONS);
+            gameManager.addGameEventListener(
+                    new NetworkHost(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+            gameManager.run();
+        }
+        else if (args.length > 0 && args[0].equals(JOIN)) {
+            String address = args.length > 1 ? args[1] :
+                    InetAddress.getLoopbackAddress().getHostAddress();
+            int port = args.length > 2 ? Integer.parseInt(args[2]) : NetProtocol.DEFAULT_PORT;
+            new BrickerClientGameManager(CLIENT_TITLE, WINDOW_DIMENSIONS,
+                    new InetSocketAddress(address, port)).run();
+        }
+        else {
+            System.out.println(USAGE);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package bricker.network;
+
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.RemotePaddle;
+import bricker.main.BrickLayout;
+import bricker.main.BrickerGameManager;
+import bricker.main.GameEventListener;
+import danogl.util.Vector2;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The host side of the networked two player mode. Attached to a running game as a
+ * {@link GameEventListener}, it adds a {@link RemotePaddle} to the game and, at the end of
+ * every frame, sends the game state to the connected client and applies the client's input.
+ * All channels are non-blocking and are polled once per frame, so the game never waits for
+ * the network. Every few seconds it prints the bytes sent per frame and the round trip time.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see NetProtocol
+ * @see NetworkClient
+ */
+public class NetworkHost implements GameEventListener {
+    /** Factor to scale the remote paddle size down, like the AI paddle */
+    private static final float THREE_QUARTERS = 0.75f;
+
+    /** Divider used to position the remote paddle in the center */
+    private static final float TWO = 2f;
+
+    /** Number of frames between two statistics reports */
+    private static final int REPORT_FRAMES = 300;
+
+    /** Nanoseconds in a microsecond, for printing */
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    /**
+     * private members
+     * server - listens for the client, clientChannel - the connected client or null
+     * out, in - preallocated direct buffers. out is kept in read mode between frames, so
+     * leftovers of a message that did not fit in the socket are sent first.
+     * removed - indices of bricks removed since the last state message that was sent
+     * gone - which bricks of the current game were removed, for clients that join late
+     * gameManager, remotePaddle - the hosted game and the paddle of the remote player
+     * frame - number of the current frame
+     * statistics - bytes and messages sent, round trip times, since the last report
+     */
+    private final ServerSocketChannel server;
+    private SocketChannel clientChannel;
+    private final ByteBuffer out;
+    private final ByteBuffer in;
+    private int[] removed;
+    private int removedCount;
+    private boolean[] gone;
+    private BrickerGameManager gameManager;
+    private RemotePaddle remotePaddle;
+    private boolean helloPending;
+    private int frame;
+    private long bytesSent;
+    private int statesSent;
+    private long rttTotal;
+    private long rttMax;
+    private int rttCount;
+
+    /**
+     * Opens the server socket. The client can connect as soon as the game is running.
+     *
+     * @param address the address to listen on, for example localhost and a port
+     */
+    public NetworkHost(InetSocketAddress address) {
+        try {
+            server = ServerSocketChannel.open();
+            server.configureBlocking(false);
+            server.bind(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out = ByteBuffer.allocateDirect(NetProtocol.BUFFER_SIZE);
+        out.flip();
+        in = ByteBuffer.allocateDirect(NetProtocol.BUFFER_SIZE);
+        removed = new int[0];
+        gone = new boolean[0];
+    }
+
+    /**
+     * Adds the remote player's paddle to the new game, and announces the board to the client.
+     *
+     * @param gameManager the game that was initialized
+     */
+    @Override
+    public void onGameInitialized(BrickerGameManager gameManager) {
+        this.gameManager = gameManager;
+        BrickLayout layout = gameManager.getBrickLayout();
+        if (removed.length < layout.brickCount()) {
+            removed = new int[layout.brickCount()];
+            gone = new boolean[layout.brickCount()];
+        }
+        Arrays.fill(gone, false);
+        removedCount = 0;
+        Vector2 board = gameManager.getBoardDimensions();
+        Vector2 userPaddleSize = gameManager.getUserPaddle().getDimensions();
+        remotePaddle = new RemotePaddle(
+                new Vector2(board.x() / TWO, board.y() / TWO),
+                userPaddleSize.mult(THREE_QUARTERS),
+                gameManager.getUserPaddle().renderer().getRenderable(),
+                BrickLayout.BORDER_WIDTH, board.x() - BrickLayout.BORDER_WIDTH);
+        gameManager.addGameObjectFromGame(remotePaddle);
+        helloPending = true;
+    }
+
+    /**
+     * Remembers the index of the removed brick, it is sent with the next state message.
+     *
+     * @param brick the removed brick
+     */
+    @Override
+    public void onBrickRemoved(Brick brick) {
+        int index = brick.getIndex();
+        if (index == Brick.NO_INDEX || index >= gone.length || gone[index]) return;
+        gone[index] = true;
+        removed[removedCount++] = index;
+    }
+
+    /**
+     * Accepts a client if none is connected, applies its inputs and sends it the state.
+     *
+     * @param deltaTime time since the last frame, in seconds
+     */
+    @Override
+    public void onFrameEnd(float deltaTime) {
+        frame++;
+        try {
+            if (clientChannel == null) {
+                acceptClient();
+            }
+            if (clientChannel != null) {
+                readInputs();
+            }
+            if (clientChannel != null) {
+                sendState();
+            }
+        } catch (IOException e) {
+            disconnect();
+        }
+        if (frame % REPORT_FRAMES == 0 && statesSent > 0) {
+            printReport();
+        }
+    }
+
+    /**
+     * Accepts a waiting client, if there is one.
+     * @throws IOException if accepting failed
+     */
+    private void acceptClient() throws IOException {
+        clientChannel = server.accept();
+        if (clientChannel == null) return;
+        clientChannel.configureBlocking(false);
+        clientChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        in.clear();
+        out.clear();
+        out.flip();
+        helloPending = true;
+        removedCount = 0;
+        for (int i = 0; i < gone.length; i++) {
+            if (gone[i]) {
+                removed[removedCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Reads and applies all the complete input messages that arrived.
+     * @throws IOException if the client disconnected
+     */
+    private void readInputs() throws IOException {
+        if (clientChannel.read(in) < 0) {
+            throw new IOException("client disconnected");
+        }
+        in.flip();
+        while (NetProtocol.hasWholeMessage(in)) {
+            int length = Short.toUnsignedInt(in.getShort());
+            byte type = in.get();
+            int end = in.position() + length;
+            if (type == NetProtocol.INPUT && length >= NetProtocol.INPUT_SIZE) {
+                in.getInt();
+                long echoedNanos = in.getLong();
+                byte direction = in.get();
+                remotePaddle.setDirection(direction);
+                if (echoedNanos != 0) {
+                    long rtt = System.nanoTime() - echoedNanos;
+                    rttTotal += rtt;
+                    rttMax = Math.max(rttMax, rtt);
+                    rttCount++;
+                }
+            }
+            in.position(end);
+        }
+        in.compact();
+    }
+
+    /**
+     * Encodes and sends the state of this frame. If the previous message is still being sent,
+     * this frame is skipped, and its removed bricks are sent with the next message.
+     * @throws IOException if the client disconnected
+     */
+    private void sendState() throws IOException {
+        if (out.hasRemaining()) {
+            bytesSent += NetProtocol.flush(clientChannel, out);
+            if (out.hasRemaining()) return;
+        }
+        out.clear();
+        if (helloPending) {
+            writeHello();
+            helloPending = false;
+        }
+        writeState();
+        out.flip();
+        bytesSent += NetProtocol.flush(clientChannel, out);
+        statesSent++;
+    }
+
+    /**
+     * Writes a HELLO message describing the board.
+     */
+    private void writeHello() {
+        BrickLayout layout = gameManager.getBrickLayout();
+        Vector2 board = gameManager.getBoardDimensions();
+        int start = NetProtocol.beginMessage(out, NetProtocol.HELLO);
+        out.putFloat(board.x());
+        out.putFloat(board.y());
+        out.putShort((short) layout.bricksPerRow());
+        out.putShort((short) layout.rows());
+        NetProtocol.endMessage(out, start);
+    }
+
+    /**
+     * Writes a STATE message. Removed bricks that do not fit are kept for the next message.
+     */
+    private void writeState() {
+        List<Ball> balls = gameManager.getLiveBalls();
+        int start = NetProtocol.beginMessage(out, NetProtocol.STATE);
+        out.putInt(frame);
+        out.putLong(System.nanoTime());
+        out.put((byte) gameManager.getLivesLeft());
+        out.putFloat(gameManager.getUserPaddle().getCenter().x());
+        out.putFloat(remotePaddle == null ? NetProtocol.NO_PADDLE : remotePaddle.getCenter().x());
+
+        int room = out.remaining() - 2 * Short.BYTES;
+        int sentBalls = Math.min(balls.size(), room / NetProtocol.BALL_SIZE);
+        room -= sentBalls * NetProtocol.BALL_SIZE;
+        int sentBricks = Math.min(removedCount, room / NetProtocol.BRICK_SIZE);
+        out.putShort((short) sentBricks);
+        for (int i = 0; i < sentBricks; i++) {
+            out.putInt(removed[i]);
+        }
+        System.arraycopy(removed, sentBricks, removed, 0, removedCount - sentBricks);
+        removedCount -= sentBricks;
+
+        out.putShort((short) sentBalls);
+        for (int i = 0; i < sentBalls; i++) {
+            Ball ball = balls.get(i);
+            Vector2 center = ball.getCenter();
+            Vector2 velocity = ball.getVelocity();
+            out.putFloat(center.x());
+            out.putFloat(center.y());
+            out.putFloat(velocity.x());
+            out.putFloat(velocity.y());
+        }
+        NetProtocol.endMessage(out, start);
+    }
+
+    /**
+     * Drops the connection to the client, a new client may connect later.
+     */
+    private void disconnect() {
+        try {
+            if (clientChannel != null) {
+                clientChannel.close();
+            }
+        } catch (IOException ignored) {
+            // the connection is dropped either way
+        }
+        clientChannel = null;
+        if (remotePaddle != null) {
+            remotePaddle.setDirection(0);
+        }
+    }
+
+    /**
+     * Prints the average bytes per state message and the round trip time, then starts a new
+     * measuring period.
+     */
+    private void printReport() {
+        System.out.printf("host: %.1f bytes/frame, rtt avg %.1f us, max %.1f us%n",
+                (double) bytesSent / statesSent,
+                rttCount == 0 ? 0 : rttTotal / (double) rttCount / NANOS_PER_MICRO,
+                rttMax / NANOS_PER_MICRO);
+        bytesSent = 0;
+        statesSent = 0;
+        rttTotal = 0;
+        rttMax = 0;
+        rttCount = 0;
+    }
+}
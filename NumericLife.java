@@ -4,6 +4,7 @@ import danogl.gui.rendering.Renderable;
 import danogl.gui.rendering.TextRenderable;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
+import danogl.components.CoordinateSpace;
 import danogl.util.Vector2;
 
 import java.awt.*;
@@ -20,9 +21,6 @@ public class NumericLife extends GameObject {
     private static final int TWO_LIVES_LEFT = 2;
     private static final int THREE_LIVES_LEFT = 3;
 
-    /** renderable used to display the number of lives remaining.*/
-    private TextRenderable textRenderable;
-
     /** The collection of game objects, where the numeric will be added.*/
     private GameObjectCollection gameObjects;
 
@@ -34,26 +32,36 @@ public class NumericLife extends GameObject {
      */
     public NumericLife(Vector2 position, GameObjectCollection gameObjects, int initialLives) {
         super(position, new Vector2(NUMERIC_WIDTH,NUMERIC_HEIGHT), null);
-        this.textRenderable = new TextRenderable(Integer.toString(initialLives));
-        this.textRenderable.setColor(Color.GREEN);
-        this.renderer().setRenderable(textRenderable);
+        this.renderer().setRenderable(createText(initialLives));
+        // stays in the corner of the window when a camera moves over the board
+        this.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         this.gameObjects = gameObjects;
         this.gameObjects.addGameObject(this, danogl.collisions.Layer.UI);
     }
 
     /**
-     * Updates the color of the numeric.
-     * Green for 3+, yellow for 2 and red for one
+     * Updates the number and the color of the numeric.
+     * A new renderable replaces the old one instead of changing it, since a render snapshot
+     * may still be drawing the old one on another thread.
      * @param livesLeft
      */
     public void updateLives(int livesLeft) {
-        textRenderable.setString(Integer.toString(livesLeft));
+        renderer().setRenderable(createText(livesLeft));
+    }
 
+    /**
+     * Green for 3+, yellow for 2 and red for one
+     * @param livesLeft the number of lives to display
+     * @return a renderable of the number
+     */
+    private static TextRenderable createText(int livesLeft) {
+        TextRenderable textRenderable = new TextRenderable(Integer.toString(livesLeft));
         if (livesLeft >= THREE_LIVES_LEFT)
             textRenderable.setColor(Color.GREEN);
         else if (livesLeft == TWO_LIVES_LEFT)
             textRenderable.setColor(Color.YELLOW);
         else
             textRenderable.setColor(Color.RED);
+        return textRenderable;
     }
 }
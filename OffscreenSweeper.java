@@ -0,0 +1,127 @@
+package bricker.main;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes the transient objects of a game (pucks, falling hearts) once they leave the board,
+ * in one sweep per frame instead of a bounds check in the update of every object.
+ * <p>
+ * The bounds of the board are read once, when the sweeper is created, and the objects are
+ * kept in an array list, so the sweep is a single pass over their positions. The objects that
+ * left are collected first and removed together after the pass, and each of them is then told
+ * with {@link Transient#onDespawn()}.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see Transient
+ * @see BrickerGameManager#getOffscreenSweeper
+ */
+public class OffscreenSweeper {
+    /**
+     * private members
+     * gameManager - the game the objects are removed from
+     * left, top, right, bottom - the cached bounds of the board
+     * objects - the tracked objects, each also in indices with its position in the list
+     * leavers - the objects that left in the current sweep, reused between sweeps
+     */
+    private final BrickerGameManager gameManager;
+    private final float left;
+    private final float top;
+    private final float right;
+    private final float bottom;
+    private final List<GameObject> objects;
+    private final Map<GameObject, Integer> indices;
+    private final List<GameObject> leavers;
+
+    /**
+     * constructs a sweeper with no objects
+     * @param gameManager     the game the objects are removed from
+     * @param boardDimensions the size of the board, the objects are removed once they are
+     *                        entirely outside of it
+     */
+    public OffscreenSweeper(BrickerGameManager gameManager, Vector2 boardDimensions) {
+        this.gameManager = gameManager;
+        this.left = 0;
+        this.top = 0;
+        this.right = boardDimensions.x();
+        this.bottom = boardDimensions.y();
+        this.objects = new ArrayList<>();
+        this.indices = new IdentityHashMap<>();
+        this.leavers = new ArrayList<>();
+    }
+
+    /**
+     * @param object a transient object that was added to the game
+     */
+    public void track(GameObject object) {
+        if (indices.containsKey(object)) return;
+        indices.put(object, objects.size());
+        objects.add(object);
+    }
+
+    /**
+     * Stops tracking an object, in O(1): the last object takes its place in the list.
+     * @param object an object that left the game
+     */
+    public void untrack(GameObject object) {
+        Integer index = indices.remove(object);
+        if (index == null) return;
+        GameObject last = objects.remove(objects.size() - 1);
+        if (last != object) {
+            objects.set(index, last);
+            indices.put(last, index);
+        }
+    }
+
+    /**
+     * @return the number of tracked objects
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * @param index an index below {@link #size()}
+     * @return a tracked object. Untracking moves the last object, so the order can change.
+     */
+    public GameObject get(int index) {
+        return objects.get(index);
+    }
+
+    /**
+     * Removes every tracked object that is entirely outside the board, and tells it that it
+     * despawned. Called once per frame, after the objects moved.
+     * @return the number of removed objects
+     */
+    public int sweep() {
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject object = objects.get(i);
+            Vector2 corner = object.getTopLeftCorner();
+            Vector2 size = object.getDimensions();
+            if (corner.y() > bottom || corner.y() + size.y() < top ||
+                    corner.x() > right || corner.x() + size.x() < left) {
+                leavers.add(object);
+            }
+        }
+        if (leavers.isEmpty()) return 0;
+        int removed = 0;
+        for (GameObject leaver : leavers) {
+            // removing the object from the game also untracks it
+            if (gameManager.removeGameObjectFromGame(leaver)) {
+                removed++;
+            }
+            untrack(leaver);
+            if (leaver instanceof Transient) {
+                ((Transient) leaver).onDespawn();
+            }
+        }
+        leavers.clear();
+        return removed;
+    }
+}
@@ -1,5 +1,7 @@
 package bricker.gameobjects;
 
+import bricker.main.FixedPoint;
+import bricker.main.InputEventQueue;
 import danogl.GameObject;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
@@ -15,9 +17,10 @@ import java.awt.event.KeyEvent;
  * @author Maoz Bar Shimon
  * @see bricker.main.BrickerGameManager
  */
-public class Paddle extends GameObject {
+public class Paddle extends FixedPointObject {
     private static final int MOVEMENT_SPEED = 300;
     private static final int WALL_WIDTH = 15;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
 
     /** inputListener will allow us to accept the keyboard that the user pressed.*/
     private UserInputListener inputListener;
@@ -25,6 +28,26 @@ public class Paddle extends GameObject {
     /** width of the board, so that the paddle will not be out of bounds.*/
     private final float width;
 
+    /** when set, the paddle moves towards this object instead of following the keyboard.*/
+    private GameObject autopilotTarget;
+
+    /**
+     * timestamped key events, null when the keyboard is only polled
+     * timedInput - whether movement is integrated over the key-down time of the events
+     * leftDownSince, rightDownSince - when the key went down in this frame, 0 while it is up
+     * leftHeldNanos, rightHeldNanos - how long the key was down in the current frame
+     * frameStart - start of the frame the events are integrated over
+     * pressNanos - the earliest key press the paddle did not move for yet, 0 if none
+     */
+    private InputEventQueue inputQueue;
+    private boolean timedInput;
+    private long leftDownSince;
+    private long rightDownSince;
+    private long leftHeldNanos;
+    private long rightHeldNanos;
+    private long frameStart;
+    private long pressNanos;
+
 
     /**
      * constructs a user paddle
@@ -54,15 +77,147 @@ public class Paddle extends GameObject {
      */
     @Override
     public void update(float deltaTime) {
+        float previousX = getTopLeftCorner().x();
+        // timed input depends on the wall clock, so deterministic physics reads the held keys
+        if(inputQueue != null && timedInput && autopilotTarget == null &&
+                !FixedPoint.isEnabled()){
+            updateTimed(deltaTime);
+        }
+        else{
+            updatePolled(deltaTime);
+        }
+        if(pressNanos != 0 && getTopLeftCorner().x() != previousX){
+            inputQueue.recordLatency(System.nanoTime() - pressNanos);
+            pressNanos = 0;
+        }
+        else if(leftDownSince == 0 && rightDownSince == 0){
+            // released without moving (against a wall), nothing to measure
+            pressNanos = 0;
+        }
+    }
+
+    /**
+     * Moves the paddle by the velocity of the previous frame, and sets the velocity for the
+     * next frame from the keys that are pressed now.
+     */
+    private void updatePolled(float deltaTime) {
         super.update(deltaTime);
+        if(inputQueue != null){
+            inputQueue.drain(this::onKey);
+        }
         Vector2 movementDir = Vector2.ZERO;
-        if(inputListener.isKeyPressed(KeyEvent.VK_LEFT) && getTopLeftCorner().x() > WALL_WIDTH){
+        if(isMovingLeft() && getTopLeftCorner().x() > WALL_WIDTH){
             movementDir = movementDir.add(Vector2.LEFT);
         }
-        else if(inputListener.isKeyPressed(KeyEvent.VK_RIGHT) &&
+        else if(isMovingRight() &&
                 getTopLeftCorner().x() + getDimensions().x() < width - WALL_WIDTH){
             movementDir = movementDir.add(Vector2.RIGHT);
         }
         setVelocity(movementDir.mult(MOVEMENT_SPEED));
     }
+
+    /**
+     * Moves the paddle by the time each arrow key was held during the frame that just ended,
+     * so a key press moves the paddle in the same frame, and a short tap moves it by exactly
+     * the time it was held.
+     */
+    private void updateTimed(float deltaTime) {
+        setVelocity(Vector2.ZERO);
+        super.update(deltaTime);
+        long now = System.nanoTime();
+        frameStart = Math.max(frameStart, now - (long) (deltaTime * NANOS_PER_SECOND));
+        leftHeldNanos = 0;
+        rightHeldNanos = 0;
+        if(leftDownSince != 0) leftDownSince = frameStart;
+        if(rightDownSince != 0) rightDownSince = frameStart;
+        inputQueue.drain(this::onKey);
+        if(leftDownSince != 0) leftHeldNanos += now - leftDownSince;
+        if(rightDownSince != 0) rightHeldNanos += now - rightDownSince;
+        frameStart = now;
+
+        float movement = (float) ((rightHeldNanos - leftHeldNanos) / NANOS_PER_SECOND *
+                MOVEMENT_SPEED);
+        float x = Math.max(WALL_WIDTH, Math.min(width - WALL_WIDTH - getDimensions().x(),
+                getTopLeftCorner().x() + movement));
+        setTopLeftCorner(new Vector2(x, getTopLeftCorner().y()));
+    }
+
+    /**
+     * Receives a timestamped key event of the current frame, and adds the time the key was
+     * held to the frame. Other keys of the queue are not the paddle's.
+     */
+    private void onKey(int keyCode, boolean pressed, long nanos) {
+        if(keyCode != KeyEvent.VK_LEFT && keyCode != KeyEvent.VK_RIGHT) return;
+        long time = Math.max(nanos, frameStart);
+        if(pressed && pressNanos == 0 && leftDownSince == 0 && rightDownSince == 0){
+            pressNanos = nanos;
+        }
+        if(keyCode == KeyEvent.VK_LEFT){
+            if(pressed && leftDownSince == 0){
+                leftDownSince = time;
+            }
+            else if(!pressed && leftDownSince != 0){
+                leftHeldNanos += time - leftDownSince;
+                leftDownSince = 0;
+            }
+        }
+        else if(keyCode == KeyEvent.VK_RIGHT){
+            if(pressed && rightDownSince == 0){
+                rightDownSince = time;
+            }
+            else if(!pressed && rightDownSince != 0){
+                rightHeldNanos += time - rightDownSince;
+                rightDownSince = 0;
+            }
+        }
+    }
+
+    /**
+     * Attaches the queue of timestamped key events. The latency from every key press to the
+     * paddle's movement is recorded in the queue.
+     * @param inputQueue the queue of the arrow keys, or null to only poll the keyboard
+     * @param timedInput true to move by the time the keys were held during each frame,
+     *                   false to read the keys held once per frame. Either way the keyboard
+     *                   is only read through the queue, so the paddle may run on the
+     *                   simulation thread.
+     */
+    public void setInputQueue(InputEventQueue inputQueue, boolean timedInput){
+        this.inputQueue = inputQueue;
+        this.timedInput = timedInput;
+    }
+
+    /**
+     * Makes the paddle steer by itself towards the given object, used by games that run
+     * without a keyboard (headless sessions).
+     * @param target the object to move under, or null to go back to keyboard control
+     */
+    public void setAutopilot(GameObject target){
+        autopilotTarget = target;
+    }
+
+    /**
+     * @return true if the paddle should move left in this frame
+     */
+    private boolean isMovingLeft(){
+        if(autopilotTarget != null){
+            return autopilotTarget.getCenter().x() < getCenter().x();
+        }
+        if(inputQueue != null){
+            return inputQueue.isHeld(KeyEvent.VK_LEFT);
+        }
+        return inputListener != null && inputListener.isKeyPressed(KeyEvent.VK_LEFT);
+    }
+
+    /**
+     * @return true if the paddle should move right in this frame
+     */
+    private boolean isMovingRight(){
+        if(autopilotTarget != null){
+            return autopilotTarget.getCenter().x() > getCenter().x();
+        }
+        if(inputQueue != null){
+            return inputQueue.isHeld(KeyEvent.VK_RIGHT);
+        }
+        return inputListener != null && inputListener.isKeyPressed(KeyEvent.VK_RIGHT);
+    }
 }
@@ -0,0 +1,22 @@
+package bricker.main;
+
+/**
+ * A dynamic game object whose update only changes the object itself, so it can run on a
+ * worker thread next to the updates of other such objects. Anything the update does to the
+ * rest of the game (removing objects, adding lives, changing counters) is recorded in the
+ * given {@link UpdateEffects} instead of being done directly.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ParallelUpdater
+ */
+public interface ParallelUpdatable {
+
+    /**
+     * Updates the object for one frame.
+     *
+     * @param deltaTime time since the last frame, in seconds
+     * @param effects   receives the changes the update makes to the rest of the game
+     */
+    void updateDynamic(float deltaTime, UpdateEffects effects);
+}
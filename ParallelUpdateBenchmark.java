@@ -0,0 +1,154 @@
+package bricker.main;
+
+import bricker.gameobjects.Heart;
+import bricker.gameobjects.Puck;
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the parallel update phase of {@link ParallelUpdater}: the same headless game, with
+ * the same pucks and falling hearts, is updated with 1, 2, 4... threads, and the time of a
+ * phase is printed with the speedup over a single thread. A checksum of the final positions
+ * is printed too, and is the same for every number of threads.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ParallelUpdater
+ */
+public class ParallelUpdateBenchmark {
+    /** Number of pucks spawned when none is given on the command line */
+    private static final int DEFAULT_PUCKS = 2000;
+
+    /** Number of measured frames when none is given on the command line */
+    private static final int DEFAULT_FRAMES = 600;
+
+    /** Falling hearts spawned for every this many pucks */
+    private static final int PUCKS_PER_HEART = 10;
+
+    /** Frames run before measuring, so the JIT compiled the update */
+    private static final int WARMUP_FRAMES = 200;
+
+    /** Simulated time of a single frame, in seconds (60 frames per second) */
+    private static final float FRAME_TIME = 1 / 60f;
+
+    /** Speed of the spawned pucks, in pixels per second */
+    private static final float PUCK_SPEED = 20f;
+
+    /** Size of the spawned pucks */
+    private static final Vector2 PUCK_SIZE = new Vector2(15, 15);
+
+    /** Seed of the spawned positions and directions, the same for every run */
+    private static final long SEED = 42;
+
+    /** Nanoseconds in a millisecond, for printing */
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    /** Width and height of the board */
+    private static final Vector2 BOARD_DIMENSIONS = new Vector2(700, 500);
+
+    /**
+     * private members
+     * pucks - number of pucks spawned in every run
+     * frames - number of measured frames of every run
+     */
+    private final int pucks;
+    private final int frames;
+
+    /**
+     * constructs a benchmark
+     * @param pucks  number of pucks spawned in every run
+     * @param frames number of measured frames of every run
+     */
+    public ParallelUpdateBenchmark(int pucks, int frames) {
+        this.pucks = pucks;
+        this.frames = frames;
+    }
+
+    /**
+     * Runs the benchmark with 1, 2, 4... threads up to the number of cores, and prints a line
+     * per run.
+     */
+    public void run() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d pucks, %d falling hearts, %d frames, %d cores%n",
+                pucks, pucks / PUCKS_PER_HEART, frames, cores);
+        double singleThreadMillis = 0;
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = threads == 1 ? null : new ForkJoinPool(threads);
+            BrickerGameManager gameManager = new BrickerGameManager(
+                    BrickerGameManager.BRICKER, BOARD_DIMENSIONS);
+            gameManager.initializeHeadless();
+            ParallelUpdater updater = new ParallelUpdater(gameManager, true, pool);
+            gameManager.setParallelUpdater(updater);
+            List<GameObject> spawned = spawn(gameManager);
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                updater.updateAll(FRAME_TIME);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < frames; i++) {
+                updater.updateAll(FRAME_TIME);
+            }
+            double millis = (System.nanoTime() - start) / NANOS_PER_MILLI / frames;
+            if (threads == 1) singleThreadMillis = millis;
+            System.out.printf("threads=%-3d %8.3f ms/frame  speedup=%5.2fx  objects=%d"
+                            + "  checksum=%016x%n",
+                    threads, millis, singleThreadMillis / millis, updater.size(),
+                    checksum(spawned));
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    /**
+     * Adds the pucks and the falling hearts to the game, always at the same positions.
+     * @return the spawned objects
+     */
+    private List<GameObject> spawn(BrickerGameManager gameManager) {
+        Random random = new Random(SEED);
+        List<GameObject> spawned = new ArrayList<>();
+        for (int i = 0; i < pucks; i++) {
+            Vector2 position = new Vector2(random.nextFloat() * BOARD_DIMENSIONS.x(),
+                    random.nextFloat() * BOARD_DIMENSIONS.y());
+            Puck puck = new Puck(position, PUCK_SIZE, null, null, gameManager);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            puck.setVelocity(new Vector2((float) Math.cos(angle) * PUCK_SPEED,
+                    (float) Math.sin(angle) * PUCK_SPEED));
+            gameManager.addGameObjectFromGame(puck);
+            spawned.add(puck);
+            if (i % PUCKS_PER_HEART == 0) {
+                Heart heart = new Heart(position, null, true, gameManager);
+                gameManager.addGameObjectFromGame(heart);
+                spawned.add(heart);
+            }
+        }
+        return spawned;
+    }
+
+    /**
+     * @return a hash of the positions of the objects, in spawn order
+     */
+    private static long checksum(List<GameObject> objects) {
+        long hash = 1;
+        for (GameObject object : objects) {
+            hash = 31 * hash + Float.floatToIntBits(object.getTopLeftCorner().x());
+            hash = 31 * hash + Float.floatToIntBits(object.getTopLeftCorner().y());
+        }
+        return hash;
+    }
+
+    /**
+     * Entry point of the benchmark.
+     * @param args Optional command-line arguments:
+     *             args[0] - number of pucks (int),
+     *             args[1] - number of measured frames (int).
+     */
+    public static void main(String[] args) {
+        int pucks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PUCKS;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRAMES;
+        new ParallelUpdateBenchmark(pucks, frames).run();
+    }
+}
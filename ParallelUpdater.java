@@ -0,0 +1,217 @@
+package bricker.main;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Updates the dynamic objects of a game (pucks, falling hearts, AI paddles) in parallel, in a
+ * phase that runs at the start of every frame, before the rest of the game is updated.
+ * <p>
+ * The objects are split into fixed chunks, in the order they were added to the game, and the
+ * chunks are updated on a {@link ForkJoinPool}. Every chunk records its side effects in its
+ * own {@link UpdateEffects}, and after the phase the effects are applied on the game thread,
+ * chunk after chunk. Since the chunks do not depend on the number of threads, the game
+ * evolves exactly the same with any number of threads, including one.
+ * <p>
+ * While the updater is on, the dynamic objects skip their regular update and are only
+ * updated by the phase.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ParallelUpdatable
+ * @see ParallelUpdateBenchmark
+ */
+public class ParallelUpdater {
+    /** System property that turns the parallel update phase on or off (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.parallelUpdate";
+
+    /** System property of the number of threads of the phase (all the cores by default) */
+    public static final String THREADS_PROPERTY = "bricker.updateThreads";
+
+    /** Objects updated by a single task, and in the same recorded effects */
+    private static final int CHUNK_SIZE = 32;
+
+    /** Below this number of objects, the chunks are updated on the game thread */
+    private static final int MIN_PARALLEL_OBJECTS = 2 * CHUNK_SIZE;
+
+    /** The pool shared by all the games of the process, created when first needed */
+    private static ForkJoinPool sharedPool;
+
+    /**
+     * Updates a range of chunks, splitting the range so idle workers can steal half.
+     */
+    @SuppressWarnings("serial") // a fork/join task, never serialized
+    private static final class ChunkRange extends RecursiveAction {
+        private final ParallelUpdatable[] objects;
+        private final UpdateEffects[] effects;
+        private final float deltaTime;
+        private final int from;
+        private final int to;
+
+        private ChunkRange(ParallelUpdatable[] objects, UpdateEffects[] effects,
+                           float deltaTime, int from, int to) {
+            this.objects = objects;
+            this.effects = effects;
+            this.deltaTime = deltaTime;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                updateChunk(objects, effects[from], deltaTime, from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkRange(objects, effects, deltaTime, from, middle),
+                    new ChunkRange(objects, effects, deltaTime, middle, to));
+        }
+    }
+
+    /**
+     * private members
+     * gameManager - the game whose objects are updated
+     * enabled - when false no object is managed, and every object updates itself
+     * pool - the threads of the phase, null to update on the game thread only
+     * objects - the managed objects, in the order they were added
+     * immediateEffects - effects of objects that update themselves on the game thread
+     * lastPhaseNanos - duration of the last phase
+     */
+    private final BrickerGameManager gameManager;
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final Set<ParallelUpdatable> objects;
+    private final UpdateEffects immediateEffects;
+    private long lastPhaseNanos;
+
+    /**
+     * constructs an updater configured by the {@value #ENABLED_PROPERTY} and
+     * {@value #THREADS_PROPERTY} system properties
+     * @param gameManager the game whose objects are updated
+     */
+    public ParallelUpdater(BrickerGameManager gameManager) {
+        this(gameManager, Boolean.getBoolean(ENABLED_PROPERTY), sharedPool());
+    }
+
+    /**
+     * constructs an updater
+     * @param gameManager the game whose objects are updated
+     * @param enabled     whether the dynamic objects are updated by the phase at all
+     * @param pool        the threads of the phase, or null to update them on the game thread
+     */
+    public ParallelUpdater(BrickerGameManager gameManager, boolean enabled, ForkJoinPool pool) {
+        this.gameManager = gameManager;
+        this.enabled = enabled;
+        this.pool = pool;
+        this.objects = new LinkedHashSet<>();
+        this.immediateEffects = new UpdateEffects(gameManager, false);
+    }
+
+    /**
+     * @param object an object that was added to the game
+     */
+    public void register(ParallelUpdatable object) {
+        if (enabled) {
+            objects.add(object);
+        }
+    }
+
+    /**
+     * @param object an object that left the game
+     */
+    public void unregister(ParallelUpdatable object) {
+        objects.remove(object);
+    }
+
+    /**
+     * Forgets all the objects, when the game is reset.
+     */
+    public void clear() {
+        objects.clear();
+    }
+
+    /**
+     * @param object a dynamic object
+     * @return true if the object is updated by the phase, and should skip its own update
+     */
+    public boolean isManaged(ParallelUpdatable object) {
+        return enabled && objects.contains(object);
+    }
+
+    /**
+     * @return the effects for objects that update themselves, applied right away
+     */
+    public UpdateEffects immediateEffects() {
+        return immediateEffects;
+    }
+
+    /**
+     * @return the number of objects updated by the phase
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    /**
+     * @return how long the last phase took, in nanoseconds
+     */
+    public long getLastPhaseNanos() {
+        return lastPhaseNanos;
+    }
+
+    /**
+     * Updates all the managed objects, then applies their effects in chunk order.
+     * Called by the game manager at the start of every frame, on the game thread.
+     * @param deltaTime time since the last frame, in seconds
+     */
+    public void updateAll(float deltaTime) {
+        if (objects.isEmpty()) return;
+        long start = System.nanoTime();
+        ParallelUpdatable[] snapshot = objects.toArray(new ParallelUpdatable[0]);
+        int chunks = (snapshot.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        UpdateEffects[] effects = new UpdateEffects[chunks];
+        for (int i = 0; i < chunks; i++) {
+            effects[i] = new UpdateEffects(gameManager, true);
+        }
+        if (pool == null || snapshot.length < MIN_PARALLEL_OBJECTS) {
+            for (int i = 0; i < chunks; i++) {
+                updateChunk(snapshot, effects[i], deltaTime, i);
+            }
+        } else {
+            pool.invoke(new ChunkRange(snapshot, effects, deltaTime, 0, chunks));
+        }
+        for (UpdateEffects chunkEffects : effects) {
+            chunkEffects.apply();
+        }
+        lastPhaseNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Updates the objects of one chunk, in order.
+     */
+    private static void updateChunk(ParallelUpdatable[] objects, UpdateEffects effects,
+                                    float deltaTime, int chunk) {
+        int end = Math.min(objects.length, (chunk + 1) * CHUNK_SIZE);
+        for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+            objects[i].updateDynamic(deltaTime, effects);
+        }
+    }
+
+    /**
+     * @return the pool shared by all the games, sized by {@value #THREADS_PROPERTY}, or null
+     * when the phase is off or has a single thread
+     */
+    private static synchronized ForkJoinPool sharedPool() {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) return null;
+        int threads = Integer.getInteger(THREADS_PROPERTY,
+                Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) return null;
+        if (sharedPool == null) {
+            sharedPool = new ForkJoinPool(threads);
+        }
+        return sharedPool;
+    }
+}
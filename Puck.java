@@ -1,6 +1,10 @@
 package bricker.gameobjects;
 
 import bricker.main.BrickerGameManager;
+import bricker.main.ParallelUpdatable;
+import bricker.main.ParallelUpdater;
+import bricker.main.Transient;
+import bricker.main.UpdateEffects;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.gui.Sound;
@@ -14,7 +18,7 @@ import danogl.util.Vector2;
  * @author Ishay Shaul
  * @author Maoz Bar Shimon
  */
-public class Puck extends Ball {
+public class Puck extends Ball implements ParallelUpdatable, Transient {
     /** sound played when the puck collides with another object.*/
     private final Sound collisionSound;
 
@@ -36,18 +40,38 @@ public class Puck extends Ball {
         super(topLeftCorner, dimensions, renderable, collisionSound);
         this.gameManager = gameManager;
         this.collisionSound = collisionSound;
+        setInterceptPlanner(gameManager.getInterceptPlanner());
+        setFrameGovernor(gameManager.getFrameGovernor());
     }
 
     /**
-     * Update puck every frame: remove it from the game if it falls below the screen.
+     * Update puck every frame. The puck is removed by the off-screen sweep of the game once it
+     * falls below the board.
      */
     @Override
     public void update(float deltaTime) {
+        ParallelUpdater parallelUpdater = gameManager.getParallelUpdater();
+        if (parallelUpdater.isManaged(this)) return;
+        updateDynamic(deltaTime, parallelUpdater.immediateEffects());
+    }
+
+    /**
+     * Moves the puck. May run in the parallel update phase.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     * @param effects Unused, moving the puck has no effect on the rest of the game.
+     */
+    @Override
+    public void updateDynamic(float deltaTime, UpdateEffects effects) {
         super.update(deltaTime);
-        float screenHeight = gameManager.getWindowDimensions().y();
-        if (getTopLeftCorner().y() > screenHeight) {
-            gameManager.removeGameObjectFromGame(this);
-        }
+    }
+
+    /**
+     * Stops the intercept planner from predicting the landing spot of the puck, after it fell
+     * off the board and was removed.
+     */
+    @Override
+    public void onDespawn() {
+        setInterceptPlanner(null);
     }
 
     /**
@@ -57,8 +81,22 @@ public class Puck extends Ball {
      */
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
-        Vector2 newVelocity = getVelocity().flipped(collision.getNormal());
+        Vector2 newVelocity = reflected(collision.getNormal());
         setVelocity(newVelocity);
-        collisionSound.play();
+        playCollisionSound(collisionSound);
+    }
+
+    /**
+     * In the cheaper simulation that the frame governor switches to under load, pucks only
+     * bounce off bricks, walls and the user paddle.
+     * @param other the object that the puck may collide with
+     * @return false if the collision is skipped
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        if (getFrameGovernor() != null && getFrameGovernor().isCheapPuckSimulation()) {
+            return !(other instanceof Ball) && !(other instanceof AIPaddle);
+        }
+        return super.shouldCollideWith(other);
     }
 }
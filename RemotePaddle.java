@@ -0,0 +1,68 @@
+package bricker.gameobjects;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * A paddle that is steered by a second player from another process, in the networked two
+ * player mode. Like the AIPaddle it is placed in the middle of the screen, but its direction
+ * comes from the inputs that the remote player sends, instead of from an AI.
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see AIPaddle
+ * @see bricker.network.NetworkHost
+ */
+public class RemotePaddle extends GameObject {
+    private static final int MOVEMENT_SPEED = 300;
+
+    /**
+     * private members
+     * leftBound, rightBound - the inner sides of the walls, the paddle stays between them
+     * direction - the last direction the remote player asked for: -1 left, 0 stop, 1 right
+     */
+    private final float leftBound;
+    private final float rightBound;
+    private int direction;
+
+    /**
+     * constructs a remote paddle
+     * @param topLeftCorner of the paddle that is being created
+     * @param dimensions of the paddle
+     * @param renderable the image of the paddle
+     * @param leftBound the x the paddle can not pass on the left
+     * @param rightBound the x the paddle can not pass on the right
+     */
+    public RemotePaddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                        float leftBound, float rightBound){
+        super(topLeftCorner, dimensions, renderable);
+        this.leftBound = leftBound;
+        this.rightBound = rightBound;
+        direction = 0;
+    }
+
+    /**
+     * Sets the direction the remote player is pressing.
+     * @param direction negative for left, positive for right, 0 to stop
+     */
+    public void setDirection(int direction){
+        this.direction = Integer.signum(direction);
+    }
+
+    /**
+     * moves the paddle in the direction the remote player asked for, within the walls
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        Vector2 movementDir = Vector2.ZERO;
+        if(direction < 0 && getTopLeftCorner().x() > leftBound){
+            movementDir = Vector2.LEFT;
+        }
+        else if(direction > 0 && getTopLeftCorner().x() + getDimensions().x() < rightBound){
+            movementDir = Vector2.RIGHT;
+        }
+        setVelocity(movementDir.mult(MOVEMENT_SPEED));
+    }
+}
@@ -0,0 +1,172 @@
+package bricker.rendering;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.util.Arrays;
+
+/**
+ * What a frame of the game looks like after a simulation step: the renderable, bounds and
+ * opaqueness of every object, in drawing order, with every object's position both before and
+ * after the step. The render thread draws a snapshot without touching the game objects, and
+ * interpolates between the two positions so motion stays smooth whatever the ratio between
+ * the simulation rate and the frame rate.
+ * <p>
+ * A snapshot is filled by the simulation thread and then handed over to the render thread,
+ * which only reads it. Its arrays are reused from one step to the next. Renderables are kept
+ * by reference, so the game never changes one in place once a renderer holds it: it sets a
+ * new renderable instead, and a snapshot keeps drawing the one of its own step.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see bricker.main.SimulationThread
+ */
+public class RenderSnapshot {
+    /** Objects the arrays initially hold */
+    private static final int INITIAL_CAPACITY = 128;
+
+    /** Objects that moved farther than this in a step were moved, not animated, and are not
+     * interpolated */
+    private static final float TELEPORT_DISTANCE = 100f;
+
+    /**
+     * private members
+     * renderables - what every object looks like
+     * fromX, fromY, toX, toY - top left corner of every object before and after the step
+     * widths, heights, opaqueness - size and opaqueness of every object after the step
+     * fixed - whether the object is in camera coordinates, and does not move with the camera
+     * count - number of objects
+     * fromNanos, toNanos - when the step started and ended, on the simulation clock
+     * cameraFrom, cameraTo - top left corner of the camera before and after the step
+     */
+    private Renderable[] renderables;
+    private float[] fromX;
+    private float[] fromY;
+    private float[] toX;
+    private float[] toY;
+    private float[] widths;
+    private float[] heights;
+    private float[] opaqueness;
+    private boolean[] fixed;
+    private int count;
+    private long fromNanos;
+    private long toNanos;
+    private Vector2 cameraFrom;
+    private Vector2 cameraTo;
+
+    /**
+     * constructs an empty snapshot
+     */
+    public RenderSnapshot() {
+        renderables = new Renderable[INITIAL_CAPACITY];
+        fromX = new float[INITIAL_CAPACITY];
+        fromY = new float[INITIAL_CAPACITY];
+        toX = new float[INITIAL_CAPACITY];
+        toY = new float[INITIAL_CAPACITY];
+        widths = new float[INITIAL_CAPACITY];
+        heights = new float[INITIAL_CAPACITY];
+        opaqueness = new float[INITIAL_CAPACITY];
+        fixed = new boolean[INITIAL_CAPACITY];
+        cameraFrom = Vector2.ZERO;
+        cameraTo = Vector2.ZERO;
+    }
+
+    /**
+     * Empties the snapshot, to fill it with a new step.
+     * @param stepStart  when the step started, from System.nanoTime()
+     * @param stepEnd    when the step ended, from System.nanoTime()
+     * @param cameraFrom top left corner of the camera before the step
+     * @param cameraTo   top left corner of the camera after the step
+     */
+    public void begin(long stepStart, long stepEnd, Vector2 cameraFrom, Vector2 cameraTo) {
+        Arrays.fill(renderables, 0, count, null);
+        count = 0;
+        this.fromNanos = stepStart;
+        this.toNanos = stepEnd;
+        this.cameraFrom = cameraFrom;
+        this.cameraTo = cameraTo;
+    }
+
+    /**
+     * Adds an object, drawn after the objects added before it.
+     * @param renderable what the object looks like
+     * @param from       top left corner before the step
+     * @param to         top left corner after the step
+     * @param dimensions size of the object
+     * @param alpha      opaqueness of the object
+     * @param isFixed    true if the object is in camera coordinates
+     */
+    public void add(Renderable renderable, Vector2 from, Vector2 to, Vector2 dimensions,
+                    float alpha, boolean isFixed) {
+        if (count == renderables.length) grow();
+        renderables[count] = renderable;
+        fromX[count] = from.x();
+        fromY[count] = from.y();
+        toX[count] = to.x();
+        toY[count] = to.y();
+        widths[count] = dimensions.x();
+        heights[count] = dimensions.y();
+        opaqueness[count] = alpha;
+        fixed[count] = isFixed;
+        count++;
+    }
+
+    /**
+     * @return the number of objects in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return when the step of the snapshot ended, 0 for a snapshot that was never filled
+     */
+    public long getTime() {
+        return toNanos;
+    }
+
+    /**
+     * Draws the snapshot as it looked at the given time, between the start and the end of
+     * its step.
+     * @param g         the graphics of the window
+     * @param timeNanos the time to draw, clamped to the step
+     */
+    public void render(Graphics2D g, long timeNanos) {
+        float t = toNanos == fromNanos ? 1f :
+                Math.max(0f, Math.min(1f, (float) (timeNanos - fromNanos) / (toNanos - fromNanos)));
+        float cameraX = lerp(cameraFrom.x(), cameraTo.x(), t);
+        float cameraY = lerp(cameraFrom.y(), cameraTo.y(), t);
+        for (int i = 0; i < count; i++) {
+            float x = toX[i];
+            float y = toY[i];
+            if (Math.abs(x - fromX[i]) + Math.abs(y - fromY[i]) < TELEPORT_DISTANCE) {
+                x = lerp(fromX[i], x, t);
+                y = lerp(fromY[i], y, t);
+            }
+            if (!fixed[i]) {
+                x -= cameraX;
+                y -= cameraY;
+            }
+            renderables[i].render(g, new Vector2(x, y), new Vector2(widths[i], heights[i]),
+                    0, false, false, opaqueness[i]);
+        }
+    }
+
+    private void grow() {
+        int capacity = renderables.length * 2;
+        renderables = Arrays.copyOf(renderables, capacity);
+        fromX = Arrays.copyOf(fromX, capacity);
+        fromY = Arrays.copyOf(fromY, capacity);
+        toX = Arrays.copyOf(toX, capacity);
+        toY = Arrays.copyOf(toY, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        opaqueness = Arrays.copyOf(opaqueness, capacity);
+        fixed = Arrays.copyOf(fixed, capacity);
+    }
+
+    private static float lerp(float from, float to, float t) {
+        return from + (to - from) * t;
+    }
+}
@@ -0,0 +1,578 @@
+package bricker.main;
+
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Records the last seconds of a game, frame by frame, so the game can be stepped backwards
+ * and forwards through them: by holding R (rewind) and F (replay) while playing, or through
+ * {@link #seek} when debugging. Any other frame resumes the game from where it was rewound to,
+ * and the frames that were rewound over are forgotten.
+ * <p>
+ * A frame holds the indices of the bricks that were removed in it, the lives, and the
+ * kinematics of the bodies: the user paddle, the balls and the falling hearts. The
+ * kinematics are kept as a full keyframe every {@value #KEYFRAME_PROPERTY} frames, and as
+ * quantized differences from the previous frame in between. The differences are taken from
+ * the decoded previous frame, not the real one, so the rounding errors do not add up. A frame
+ * whose bodies changed, or moved too far to fit, is a keyframe as well. Everything is kept in
+ * rings that are allocated once, so the memory is fixed however long the game runs: when a
+ * ring is full, the oldest keyframe and the frames that follow it are dropped.
+ * <p>
+ * Seeking puts back or takes away only the bricks removed between the two frames, and decodes
+ * at most one keyframe and the differences after it, so it costs the same on any board size.
+ * Rewinding does not undo what the strategies did besides removing bricks and adding pucks
+ * and hearts; the endless mode and the simulation thread are not rewound.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#getRewindBuffer()
+ */
+public class RewindBuffer implements GameEventListener {
+    /** System property of how many seconds are kept for rewinding (off when unset or 0) */
+    public static final String SECONDS_PROPERTY = "bricker.rewindSeconds";
+
+    /** System property of the number of frames from one keyframe to the next */
+    public static final String KEYFRAME_PROPERTY = "bricker.rewindKeyframe";
+
+    /** Frames from one keyframe to the next when {@value #KEYFRAME_PROPERTY} is unset */
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 30;
+
+    /** Frames recorded per second of game */
+    private static final int FRAMES_PER_SECOND = 60;
+
+    /** Bodies the rings hold per frame on average before frames are dropped early */
+    private static final int BODIES_PER_FRAME = 8;
+
+    /** Steps of a position difference per pixel */
+    private static final float POSITION_SCALE = 16f;
+
+    /** Steps of a velocity difference per pixel per second */
+    private static final float VELOCITY_SCALE = 4f;
+
+    /**
+     * private members
+     * gameManager - the recorded game
+     * frameCapacity, keyframeInterval - the most frames kept, and how often a keyframe is kept
+     * keyframeOf, bodyStart, bodyCount, keyEnd, deltaEnd, removedEnd, lives - per frame slot:
+     * the frame of its keyframe, where its bodies start and how many there are, where the
+     * keyframe and difference rings ended after it, where the removed bricks ended after it,
+     * and the lives left
+     * keyBodies, keyX, keyY, keyVX, keyVY - the ring of the bodies of the keyframes
+     * deltaX, deltaY, deltaVX, deltaVY - the ring of the quantized differences
+     * removed - the ring of the indices of the removed bricks, as long as the bricks of a game
+     * bricks - every brick that was removed in this game, by index
+     * bodies, x, y, vx, vy, count - the decoded bodies of the current frame
+     * nextBodies, nextX, nextY, nextVX, nextVY, nextCount - the bodies of the frame that is
+     * recorded or decoded
+     * marked - the bodies one side of a restore is checked against, empty between restores
+     * oldest, newest - the first and last frames kept, current - the frame the game is at
+     * keyWrite, deltaWrite, removedWrite - where the next entries of the rings are written
+     * seeking - true while the game is moved to another frame, so its removals are not recorded
+     * lastSeekNanos - how long the last seek took
+     */
+    private BrickerGameManager gameManager;
+    private final int frameCapacity;
+    private final int keyframeInterval;
+    private final long[] keyframeOf;
+    private final long[] bodyStart;
+    private final int[] bodyCount;
+    private final long[] keyEnd;
+    private final long[] deltaEnd;
+    private final long[] removedEnd;
+    private final int[] lives;
+    private final GameObject[] keyBodies;
+    private final float[] keyX;
+    private final float[] keyY;
+    private final float[] keyVX;
+    private final float[] keyVY;
+    private final short[] deltaX;
+    private final short[] deltaY;
+    private final short[] deltaVX;
+    private final short[] deltaVY;
+    private int[] removed = new int[0];
+    private Brick[] bricks = new Brick[0];
+    private final GameObject[] bodies;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private int count;
+    private final GameObject[] nextBodies;
+    private final float[] nextX;
+    private final float[] nextY;
+    private final float[] nextVX;
+    private final float[] nextVY;
+    private int nextCount;
+    private final Set<GameObject> marked = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long oldest;
+    private long newest;
+    private long current;
+    private long keyWrite;
+    private long deltaWrite;
+    private long removedWrite;
+    private boolean seeking;
+    private long lastSeekNanos;
+
+    /**
+     * constructs a buffer of the seconds of {@value #SECONDS_PROPERTY}, with a keyframe every
+     * {@value #KEYFRAME_PROPERTY} frames
+     */
+    public RewindBuffer() {
+        this(readSeconds() * FRAMES_PER_SECOND,
+                Integer.getInteger(KEYFRAME_PROPERTY, DEFAULT_KEYFRAME_INTERVAL));
+    }
+
+    /**
+     * constructs an empty buffer
+     * @param frameCapacity    the most frames kept
+     * @param keyframeInterval frames from one keyframe to the next
+     */
+    public RewindBuffer(int frameCapacity, int keyframeInterval) {
+        if (frameCapacity <= keyframeInterval || keyframeInterval < 1) {
+            throw new IllegalArgumentException("cannot keep " + frameCapacity +
+                    " frames with a keyframe every " + keyframeInterval);
+        }
+        this.frameCapacity = frameCapacity;
+        this.keyframeInterval = keyframeInterval;
+        keyframeOf = new long[frameCapacity];
+        bodyStart = new long[frameCapacity];
+        bodyCount = new int[frameCapacity];
+        keyEnd = new long[frameCapacity];
+        deltaEnd = new long[frameCapacity];
+        removedEnd = new long[frameCapacity];
+        lives = new int[frameCapacity];
+        // every keyframe may hold many pucks, so the keyframes get as many bodies as the rest
+        int bodySlots = frameCapacity * BODIES_PER_FRAME;
+        keyBodies = new GameObject[bodySlots];
+        keyX = new float[bodySlots];
+        keyY = new float[bodySlots];
+        keyVX = new float[bodySlots];
+        keyVY = new float[bodySlots];
+        deltaX = new short[bodySlots];
+        deltaY = new short[bodySlots];
+        deltaVX = new short[bodySlots];
+        deltaVY = new short[bodySlots];
+        bodies = new GameObject[bodySlots];
+        x = new float[bodySlots];
+        y = new float[bodySlots];
+        vx = new float[bodySlots];
+        vy = new float[bodySlots];
+        nextBodies = new GameObject[bodySlots];
+        nextX = new float[bodySlots];
+        nextY = new float[bodySlots];
+        nextVX = new float[bodySlots];
+        nextVY = new float[bodySlots];
+        clear();
+    }
+
+    /**
+     * @return true if {@value #SECONDS_PROPERTY} turns rewinding on
+     */
+    public static boolean isEnabled() {
+        return readSeconds() > 0;
+    }
+
+    /**
+     * @return the seconds of {@value #SECONDS_PROPERTY}, or 0 when it is unset or invalid
+     */
+    private static int readSeconds() {
+        return Math.max(0, Integer.getInteger(SECONDS_PROPERTY, 0));
+    }
+
+    @Override
+    public void onGameInitialized(BrickerGameManager gameManager) {
+        this.gameManager = gameManager;
+        int brickCount = Math.max(1, gameManager.getBrickLayout().brickCount());
+        if (removed.length != brickCount) {
+            removed = new int[brickCount];
+            bricks = new Brick[brickCount];
+        }
+        clear();
+        record();
+    }
+
+    @Override
+    public void onBrickRemoved(Brick brick) {
+        int index = brick.getIndex();
+        if (seeking || index < 0 || index >= bricks.length) return;
+        forgetFuture();
+        // a brick is removed once in a timeline, so the ring never holds more than the bricks
+        removed[(int) (removedWrite++ % removed.length)] = index;
+        bricks[index] = brick;
+    }
+
+    @Override
+    public void onFrameEnd(float deltaTime) {
+        record();
+    }
+
+    /**
+     * Moves the game one frame back, if it was recorded.
+     * @return true if the game was moved
+     */
+    public boolean stepBack() {
+        return current > oldest && seek(current - 1);
+    }
+
+    /**
+     * Moves the game one frame forward, if the game was rewound.
+     * @return true if the game was moved
+     */
+    public boolean stepForward() {
+        return current < newest && seek(current + 1);
+    }
+
+    /**
+     * Moves the game to a recorded frame: puts back or removes the bricks removed since, adds
+     * or removes the pucks and hearts, and restores the kinematics of all the bodies and the
+     * lives.
+     * @param frame a frame between {@link #getOldestFrame} and {@link #getNewestFrame}
+     * @return true if the game is at that frame
+     */
+    public boolean seek(long frame) {
+        if (frame < oldest || frame > newest) return false;
+        long start = System.nanoTime();
+        seeking = true;
+        while (current > frame) {
+            long from = removedEnd[slot(current - 1)];
+            for (long i = removedEnd[slot(current)] - 1; i >= from; i--) {
+                gameManager.undoBrickRemoval(bricks[removed[(int) (i % removed.length)]]);
+            }
+            current--;
+        }
+        while (current < frame) {
+            current++;
+            long to = removedEnd[slot(current)];
+            for (long i = removedEnd[slot(current - 1)]; i < to; i++) {
+                gameManager.redoBrickRemoval(bricks[removed[(int) (i % removed.length)]]);
+            }
+        }
+        decode(frame);
+        restoreBodies();
+        gameManager.restoreLives(lives[slot(frame)]);
+        seeking = false;
+        lastSeekNanos = System.nanoTime() - start;
+        return true;
+    }
+
+    /**
+     * @return the first frame that can be rewound to
+     */
+    public long getOldestFrame() {
+        return oldest;
+    }
+
+    /**
+     * @return the last recorded frame
+     */
+    public long getNewestFrame() {
+        return newest;
+    }
+
+    /**
+     * @return the frame the game is at
+     */
+    public long getCurrentFrame() {
+        return current;
+    }
+
+    /**
+     * @return true if the game was rewound and did not resume yet
+     */
+    public boolean isRewound() {
+        return current < newest;
+    }
+
+    /**
+     * @return how long the last seek took, in nanoseconds
+     */
+    public long getLastSeekNanos() {
+        return lastSeekNanos;
+    }
+
+    /**
+     * @param frame a frame
+     * @return the slot of the frame in the frame ring
+     */
+    private int slot(long frame) {
+        return (int) (frame % frameCapacity);
+    }
+
+    /**
+     * Forgets all the frames, the next frame recorded is a keyframe.
+     */
+    private void clear() {
+        oldest = newest + 1;
+        current = newest;
+        count = 0;
+    }
+
+    /**
+     * Forgets the frames after the current one, once the game resumed from it.
+     */
+    private void forgetFuture() {
+        if (current == newest) return;
+        newest = current;
+        int slot = slot(current);
+        keyWrite = keyEnd[slot];
+        deltaWrite = deltaEnd[slot];
+        removedWrite = removedEnd[slot];
+    }
+
+    /**
+     * Records the state at the end of a frame, as a keyframe or as differences.
+     */
+    private void record() {
+        forgetFuture();
+        gatherBodies();
+        if (nextCount > keyBodies.length) {
+            // more bodies than a keyframe can hold, nothing before this frame can be decoded
+            clear();
+            return;
+        }
+        long frame = newest + 1;
+        boolean key = newest < oldest || frame - keyframeOf[slot(newest)] >= keyframeInterval ||
+                !sameBodies() || !differencesFit();
+        if (!makeRoom(key)) {
+            key = true;
+            makeRoom(true);
+        }
+        int slot = slot(frame);
+        if (key) {
+            keyframeOf[slot] = frame;
+            bodyStart[slot] = keyWrite;
+            writeKeyframe();
+        } else {
+            keyframeOf[slot] = keyframeOf[slot(newest)];
+            bodyStart[slot] = deltaWrite;
+            writeDifferences();
+        }
+        bodyCount[slot] = count;
+        keyEnd[slot] = keyWrite;
+        deltaEnd[slot] = deltaWrite;
+        removedEnd[slot] = removedWrite;
+        lives[slot] = gameManager.getLivesLeft();
+        newest = frame;
+        current = frame;
+    }
+
+    /**
+     * Collects the user paddle, the balls and the falling hearts into the next bodies.
+     */
+    private void gatherBodies() {
+        nextCount = 0;
+        addNextBody(gameManager.getUserPaddle());
+        for (Ball ball : gameManager.getLiveBalls()) {
+            addNextBody(ball);
+        }
+        // the pucks are among the live balls already
+        OffscreenSweeper sweeper = gameManager.getOffscreenSweeper();
+        for (int i = 0; i < sweeper.size(); i++) {
+            if (!(sweeper.get(i) instanceof Ball)) {
+                addNextBody(sweeper.get(i));
+            }
+        }
+    }
+
+    /**
+     * @param body a body to add to the next bodies, if there is room for it
+     */
+    private void addNextBody(GameObject body) {
+        if (nextCount < nextBodies.length) {
+            Vector2 topLeft = body.getTopLeftCorner();
+            Vector2 velocity = body.getVelocity();
+            nextBodies[nextCount] = body;
+            nextX[nextCount] = topLeft.x();
+            nextY[nextCount] = topLeft.y();
+            nextVX[nextCount] = velocity.x();
+            nextVY[nextCount] = velocity.y();
+        }
+        nextCount++;
+    }
+
+    /**
+     * @return true if the next bodies are the bodies of the current frame, in the same order
+     */
+    private boolean sameBodies() {
+        if (nextCount != count) return false;
+        for (int i = 0; i < count; i++) {
+            if (nextBodies[i] != bodies[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the differences of all the next bodies fit in their quantized form
+     */
+    private boolean differencesFit() {
+        for (int i = 0; i < count; i++) {
+            if (!fits(nextX[i] - x[i], POSITION_SCALE) || !fits(nextY[i] - y[i], POSITION_SCALE) ||
+                    !fits(nextVX[i] - vx[i], VELOCITY_SCALE) ||
+                    !fits(nextVY[i] - vy[i], VELOCITY_SCALE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param difference a difference between two frames
+     * @param scale      steps of the difference per unit
+     * @return true if the quantized difference fits in a short
+     */
+    private static boolean fits(float difference, float scale) {
+        return Math.abs(Math.round(difference * scale)) <= Short.MAX_VALUE;
+    }
+
+    /**
+     * Drops the oldest keyframes and the frames that follow them, until the next frame fits.
+     * @param key whether the next frame is a keyframe
+     * @return false if all the frames were dropped, so the next frame must be a keyframe
+     */
+    private boolean makeRoom(boolean key) {
+        while (oldest <= newest && (newest + 1 - oldest >= frameCapacity ||
+                (key ? keyWrite + nextCount - bodyStart[slot(oldest)] > keyBodies.length :
+                        deltaWrite + nextCount - deltaEnd[slot(oldest)] > deltaX.length))) {
+            long next = oldest + 1;
+            while (next <= newest && keyframeOf[slot(next)] != next) {
+                next++;
+            }
+            if (next > newest) {
+                clear();
+                return false;
+            }
+            oldest = next;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the next bodies as a keyframe, and makes them the current bodies.
+     */
+    private void writeKeyframe() {
+        for (int i = 0; i < nextCount; i++) {
+            int ring = (int) (keyWrite++ % keyBodies.length);
+            keyBodies[ring] = nextBodies[i];
+            keyX[ring] = x[i] = nextX[i];
+            keyY[ring] = y[i] = nextY[i];
+            keyVX[ring] = vx[i] = nextVX[i];
+            keyVY[ring] = vy[i] = nextVY[i];
+            bodies[i] = nextBodies[i];
+        }
+        // the previous bodies are not held after them, so removed pucks can be collected
+        for (int i = nextCount; i < count; i++) {
+            bodies[i] = null;
+        }
+        count = nextCount;
+    }
+
+    /**
+     * Writes the differences of the next bodies from the current ones, and moves the current
+     * bodies by the quantized differences, as decoding does.
+     */
+    private void writeDifferences() {
+        for (int i = 0; i < count; i++) {
+            int ring = (int) (deltaWrite++ % deltaX.length);
+            short dx = (short) Math.round((nextX[i] - x[i]) * POSITION_SCALE);
+            short dy = (short) Math.round((nextY[i] - y[i]) * POSITION_SCALE);
+            short dvx = (short) Math.round((nextVX[i] - vx[i]) * VELOCITY_SCALE);
+            short dvy = (short) Math.round((nextVY[i] - vy[i]) * VELOCITY_SCALE);
+            deltaX[ring] = dx;
+            deltaY[ring] = dy;
+            deltaVX[ring] = dvx;
+            deltaVY[ring] = dvy;
+            x[i] += dx / POSITION_SCALE;
+            y[i] += dy / POSITION_SCALE;
+            vx[i] += dvx / VELOCITY_SCALE;
+            vy[i] += dvy / VELOCITY_SCALE;
+        }
+    }
+
+    /**
+     * Decodes the bodies of a frame into the next bodies: its keyframe, then the differences
+     * of every frame after the keyframe.
+     * @param frame a kept frame
+     */
+    private void decode(long frame) {
+        long key = keyframeOf[slot(frame)];
+        long start = bodyStart[slot(key)];
+        nextCount = bodyCount[slot(key)];
+        for (int i = 0; i < nextCount; i++) {
+            int ring = (int) ((start + i) % keyBodies.length);
+            nextBodies[i] = keyBodies[ring];
+            nextX[i] = keyX[ring];
+            nextY[i] = keyY[ring];
+            nextVX[i] = keyVX[ring];
+            nextVY[i] = keyVY[ring];
+        }
+        for (long f = key + 1; f <= frame; f++) {
+            start = bodyStart[slot(f)];
+            for (int i = 0; i < nextCount; i++) {
+                int ring = (int) ((start + i) % deltaX.length);
+                nextX[i] += deltaX[ring] / POSITION_SCALE;
+                nextY[i] += deltaY[ring] / POSITION_SCALE;
+                nextVX[i] += deltaVX[ring] / VELOCITY_SCALE;
+                nextVY[i] += deltaVY[ring] / VELOCITY_SCALE;
+            }
+        }
+    }
+
+    /**
+     * Takes the current bodies that are not among the decoded ones out of the game, puts the
+     * decoded ones that are not in the game back, moves all of them to their decoded
+     * kinematics, and makes them the current bodies.
+     */
+    private void restoreBodies() {
+        mark(nextBodies, nextCount);
+        for (int i = 0; i < count; i++) {
+            if (!marked.contains(bodies[i]) &&
+                    gameManager.removeGameObjectFromGame(bodies[i]) &&
+                    bodies[i] instanceof Transient) {
+                ((Transient) bodies[i]).onDespawn();
+            }
+        }
+        mark(bodies, count);
+        for (int i = 0; i < nextCount; i++) {
+            GameObject body = nextBodies[i];
+            if (!marked.contains(body)) {
+                gameManager.addGameObjectFromGame(body);
+                if (body instanceof Ball) {
+                    ((Ball) body).setInterceptPlanner(gameManager.getInterceptPlanner());
+                }
+            }
+        }
+        marked.clear();
+        for (int i = 0; i < nextCount; i++) {
+            GameObject body = nextBodies[i];
+            body.setTopLeftCorner(new Vector2(nextX[i], nextY[i]));
+            body.setVelocity(new Vector2(nextVX[i], nextVY[i]));
+            bodies[i] = body;
+            x[i] = nextX[i];
+            y[i] = nextY[i];
+            vx[i] = nextVX[i];
+            vy[i] = nextVY[i];
+        }
+        for (int i = nextCount; i < count; i++) {
+            bodies[i] = null;
+        }
+        count = nextCount;
+    }
+
+    /**
+     * Makes the first bodies of an array the marked ones.
+     * @param array  bodies
+     * @param length how many of them to mark
+     */
+    private void mark(GameObject[] array, int length) {
+        marked.clear();
+        for (int i = 0; i < length; i++) {
+            marked.add(array[i]);
+        }
+    }
+}
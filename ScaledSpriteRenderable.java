@@ -0,0 +1,69 @@
+package bricker.rendering;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+/**
+ * An image renderable that draws a pre-scaled copy of its image from the {@link SpriteCache},
+ * instead of scaling the image to the object's dimensions in every frame.
+ * Rotated and flipped drawing, which the game does not use, falls back to regular drawing.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see SpriteCache
+ */
+public class ScaledSpriteRenderable extends ImageRenderable {
+    /** Opaqueness of a fully opaque object */
+    private static final double OPAQUE = 1.0;
+
+    /** The source image. */
+    private final Image image;
+
+    /**
+     * constructs a renderable of the given image
+     * @param image the source image, in any size
+     */
+    public ScaledSpriteRenderable(Image image) {
+        super(image);
+        this.image = image;
+    }
+
+    /**
+     * Draws the sprite of the object's size at the object's position.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                       double degreesCounterClockwise, boolean isFlippedHorizontally,
+                       boolean isFlippedVertically, double opaqueness) {
+        if (degreesCounterClockwise != 0 || isFlippedHorizontally || isFlippedVertically) {
+            super.render(g, topLeftCorner, dimensions, degreesCounterClockwise,
+                    isFlippedHorizontally, isFlippedVertically, opaqueness);
+            return;
+        }
+        int width = Math.round(dimensions.x());
+        int height = Math.round(dimensions.y());
+        BufferedImage sprite = SpriteCache.getInstance().get(image, width, height,
+                g.getDeviceConfiguration());
+        if (sprite == null) {
+            super.render(g, topLeftCorner, dimensions, degreesCounterClockwise,
+                    isFlippedHorizontally, isFlippedVertically, opaqueness);
+            return;
+        }
+        int x = Math.round(topLeftCorner.x());
+        int y = Math.round(topLeftCorner.y());
+        if (opaqueness >= OPAQUE) {
+            g.drawImage(sprite, x, y, null);
+            return;
+        }
+        Composite previous = g.getComposite();
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        g.drawImage(sprite, x, y, null);
+        g.setComposite(previous);
+    }
+}
@@ -0,0 +1,88 @@
+package bricker.main;
+
+import bricker.brick_strategies.BasicCollisionStrategy;
+import bricker.brick_strategies.DoubleStrategy;
+import bricker.brick_strategies.ExplosiveStrategy;
+import bricker.brick_strategies.ExtraBallsStrategy;
+import bricker.brick_strategies.ExtraLifeStrategy;
+import bricker.brick_strategies.ExtraPaddleStrategy;
+import bricker.brick_strategies.TurboStrategy;
+import bricker.gameobjects.Brick;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the score of the current game. Every destroyed brick is worth points by the type of
+ * its strategy, including the bricks destroyed by chain reactions. The score starts over
+ * whenever the game is initialized.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see Leaderboard
+ */
+public class ScoreKeeper implements GameEventListener {
+    /** Points of a brick whose strategy has no points of its own */
+    private static final int DEFAULT_POINTS = 10;
+
+    /** Points of a brick, by the type of its strategy */
+    private static final Map<Class<?>, Integer> POINTS = new HashMap<>();
+
+    static {
+        POINTS.put(BasicCollisionStrategy.class, 10);
+        POINTS.put(ExtraLifeStrategy.class, 15);
+        POINTS.put(ExtraBallsStrategy.class, 20);
+        POINTS.put(ExtraPaddleStrategy.class, 20);
+        POINTS.put(TurboStrategy.class, 25);
+        POINTS.put(DoubleStrategy.class, 30);
+        POINTS.put(ExplosiveStrategy.class, 40);
+    }
+
+    /**
+     * private members
+     * score - points of the current game
+     * bricksDestroyed - bricks destroyed in the current game
+     */
+    private int score;
+    private int bricksDestroyed;
+
+    /**
+     * @param strategy the strategy of a brick
+     * @return the points the brick is worth
+     */
+    public static int pointsOf(Object strategy) {
+        return POINTS.getOrDefault(strategy.getClass(), DEFAULT_POINTS);
+    }
+
+    /**
+     * @return the points of the current game
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return the number of bricks destroyed in the current game
+     */
+    public int getBricksDestroyed() {
+        return bricksDestroyed;
+    }
+
+    @Override
+    public void onGameInitialized(BrickerGameManager gameManager) {
+        score = 0;
+        bricksDestroyed = 0;
+    }
+
+    @Override
+    public void onBrickRemoved(Brick brick) {
+        score += pointsOf(brick.getStrategy());
+        bricksDestroyed++;
+    }
+
+    @Override
+    public void onBrickRestored(Brick brick) {
+        score -= pointsOf(brick.getStrategy());
+        bricksDestroyed--;
+    }
+}
@@ -0,0 +1,204 @@
+package bricker.main;
+
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hosts many independent, headless Bricker games in a single JVM, so the start-up time and
+ * the heap are paid once for all of them. Every frame, all sessions are ticked on a
+ * work-stealing {@link ForkJoinPool}. The time each tick took is recorded per session, and
+ * a latency report is printed at the end of the run.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#initializeHeadless()
+ */
+public class SessionHost {
+    /** Number of sessions hosted when none is given on the command line */
+    private static final int DEFAULT_SESSIONS = 200;
+
+    /** Number of frames simulated when none is given on the command line */
+    private static final int DEFAULT_FRAMES = 3600;
+
+    /** Bricks per row of every game when none is given on the command line */
+    private static final int DEFAULT_BRICKS_PER_ROW = 8;
+
+    /** Rows of bricks of every game when none is given on the command line */
+    private static final int DEFAULT_ROWS = 7;
+
+    /** Simulated time of a single frame, in seconds (60 frames per second) */
+    private static final float FRAME_TIME = 1 / 60f;
+
+    /** Sessions ticked by one task before the work is no longer split */
+    private static final int SESSIONS_PER_TASK = 4;
+
+    /** Nanoseconds in a microsecond, for printing */
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    /** Nanoseconds in a second, for printing */
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    /** Bytes in a megabyte, for printing */
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    /** Percentiles printed in the report */
+    private static final double P50 = 0.50;
+    private static final double P99 = 0.99;
+
+    /** Width and height of every hosted game's board */
+    private static final Vector2 BOARD_DIMENSIONS = new Vector2(700, 500);
+
+    /**
+     * A hosted game and the duration of each of its ticks.
+     */
+    private static final class Session {
+        private final BrickerGameManager gameManager;
+        private final long[] tickNanos;
+
+        private Session(BrickerGameManager gameManager, int frames) {
+            this.gameManager = gameManager;
+            this.tickNanos = new long[frames];
+        }
+    }
+
+    /**
+     * Ticks a range of sessions once, splitting the range so idle workers can steal half.
+     */
+    @SuppressWarnings("serial") // a fork/join task, never serialized
+    private static final class TickRange extends RecursiveAction {
+        private final Session[] sessions;
+        private final int from;
+        private final int to;
+        private final int frame;
+
+        private TickRange(Session[] sessions, int from, int to, int frame) {
+            this.sessions = sessions;
+            this.from = from;
+            this.to = to;
+            this.frame = frame;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SESSIONS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    Session session = sessions[i];
+                    long start = System.nanoTime();
+                    session.gameManager.update(FRAME_TIME);
+                    session.tickNanos[frame] = System.nanoTime() - start;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TickRange(sessions, from, middle, frame),
+                    new TickRange(sessions, middle, to, frame));
+        }
+    }
+
+    /**
+     * private members
+     * sessions - the hosted games
+     * frames - number of frames every session is ticked
+     * pool - the work-stealing pool that ticks the sessions
+     */
+    private final Session[] sessions;
+    private final int frames;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates and initializes the hosted games.
+     *
+     * @param numSessions  Number of independent games to host.
+     * @param frames       Number of frames every game is ticked.
+     * @param bricksPerRow Number of bricks in each row of every game.
+     * @param rows         Number of rows of bricks in every game.
+     */
+    public SessionHost(int numSessions, int frames, int bricksPerRow, int rows) {
+        this.frames = frames;
+        this.sessions = new Session[numSessions];
+        this.pool = new ForkJoinPool();
+        for (int i = 0; i < numSessions; i++) {
+            BrickerGameManager gameManager = new BrickerGameManager(
+                    BrickerGameManager.BRICKER, BOARD_DIMENSIONS, bricksPerRow, rows);
+            gameManager.initializeHeadless();
+            sessions[i] = new Session(gameManager, frames);
+        }
+    }
+
+    /**
+     * Ticks every session once per frame, for all the frames, and prints the report.
+     */
+    public void run() {
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            pool.invoke(new TickRange(sessions, 0, sessions.length, frame));
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        printReport(elapsed);
+    }
+
+    /**
+     * Prints the tick latency of every session, the latency over all ticks, and the heap that
+     * is used per session.
+     *
+     * @param elapsedNanos Wall-clock time of the whole run.
+     */
+    private void printReport(long elapsedNanos) {
+        System.out.printf("%-8s %10s %10s %10s %6s%n",
+                "session", "p50(us)", "p99(us)", "max(us)", "games");
+        long[] all = new long[sessions.length * frames];
+        for (int i = 0; i < sessions.length; i++) {
+            long[] ticks = sessions[i].tickNanos.clone();
+            Arrays.sort(ticks);
+            System.arraycopy(ticks, 0, all, i * frames, frames);
+            System.out.printf("%-8d %10.1f %10.1f %10.1f %6d%n", i,
+                    percentile(ticks, P50) / NANOS_PER_MICRO,
+                    percentile(ticks, P99) / NANOS_PER_MICRO,
+                    ticks[ticks.length - 1] / NANOS_PER_MICRO,
+                    sessions[i].gameManager.getCompletedGames());
+        }
+        Arrays.sort(all);
+        Runtime runtime = Runtime.getRuntime();
+        long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("all sessions: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                percentile(all, P50) / NANOS_PER_MICRO,
+                percentile(all, P99) / NANOS_PER_MICRO,
+                all[all.length - 1] / NANOS_PER_MICRO);
+        System.out.printf("%d sessions x %d frames in %.2f s on %d workers (%.0f ticks/s)%n",
+                sessions.length, frames, elapsedNanos / NANOS_PER_SECOND,
+                pool.getParallelism(), all.length / (elapsedNanos / NANOS_PER_SECOND));
+        System.out.printf("heap used: %.1f MB (%.2f MB per session)%n",
+                usedHeap / BYTES_PER_MB, usedHeap / BYTES_PER_MB / sessions.length);
+    }
+
+    /**
+     * @param sorted     Durations sorted in ascending order.
+     * @param percentile The requested percentile, between 0 and 1.
+     * @return the duration at the given percentile.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Runs the session host.
+     *
+     * @param args Optional command-line arguments:
+     *             args[0] - number of sessions (int),
+     *             args[1] - number of frames (int),
+     *             args[2] - number of bricks per row (int),
+     *             args[3] - number of rows (int).
+     */
+    public static void main(String[] args) {
+        int numSessions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SESSIONS;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_FRAMES;
+        int bricksPerRow = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BRICKS_PER_ROW;
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_ROWS;
+        new SessionHost(numSessions, frames, bricksPerRow, rows).run();
+    }
+}
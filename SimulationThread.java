@@ -0,0 +1,198 @@
+package bricker.main;
+
+import bricker.rendering.RenderSnapshot;
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the simulation of a game (updates, collisions, strategies) on its own thread, at a
+ * fixed rate, so slow frames do not slow the physics down and slow physics steps do not
+ * delay frames. After every step, the thread records a {@link RenderSnapshot} of the game and
+ * publishes it through a {@link TripleBuffer}. The window thread only draws the newest
+ * snapshot, interpolated between the positions before and after its step, and never touches
+ * the game objects. Keyboard input reaches the simulation through the {@link InputEventQueue}.
+ * <p>
+ * When the simulation falls behind by more than a few steps, the missed steps are dropped
+ * instead of being run in a burst.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#render
+ */
+public class SimulationThread implements Runnable {
+    /** System property that runs the simulation on its own thread (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.simThread";
+
+    /** System property of the number of simulation steps per second */
+    public static final String RATE_PROPERTY = "bricker.simRate";
+
+    /** Simulation steps per second when none is set */
+    private static final int DEFAULT_RATE = 120;
+
+    /** Steps run in a row to catch up, before the rest of the backlog is dropped */
+    private static final int MAX_CATCH_UP_STEPS = 4;
+
+    /** Nanoseconds in a second */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final String THREAD_NAME = "bricker-simulation";
+
+    /**
+     * private members
+     * gameManager - the simulated game
+     * stepNanos, stepSeconds - duration of a step
+     * snapshots - the snapshots handed over to the window thread
+     * previous, current - top left corner of every object at the previous and current step
+     * previousCamera - top left corner of the camera at the previous step
+     * thread - the simulation thread, null before start
+     * running - cleared to stop the thread
+     * steps, droppedSteps - statistics
+     */
+    private final BrickerGameManager gameManager;
+    private final long stepNanos;
+    private final float stepSeconds;
+    private final TripleBuffer<RenderSnapshot> snapshots;
+    private Map<GameObject, Vector2> previous;
+    private Map<GameObject, Vector2> current;
+    private Vector2 previousCamera;
+    private Thread thread;
+    private volatile boolean running;
+    private long steps;
+    private long droppedSteps;
+
+    /**
+     * constructs a simulation thread at the rate set by {@value #RATE_PROPERTY}, or at
+     * FixedPoint.STEP_RATE in fixed-point mode
+     * @param gameManager the game to simulate
+     */
+    public SimulationThread(BrickerGameManager gameManager) {
+        this.gameManager = gameManager;
+        int rate = FixedPoint.isEnabled() ? FixedPoint.STEP_RATE :
+                Integer.getInteger(RATE_PROPERTY, DEFAULT_RATE);
+        this.stepNanos = NANOS_PER_SECOND / rate;
+        this.stepSeconds = 1f / rate;
+        this.snapshots = new TripleBuffer<>(new RenderSnapshot(), new RenderSnapshot(),
+                new RenderSnapshot());
+        this.previous = new IdentityHashMap<>();
+        this.current = new IdentityHashMap<>();
+    }
+
+    /**
+     * @return true if the simulation should run on its own thread, as set by
+     * {@value #ENABLED_PROPERTY}
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Starts simulating.
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops simulating. When called from another thread, waits until the step in progress
+     * ended; when called from a step, the thread stops once the step ends.
+     */
+    public void stop() {
+        running = false;
+        if (thread == null || Thread.currentThread() == thread) return;
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Draws the newest snapshot, as it looked one step ago. Called by the window thread.
+     * @param g the graphics of the window
+     */
+    public void render(Graphics2D g) {
+        RenderSnapshot snapshot = snapshots.readSlot();
+        if (snapshot.getTime() == 0) return;
+        snapshot.render(g, System.nanoTime() - stepNanos);
+    }
+
+    /**
+     * @return the number of steps simulated
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the number of steps dropped because the simulation fell behind
+     */
+    public long getDroppedSteps() {
+        return droppedSteps;
+    }
+
+    /**
+     * Simulates the game at a fixed rate until stopped.
+     */
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < next) {
+                LockSupport.parkNanos(next - now);
+                continue;
+            }
+            for (int i = 0; i < MAX_CATCH_UP_STEPS && next <= now && running; i++) {
+                gameManager.simulate(stepSeconds);
+                steps++;
+                record(snapshots.writeSlot(), next - stepNanos, next);
+                snapshots.publish();
+                next += stepNanos;
+            }
+            if (next <= now) {
+                droppedSteps += (now - next) / stepNanos + 1;
+                next = now + stepNanos;
+            }
+        }
+    }
+
+    /**
+     * Fills a snapshot with every drawn object of the game, in drawing order.
+     */
+    private void record(RenderSnapshot snapshot, long stepStart, long stepEnd) {
+        Camera camera = gameManager.camera();
+        Vector2 cameraTo = camera == null ? Vector2.ZERO : camera.getTopLeftCorner();
+        snapshot.begin(stepStart, stepEnd, previousCamera == null ? cameraTo : previousCamera,
+                cameraTo);
+        previousCamera = cameraTo;
+        for (GameObject gameObject : gameManager.gameObjects()) {
+            Renderable renderable = gameObject.renderer().getRenderable();
+            if (renderable == null) continue;
+            Vector2 to = gameObject.getTopLeftCorner();
+            Vector2 from = previous.get(gameObject);
+            current.put(gameObject, to);
+            snapshot.add(renderable, from == null ? to : from, to, gameObject.getDimensions(),
+                    gameObject.renderer().getOpaqueness(),
+                    gameObject.getCoordinateSpace() == CoordinateSpace.CAMERA_COORDINATES);
+        }
+        Map<GameObject, Vector2> swap = previous;
+        previous = current;
+        current = swap;
+        current.clear();
+    }
+}
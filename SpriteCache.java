@@ -0,0 +1,190 @@
+package bricker.rendering;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps every (image, on-screen size) pair that is drawn as a ready-to-blit copy, already
+ * scaled and in the pixel format of the screen, so drawing a sprite is a straight copy
+ * instead of a scaled draw. Entries are evicted in least-recently-used order once the cache
+ * holds more than its memory cap. The cache is shared by all the windows of the process.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ScaledSpriteRenderable
+ */
+public final class SpriteCache {
+    /** System property that turns the cache on or off (on by default) */
+    public static final String ENABLED_PROPERTY = "bricker.spriteCache";
+
+    /** System property of the memory cap, in megabytes */
+    public static final String CAP_PROPERTY = "bricker.spriteCacheMb";
+
+    private static final String DEFAULT_CAP_MB = "32";
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    /** Bytes per pixel of a cached sprite */
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /** The cache of the process */
+    private static final SpriteCache INSTANCE = new SpriteCache(
+            Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")),
+            Long.parseLong(System.getProperty(CAP_PROPERTY, DEFAULT_CAP_MB)) * BYTES_PER_MB);
+
+    /**
+     * Identifies a sprite: the source image (by identity) and the size it is drawn at.
+     */
+    private static final class Key {
+        private final Image source;
+        private final int width;
+        private final int height;
+
+        private Key(Image source, int width, int height) {
+            this.source = source;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) return false;
+            Key key = (Key) other;
+            return source == key.source && width == key.width && height == key.height;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(source) * 31 + width) * 31 + height;
+        }
+    }
+
+    /**
+     * private members
+     * enabled - when false every lookup misses, and sprites are scaled when drawn
+     * capBytes - the memory cap
+     * sprites - the cached sprites, in access order (least recently used first)
+     * usedBytes - memory taken by the cached sprites
+     * hits, misses, evictions - statistics
+     */
+    private final boolean enabled;
+    private final long capBytes;
+    private final LinkedHashMap<Key, BufferedImage> sprites;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * constructs a cache
+     * @param enabled  whether sprites are cached at all
+     * @param capBytes the memory cap, in bytes
+     */
+    public SpriteCache(boolean enabled, long capBytes) {
+        this.enabled = enabled;
+        this.capBytes = capBytes;
+        this.sprites = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the cache shared by the whole process
+     */
+    public static SpriteCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the image scaled to the given size, in a format compatible with the graphics it
+     * is drawn on, creating it if needed.
+     * @param source the image to draw
+     * @param width  the on-screen width, in pixels
+     * @param height the on-screen height, in pixels
+     * @param configuration the configuration of the graphics the sprite is drawn on
+     * @return the scaled sprite, or null if it can not be cached (caching is off, the size is
+     * empty, or the sprite alone is larger than the cap)
+     */
+    public synchronized BufferedImage get(Image source, int width, int height,
+                                          GraphicsConfiguration configuration) {
+        long bytes = (long) width * height * BYTES_PER_PIXEL;
+        if (!enabled || width <= 0 || height <= 0 || bytes > capBytes) return null;
+        Key key = new Key(source, width, height);
+        BufferedImage sprite = sprites.get(key);
+        if (sprite != null) {
+            hits++;
+            return sprite;
+        }
+        misses++;
+        sprite = scale(source, width, height, configuration);
+        sprites.put(key, sprite);
+        usedBytes += bytes;
+        evictOverCap();
+        return sprite;
+    }
+
+    /**
+     * @return the number of lookups that found a cached sprite
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of lookups that had to scale a new sprite
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of sprites evicted to stay within the memory cap
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the memory taken by the cached sprites, in bytes
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Evicts least recently used sprites until the cache is within its cap.
+     */
+    private void evictOverCap() {
+        Iterator<Map.Entry<Key, BufferedImage>> eldest = sprites.entrySet().iterator();
+        while (usedBytes > capBytes && eldest.hasNext()) {
+            Map.Entry<Key, BufferedImage> entry = eldest.next();
+            usedBytes -= (long) entry.getKey().width * entry.getKey().height * BYTES_PER_PIXEL;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Draws the source image, scaled once with good quality, into a translucent image in the
+     * pixel format of the screen.
+     */
+    private static BufferedImage scale(Image source, int width, int height,
+                                       GraphicsConfiguration configuration) {
+        BufferedImage sprite = configuration != null ?
+                configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT) :
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D graphics = sprite.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+        return sprite;
+    }
+}
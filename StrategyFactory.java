@@ -1,34 +1,41 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.AIPaddle;
 import bricker.gameobjects.Ball;
+import bricker.gameobjects.Heart;
+import bricker.gameobjects.Puck;
 import bricker.main.BrickerGameManager;
+import bricker.profiling.GameEvents;
 import danogl.GameObject;
 import danogl.gui.ImageReader;
 import danogl.gui.Sound;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 
-import java.util.Random;
-
 /**
  * A factory for generating random collision strategies for bricks.
  * Depending on a random number, this factory returns either a basic strategy
  * or one of several advanced collision strategies like extra life, turbo mode, etc.
+ * The odds come from the weight table of the game.
  *
  * @author Ishay Shaul
  * @author Maoz Bar Shimon
  * @see CollisionStrategy
  */
 public class StrategyFactory{
+    /** System property that gives every brick the same strategy, for load tests. One of
+     * basic, double, extraBalls, extraPaddle, turbo, extraLife or explosive; unset for random */
+    public static final String FORCED_STRATEGY_PROPERTY = "bricker.forcedStrategy";
+
+    private static final int NOT_FORCED = -1;
     private static final String PUCK_IMAGE_PATH = "assets/mockBall.png";
     private static final String HEART_IMAGE_PATH = "assets/heart.png";
-    private static final int BASIC_STRATEGY_PROBABILITY = 5;
-    private static final int DOUBLE_STRATEGY_INDEX = 5;
-    private static final int EXTRA_BALLS_INDEX = 6;
-    private static final int EXTRA_PADDLE_INDEX = 7;
-    private static final int TURBO_INDEX = 8;
-    private static final int EXTRA_LIFE_INDEX = 9;
-    private static final int STRATEGY_BOUND = 10;
+
+    /** Every strategy a brick can get, and the objects the strategies add to the game */
+    private static final Class<?>[] STRATEGY_CLASSES = {BasicCollisionStrategy.class,
+            DoubleStrategy.class, ExtraBallsStrategy.class, ExtraPaddleStrategy.class,
+            TurboStrategy.class, ExtraLifeStrategy.class, ExplosiveStrategy.class,
+            ExtraPaddleState.class, Puck.class, Heart.class, AIPaddle.class};
 
 
     private final BrickerGameManager gameManager;
@@ -40,6 +47,8 @@ public class StrategyFactory{
 
     private final Renderable puckImage;
     private final Renderable heartImage;
+    private final int forcedIndex;
+    private final StrategyWeights weights;
 
 
     /**
@@ -64,37 +73,63 @@ public class StrategyFactory{
         this.sound = puckSound;
         this.mainBall = mainBall;
 
-        this.puckImage = imageReader.readImage(PUCK_IMAGE_PATH, true);
-        this.heartImage = imageReader.readImage(HEART_IMAGE_PATH, true);
+        this.puckImage = GameEvents.loadImage(imageReader, PUCK_IMAGE_PATH, true);
+        this.heartImage = GameEvents.loadImage(imageReader, HEART_IMAGE_PATH, true);
+        this.forcedIndex = forcedIndex(gameManager.getForcedStrategy());
+        this.weights = gameManager.getStrategyWeights();
+    }
+
+    /**
+     * Loads and initializes the classes of every strategy and of the objects they add, so the
+     * first brick of a kind that is hit in a game does not wait for its classes to load.
+     * @return the number of classes that were loaded
+     */
+    public static int preloadClasses(){
+        ClassLoader loader = StrategyFactory.class.getClassLoader();
+        for(Class<?> strategyClass : STRATEGY_CLASSES){
+            try {
+                Class.forName(strategyClass.getName(), true, loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return STRATEGY_CLASSES.length;
+    }
+
+    /**
+     * @param name the name of the forced strategy, null for none
+     * @return its index, or NOT_FORCED when it is null or unknown
+     */
+    private static int forcedIndex(String name){
+        int index = name == null ? -1 : StrategyWeights.indexOf(name);
+        return index >= 0 ? index : NOT_FORCED;
     }
 
     /**
      * Generates a random collision strategy for a brick.
-     * This method has a higher chance of returning a basic strategy,
-     * and occasionally returns a decorated/advanced strategy.
+     * With the default weights, this method has a higher chance of returning a basic
+     * strategy, and occasionally returns a decorated/advanced strategy.
      *
      * @return a CollisionStrategy instance
      */
     public CollisionStrategy randomStrategy(){
-       Random rand = new Random();
-       int num = rand.nextInt(STRATEGY_BOUND);
-        BasicCollisionStrategy baseStrategy = new BasicCollisionStrategy(gameManager, brickCounter);
-       if(num < BASIC_STRATEGY_PROBABILITY){
-           return baseStrategy;
-       }
-       switch (num){
-           case DOUBLE_STRATEGY_INDEX :
+       int kind = forcedIndex != NOT_FORCED ? forcedIndex :
+               weights.sample(gameManager.getRandom());
+       switch (kind){
+           case StrategyWeights.DOUBLE :
                return new DoubleStrategy(gameManager, brickCounter, sound, userPaddle, reader, mainBall);
-           case EXTRA_BALLS_INDEX :
+           case StrategyWeights.EXTRA_BALLS :
                return new ExtraBallsStrategy(
                        puckImage, sound, gameManager, brickCounter);
-           case EXTRA_PADDLE_INDEX :
+           case StrategyWeights.EXTRA_PADDLE :
                return new ExtraPaddleStrategy(gameManager, userPaddle, brickCounter);
-           case TURBO_INDEX :
+           case StrategyWeights.TURBO :
                 return new TurboStrategy(reader, gameManager, brickCounter, mainBall);
-           case EXTRA_LIFE_INDEX :
+           case StrategyWeights.EXTRA_LIFE :
                return new ExtraLifeStrategy(heartImage, gameManager, brickCounter);
+           case StrategyWeights.EXPLOSIVE :
+               return new ExplosiveStrategy(gameManager, brickCounter);
         }
-       return baseStrategy;
+       return new BasicCollisionStrategy(gameManager, brickCounter);
     }
 }
@@ -0,0 +1,277 @@
+package bricker.brick_strategies;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The odds of every strategy a brick can get, as whole-number weights, and an alias table
+ * (Vose's method) that samples them in constant time with a single random draw. The weights
+ * of the strategies a DoubleStrategy combines give the odds of its nested picks as well.
+ * The default table is the original odds: basic 5, every other strategy 1.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see StrategyFactory
+ */
+public final class StrategyWeights {
+    /** System property of the weight table, e.g. "basic=5,double=1,explosive=0". Strategies
+     * that are not listed keep their default weight, an invalid table is ignored */
+    public static final String WEIGHTS_PROPERTY = "bricker.strategyWeights";
+
+    /** Index of the basic strategy */
+    public static final int BASIC = 0;
+
+    /** Index of the double strategy */
+    public static final int DOUBLE = 1;
+
+    /** Index of the extra balls strategy */
+    public static final int EXTRA_BALLS = 2;
+
+    /** Index of the extra paddle strategy */
+    public static final int EXTRA_PADDLE = 3;
+
+    /** Index of the turbo strategy */
+    public static final int TURBO = 4;
+
+    /** Index of the extra life strategy */
+    public static final int EXTRA_LIFE = 5;
+
+    /** Index of the explosive strategy */
+    public static final int EXPLOSIVE = 6;
+
+    /** Names of the strategies, by index */
+    private static final String[] NAMES = {"basic", "double", "extraBalls", "extraPaddle",
+            "turbo", "extraLife", "explosive"};
+
+    /** Weights of the original odds, by index */
+    private static final int[] DEFAULT_WEIGHTS = {5, 1, 1, 1, 1, 1, 1};
+
+    /** Strategies a DoubleStrategy picks from, in the order of its own indices */
+    private static final int[] NESTED = {EXTRA_BALLS, EXTRA_PADDLE, TURBO, DOUBLE, EXTRA_LIFE};
+
+    /** Separates the entries of a table in {@value #WEIGHTS_PROPERTY} */
+    private static final String ENTRY_SEPARATOR = ",";
+
+    /** Separates a name from its weight in an entry */
+    private static final String WEIGHT_SEPARATOR = "=";
+
+    /** The original odds */
+    public static final StrategyWeights DEFAULT = new StrategyWeights(DEFAULT_WEIGHTS);
+
+    /**
+     * An alias table over whole-number weights. Every column is as tall as the sum of the
+     * weights; a column keeps its own outcome up to its threshold and its alias above it.
+     */
+    private static final class AliasTable {
+        private final int[] outcomes;
+        private final int[] thresholds;
+        private final int[] aliases;
+        private final int total;
+
+        /**
+         * @param outcomes the outcome of every weight
+         * @param weights  non-negative weights, at least one positive
+         */
+        private AliasTable(int[] outcomes, int[] weights) {
+            int columns = weights.length;
+            this.outcomes = outcomes;
+            this.thresholds = new int[columns];
+            this.aliases = new int[columns];
+            this.total = Arrays.stream(weights).sum();
+            // every weight scaled by the number of columns, so the columns are total tall
+            long[] scaled = new long[columns];
+            int[] small = new int[columns];
+            int[] large = new int[columns];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < columns; i++) {
+                scaled[i] = (long) weights[i] * columns;
+                if (scaled[i] < total) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                thresholds[less] = (int) scaled[less];
+                aliases[less] = more;
+                scaled[more] -= total - scaled[less];
+                if (scaled[more] < total) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // whatever is left fills its own column
+            while (largeCount > 0) {
+                int column = large[--largeCount];
+                thresholds[column] = total;
+                aliases[column] = column;
+            }
+            while (smallCount > 0) {
+                int column = small[--smallCount];
+                thresholds[column] = total;
+                aliases[column] = column;
+            }
+        }
+
+        /**
+         * @param random the source of the draw
+         * @return an outcome, with the odds of its weight
+         */
+        private int sample(Random random) {
+            int draw = random.nextInt(thresholds.length * total);
+            int column = draw / total;
+            return outcomes[draw % total < thresholds[column] ? column : aliases[column]];
+        }
+    }
+
+    /**
+     * private members
+     * weights - the weight of every strategy, by index
+     * table - samples all the strategies
+     * nestedTable - samples the strategies a DoubleStrategy combines
+     */
+    private final int[] weights;
+    private final AliasTable table;
+    private final AliasTable nestedTable;
+
+    /**
+     * Builds the alias tables of a weight table.
+     *
+     * @param weights the weight of every strategy, by index. Weights are not negative, at
+     *                least one is positive, and their sum times the number of strategies
+     *                fits in an int.
+     */
+    public StrategyWeights(int[] weights) {
+        if (weights.length != NAMES.length) {
+            throw new IllegalArgumentException("expected " + NAMES.length + " weights");
+        }
+        long sum = 0;
+        for (int weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("negative weight: " + weight);
+            }
+            sum += weight;
+        }
+        if (sum == 0 || sum * NAMES.length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("weights sum to " + sum);
+        }
+        this.weights = weights.clone();
+        int[] outcomes = new int[NAMES.length];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = i;
+        }
+        this.table = new AliasTable(outcomes, this.weights);
+        this.nestedTable = new AliasTable(NESTED, nestedWeights(this.weights));
+    }
+
+    /**
+     * @param weights the weight of every strategy
+     * @return the weights of the nested picks of a DoubleStrategy. A double never nests more
+     * than once, so if it is the only one with weight, the nested picks are uniform.
+     */
+    private static int[] nestedWeights(int[] weights) {
+        int[] nested = new int[NESTED.length];
+        boolean anyOther = false;
+        for (int i = 0; i < NESTED.length; i++) {
+            nested[i] = weights[NESTED[i]];
+            anyOther |= NESTED[i] != DOUBLE && nested[i] > 0;
+        }
+        if (!anyOther) {
+            Arrays.fill(nested, 1);
+        }
+        return nested;
+    }
+
+    /**
+     * Parses a table like "basic=5,double=1,explosive=0". Strategies that are not listed keep
+     * their default weight, and names are case-insensitive.
+     *
+     * @param table the table to parse
+     * @return the weights
+     * @throws IllegalArgumentException if an entry is malformed or the weights are invalid
+     */
+    public static StrategyWeights parse(String table) {
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        for (String entry : table.split(ENTRY_SEPARATOR)) {
+            String[] parts = entry.trim().split(WEIGHT_SEPARATOR);
+            int index = parts.length == 2 ? indexOf(parts[0].trim()) : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("bad weight entry: " + entry);
+            }
+            weights[index] = Integer.parseInt(parts[1].trim());
+        }
+        return new StrategyWeights(weights);
+    }
+
+    /**
+     * @return the table set with {@value #WEIGHTS_PROPERTY}, or the default one when it is
+     * unset or invalid
+     */
+    public static StrategyWeights fromProperty() {
+        String table = System.getProperty(WEIGHTS_PROPERTY);
+        if (table == null || table.isBlank()) {
+            return DEFAULT;
+        }
+        try {
+            return parse(table);
+        } catch (IllegalArgumentException e) {
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * @param name the name of a strategy, case-insensitive
+     * @return its index, or -1 if no strategy has that name
+     */
+    public static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param random the source of the draw
+     * @return the index of a strategy, with the odds of its weight
+     */
+    public int sample(Random random) {
+        return table.sample(random);
+    }
+
+    /**
+     * @param random the source of the draw
+     * @return the index of a strategy a DoubleStrategy combines, with the odds of its weight
+     */
+    public int sampleNested(Random random) {
+        return nestedTable.sample(random);
+    }
+
+    /**
+     * @param index the index of a strategy
+     * @return the probability a brick gets it
+     */
+    public double probability(int index) {
+        return (double) weights[index] / table.total;
+    }
+
+    /**
+     * @return the table in the format of {@value #WEIGHTS_PROPERTY}
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < NAMES.length; i++) {
+            if (i > 0) {
+                builder.append(ENTRY_SEPARATOR);
+            }
+            builder.append(NAMES[i]).append(WEIGHT_SEPARATOR).append(weights[i]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,454 @@
+package bricker.main;
+
+import bricker.gameobjects.AIPaddle;
+import bricker.gameobjects.Paddle;
+import danogl.util.Vector2;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs named load scenarios on a headless game for a fixed wall-clock time, and writes a
+ * report of each run: frame-time percentiles, garbage collections, the heap high-water mark,
+ * and the live objects and heap sampled over time. Reports are plain key=value files with the
+ * same keys in the same order on every run, so two builds can be compared with the compare
+ * command, which flags the metrics that got worse. A growing number of live objects or a
+ * growing heap over a long soak shows up as a positive slope in the report.
+ * <p>
+ * Frame times are kept in a histogram of fixed size, so the harness itself uses the same
+ * memory whether it runs for a minute or for hours.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see SessionHost
+ */
+public class StressHarness {
+    /** Run time of a scenario, in seconds, when none is given on the command line */
+    private static final int DEFAULT_SECONDS = 60;
+
+    /** Run time of the soak scenario, in seconds, when none is given on the command line */
+    private static final int SOAK_SECONDS = 3 * 60 * 60;
+
+    /** Directory of the reports when none is given on the command line */
+    private static final String DEFAULT_REPORT_DIRECTORY = "stress-reports";
+
+    /** Simulated time of a single frame, in seconds (60 frames per second) */
+    private static final float FRAME_TIME = 1 / 60f;
+
+    /** Width and height of the window the games are laid out for */
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+
+    /** Most samples of a run; longer runs sample less often */
+    private static final int MAX_SAMPLES = 600;
+
+    /** Shortest time between two samples, in nanoseconds */
+    private static final long MIN_SAMPLE_NANOS = 1_000_000_000L;
+
+    /** Frame times up to this many microseconds are counted one microsecond apart */
+    private static final int HISTOGRAM_MICROS = 100_000;
+
+    /** Relative growth of a metric over the baseline that counts as a regression */
+    private static final double REGRESSION_THRESHOLD = 0.10;
+
+    /** Share of the samples, from the start, left out of the slopes as warm-up */
+    private static final double WARMUP_SHARE = 0.5;
+
+    /** Vertical distance between the AI paddles of the ai-paddles scenario */
+    private static final float AI_PADDLE_SPACING = 25f;
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    private static final double SECONDS_PER_MINUTE = 60.0;
+    private static final String COMPARE = "compare";
+    private static final String ALL = "all";
+    private static final String SAMPLE_KEY = "sample";
+    private static final String REPORT_SUFFIX = ".txt";
+
+    /** Metrics the compare command checks; for all of them, higher is worse */
+    private static final String[] COMPARED_METRICS = {"frame_p50_us", "frame_p99_us",
+            "frame_p999_us", "frame_max_us", "gc_per_minute", "gc_ms_per_minute",
+            "heap_peak_mb", "live_objects_slope_per_minute", "heap_used_slope_mb_per_minute"};
+
+    /**
+     * The load scenarios.
+     */
+    public enum Scenario {
+        /** A board of thousands of bricks, much larger than the window */
+        HUGE_BOARD("huge-board", 60, 40, new Vector2(2800, 2000), null, 0, DEFAULT_SECONDS),
+        /** Every brick spawns pucks, so pucks break more bricks that spawn more pucks */
+        EXTRA_BALLS("extra-balls", 16, 10, WINDOW_DIMENSIONS, "extraBalls", 0,
+                DEFAULT_SECONDS),
+        /** Every brick turns the ball to turbo, so it practically never slows down */
+        PERMANENT_TURBO("permanent-turbo", 16, 10, WINDOW_DIMENSIONS, "turbo", 0,
+                DEFAULT_SECONDS),
+        /** Many AI paddles intercepting the balls at once */
+        AI_PADDLES("ai-paddles", 8, 7, WINDOW_DIMENSIONS, null, 12, DEFAULT_SECONDS),
+        /** The regular game, games after games, for hours */
+        SOAK("soak", 8, 7, WINDOW_DIMENSIONS, null, 0, SOAK_SECONDS);
+
+        private final String label;
+        private final int bricksPerRow;
+        private final int rows;
+        private final Vector2 board;
+        private final String forcedStrategy;
+        private final int aiPaddles;
+        private final int defaultSeconds;
+
+        Scenario(String label, int bricksPerRow, int rows, Vector2 board, String forcedStrategy,
+                 int aiPaddles, int defaultSeconds) {
+            this.label = label;
+            this.bricksPerRow = bricksPerRow;
+            this.rows = rows;
+            this.board = board;
+            this.forcedStrategy = forcedStrategy;
+            this.aiPaddles = aiPaddles;
+            this.defaultSeconds = defaultSeconds;
+        }
+
+        /**
+         * @return the name of the scenario on the command line and in reports
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @param label a name given on the command line
+         * @return the scenario with that name, or null
+         */
+        public static Scenario byLabel(String label) {
+            for (Scenario scenario : values()) {
+                if (scenario.label.equals(label)) return scenario;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Adds the AI paddles of a scenario every time the game is initialized.
+     */
+    private static final class AIPaddleSpawner implements GameEventListener {
+        private final int count;
+
+        private AIPaddleSpawner(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void onGameInitialized(BrickerGameManager gameManager) {
+            Paddle userPaddle = gameManager.getUserPaddle();
+            Vector2 board = gameManager.getBoardDimensions();
+            for (int i = 0; i < count; i++) {
+                Vector2 topLeft = new Vector2(board.x() / 2,
+                        board.y() / 2 + (i - count / 2f) * AI_PADDLE_SPACING);
+                gameManager.addGameObjectFromGame(new AIPaddle(topLeft,
+                        userPaddle.getDimensions(), userPaddle.renderer().getRenderable(),
+                        userPaddle, gameManager, AIPaddle.Mode.INTERCEPT));
+            }
+        }
+    }
+
+    /**
+     * private members
+     * reportDirectory - where the reports are written
+     */
+    private final Path reportDirectory;
+
+    /**
+     * constructs a harness
+     * @param reportDirectory where the reports are written
+     */
+    public StressHarness(Path reportDirectory) {
+        this.reportDirectory = reportDirectory;
+    }
+
+    /**
+     * Runs a scenario and writes its report.
+     * @param scenario the scenario
+     * @param seconds  wall-clock time of the run
+     * @return the report file
+     */
+    public Path run(Scenario scenario, int seconds) {
+        System.out.printf("running %s for %d s%n", scenario.label, seconds);
+        BrickerGameManager gameManager = new BrickerGameManager(BrickerGameManager.BRICKER,
+                WINDOW_DIMENSIONS, scenario.bricksPerRow, scenario.rows, scenario.board);
+        // kept by the manager, so the games that follow the first one get it too
+        gameManager.setForcedStrategy(scenario.forcedStrategy);
+        if (scenario.aiPaddles > 0) {
+            gameManager.addGameEventListener(new AIPaddleSpawner(scenario.aiPaddles));
+        }
+        gameManager.initializeHeadless();
+
+        long[] histogram = new long[HISTOGRAM_MICROS + 1];
+        long maxFrameNanos = 0;
+        long frames = 0;
+        List<double[]> samples = new ArrayList<>();
+        long runNanos = (long) (seconds * NANOS_PER_SECOND);
+        long sampleNanos = Math.max(MIN_SAMPLE_NANOS, runNanos / MAX_SAMPLES);
+        long gcCountBefore = gcCount();
+        long gcMillisBefore = gcMillis();
+        resetHeapPeaks();
+        long start = System.nanoTime();
+        long nextSample = start;
+        long now = start;
+        while (now - start < runNanos) {
+            gameManager.update(FRAME_TIME);
+            long end = System.nanoTime();
+            long frameNanos = end - now;
+            histogram[(int) Math.min(HISTOGRAM_MICROS, frameNanos / (long) NANOS_PER_MICRO)]++;
+            maxFrameNanos = Math.max(maxFrameNanos, frameNanos);
+            frames++;
+            now = end;
+            if (now >= nextSample) {
+                samples.add(sample(gameManager, (now - start) / NANOS_PER_SECOND, frames));
+                nextSample += sampleNanos;
+            }
+        }
+        double elapsedSeconds = (now - start) / NANOS_PER_SECOND;
+        samples.add(sample(gameManager, elapsedSeconds, frames));
+
+        Map<String, String> report = new LinkedHashMap<>();
+        report.put("scenario", scenario.label);
+        report.put("seconds", format(elapsedSeconds));
+        report.put("frames", Long.toString(frames));
+        report.put("games_completed", Integer.toString(gameManager.getCompletedGames()));
+        report.put("frame_p50_us", Long.toString(percentile(histogram, frames, 0.50)));
+        report.put("frame_p90_us", Long.toString(percentile(histogram, frames, 0.90)));
+        report.put("frame_p99_us", Long.toString(percentile(histogram, frames, 0.99)));
+        report.put("frame_p999_us", Long.toString(percentile(histogram, frames, 0.999)));
+        report.put("frame_max_us", format(maxFrameNanos / NANOS_PER_MICRO));
+        double minutes = elapsedSeconds / SECONDS_PER_MINUTE;
+        long collections = gcCount() - gcCountBefore;
+        long gcMillis = gcMillis() - gcMillisBefore;
+        report.put("gc_count", Long.toString(collections));
+        report.put("gc_ms", Long.toString(gcMillis));
+        report.put("gc_per_minute", format(collections / minutes));
+        report.put("gc_ms_per_minute", format(gcMillis / minutes));
+        report.put("heap_peak_mb", format(heapPeakBytes() / BYTES_PER_MB));
+        double liveObjectsMax = 0;
+        for (double[] sample : samples) {
+            liveObjectsMax = Math.max(liveObjectsMax, sample[2]);
+        }
+        report.put("live_objects_max", format(liveObjectsMax));
+        report.put("live_objects_slope_per_minute",
+                format(slope(samples, 2) * SECONDS_PER_MINUTE));
+        report.put("heap_used_slope_mb_per_minute",
+                format(slope(samples, 4) * SECONDS_PER_MINUTE));
+        report.put("java", System.getProperty("java.version"));
+        report.put("cores", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        Path file = reportDirectory.resolve(scenario.label + REPORT_SUFFIX);
+        write(file, report, samples);
+        System.out.printf("%s: p50 %s us, p99 %s us, max %s us, %s GCs, heap peak %s MB -> %s%n",
+                scenario.label, report.get("frame_p50_us"), report.get("frame_p99_us"),
+                report.get("frame_max_us"), report.get("gc_count"), report.get("heap_peak_mb"),
+                file);
+        return file;
+    }
+
+    /**
+     * Compares two reports of the same scenario, and prints every compared metric with its
+     * change. A metric that grew by more than 10% is flagged.
+     * @param baseline  the report of the previous build
+     * @param candidate the report of the new build
+     * @return the number of metrics that regressed
+     */
+    public static int compare(Path baseline, Path candidate) {
+        Map<String, String> before = read(baseline);
+        Map<String, String> after = read(candidate);
+        System.out.printf("%-32s %14s %14s %9s%n", before.get("scenario"), "baseline",
+                "candidate", "change");
+        int regressions = 0;
+        for (String metric : COMPARED_METRICS) {
+            if (!before.containsKey(metric) || !after.containsKey(metric)) continue;
+            double old = Double.parseDouble(before.get(metric));
+            double now = Double.parseDouble(after.get(metric));
+            double change = old == 0 ? (now == 0 ? 0 : Double.POSITIVE_INFINITY) :
+                    (now - old) / Math.abs(old);
+            // a slope that stays around zero is no leak, whatever its relative change
+            boolean regressed = change > REGRESSION_THRESHOLD &&
+                    (!metric.contains("slope") || now > 0);
+            if (regressed) regressions++;
+            System.out.printf("%-32s %14s %14s %+8.1f%%%s%n", metric, before.get(metric),
+                    after.get(metric), change * 100, regressed ? "  REGRESSION" : "");
+        }
+        return regressions;
+    }
+
+    /**
+     * @return the time since the start, the frames, the live objects, the live balls and the
+     * used heap in MB
+     */
+    private static double[] sample(BrickerGameManager gameManager, double seconds, long frames) {
+        int liveObjects = 0;
+        for (Object ignored : gameManager.gameObjects()) {
+            liveObjects++;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        double heapUsed = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MB;
+        return new double[]{seconds, frames, liveObjects, gameManager.getLiveBalls().size(),
+                heapUsed};
+    }
+
+    /**
+     * @return the least-squares slope, per second, of a column of the samples, leaving the
+     * warm-up out
+     */
+    private static double slope(List<double[]> samples, int column) {
+        int from = (int) (samples.size() * WARMUP_SHARE);
+        int n = samples.size() - from;
+        if (n < 2) return 0;
+        double sumT = 0, sumV = 0, sumTT = 0, sumTV = 0;
+        for (int i = from; i < samples.size(); i++) {
+            double t = samples.get(i)[0];
+            double v = samples.get(i)[column];
+            sumT += t;
+            sumV += v;
+            sumTT += t * t;
+            sumTV += t * v;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        return denominator == 0 ? 0 : (n * sumTV - sumT * sumV) / denominator;
+    }
+
+    /**
+     * @return the frame time, in microseconds, at the given percentile of the histogram
+     */
+    private static long percentile(long[] histogram, long total, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int micros = 0; micros < histogram.length; micros++) {
+            seen += histogram[micros];
+            if (seen >= rank) return micros;
+        }
+        return HISTOGRAM_MICROS;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * @return the sum of the peak usage of the heap pools since they were reset
+     */
+    private static long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    /**
+     * Writes the metrics, then one line per sample.
+     */
+    private static void write(Path file, Map<String, String> report, List<double[]> samples) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file,
+                    StandardCharsets.UTF_8))) {
+                out.println("# bricker stress report");
+                for (Map.Entry<String, String> entry : report.entrySet()) {
+                    out.println(entry.getKey() + "=" + entry.getValue());
+                }
+                out.println("# sample=seconds,frames,live_objects,live_balls,heap_used_mb");
+                for (double[] sample : samples) {
+                    out.printf("%s=%.1f,%d,%d,%d,%.1f%n", SAMPLE_KEY, sample[0],
+                            (long) sample[1], (long) sample[2], (long) sample[3], sample[4]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the metrics of a report, without the samples
+     */
+    private static Map<String, String> read(Path file) {
+        Map<String, String> report = new LinkedHashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int separator = line.indexOf('=');
+                if (line.startsWith("#") || separator < 0) continue;
+                String key = line.substring(0, separator);
+                if (!key.equals(SAMPLE_KEY)) {
+                    report.put(key, line.substring(separator + 1));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return report;
+    }
+
+    /**
+     * Entry point of the harness.
+     * @param args Command-line arguments, one of:
+     *             [scenario|all] [seconds] [report directory] - runs one or all scenarios
+     *             (the soak scenario only when named), for the given time or the scenario's
+     *             default;
+     *             compare [baseline report] [candidate report] - compares two reports, and
+     *             exits with status 1 if a metric regressed.
+     */
+    public static void main(String[] args) {
+        if (args.length == 3 && args[0].equals(COMPARE)) {
+            int regressions = compare(Paths.get(args[1]), Paths.get(args[2]));
+            System.exit(regressions == 0 ? 0 : 1);
+        }
+        String name = args.length > 0 ? args[0] : ALL;
+        Integer seconds = args.length > 1 ? Integer.valueOf(args[1]) : null;
+        Path directory = Paths.get(args.length > 2 ? args[2] : DEFAULT_REPORT_DIRECTORY);
+        StressHarness harness = new StressHarness(directory);
+        if (name.equals(ALL)) {
+            for (Scenario scenario : Scenario.values()) {
+                if (scenario == Scenario.SOAK) continue;
+                harness.run(scenario, seconds != null ? seconds : scenario.defaultSeconds);
+            }
+            return;
+        }
+        Scenario scenario = Scenario.byLabel(name);
+        if (scenario == null) {
+            System.err.println("unknown scenario: " + name);
+            System.exit(1);
+        }
+        harness.run(scenario, seconds != null ? seconds : scenario.defaultSeconds);
+    }
+}
@@ -0,0 +1,472 @@
+package bricker.main;
+
+import danogl.GameObject;
+import danogl.collisions.Collision;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collides the moving objects of a game (balls, pucks, falling hearts, the user paddle and AI
+ * paddles) with each other, instead of the engine testing every pair of them. The engine still
+ * collides them with the bricks and walls, which are in another layer.
+ * <p>
+ * The objects are kept sorted by the left side of their box. Every frame the sides are read
+ * again and the order is repaired with an insertion sort, which is close to linear since the
+ * objects move little between frames. Sweeping the sorted objects from left to right, every
+ * object is tested only against the following objects whose left side is before its right
+ * side. The pairs whose boxes overlap are the contacts, and the objects get the usual
+ * onCollisionEnter, onCollisionStay and onCollisionExit callbacks for them, as they would from
+ * the engine.
+ * <p>
+ * Every object has an entry in an identity map, so adding, removing and looking up an object
+ * take constant time. A removed object is only marked in its entry, and the next sweep drops
+ * the marked objects in the same pass that reads the boxes.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#getSweepAndPrune
+ * @see BroadphaseBenchmark
+ */
+public class SweepAndPrune {
+    /** System property that turns the sweep-and-prune collisions on or off (off by default) */
+    public static final String ENABLED_PROPERTY = "bricker.sweepAndPrune";
+
+    /** Objects the arrays are created with, they grow as needed */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Receives the pairs of objects whose boxes overlap.
+     */
+    public interface PairSink {
+        /**
+         * @param a an object
+         * @param b an object after it in the sorted order
+         */
+        void accept(GameObject a, GameObject b);
+    }
+
+    /**
+     * The collision the callbacks get for a contact found by the sweep.
+     */
+    private static final class SweptCollision extends Collision {
+        private final Vector2 normal;
+        private final Vector2 position;
+        private final Vector2 relativeVelocity;
+
+        private SweptCollision(Vector2 normal, Vector2 position, Vector2 relativeVelocity) {
+            this.normal = normal;
+            this.position = position;
+            this.relativeVelocity = relativeVelocity;
+        }
+
+        @Override
+        public Vector2 getNormal() {
+            return normal;
+        }
+
+        @Override
+        public Vector2 getPositionOfCollision() {
+            return position;
+        }
+
+        @Override
+        public Vector2 getRelativeVelocity() {
+            return relativeVelocity;
+        }
+    }
+
+    /**
+     * The membership of an object, shared by the map and the sorted arrays.
+     */
+    private static final class Entry {
+        private boolean removed;
+    }
+
+    /**
+     * A set of pairs of object ids, with open addressing, so tracking the contacts of a frame
+     * does not box them.
+     */
+    private static final class PairSet {
+        private static final long EMPTY = -1;
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private int size;
+
+        private PairSet() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        private boolean contains(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return true;
+                if (keys[i] == EMPTY) return false;
+            }
+        }
+
+        private void add(long key) {
+            if (2 * (size + 1) > keys.length) {
+                long[] old = keys;
+                keys = new long[old.length * 2];
+                Arrays.fill(keys, EMPTY);
+                size = 0;
+                for (long oldKey : old) {
+                    if (oldKey != EMPTY) add(oldKey);
+                }
+            }
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) return;
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            size++;
+        }
+
+        private void clear() {
+            if (size == 0) return;
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * private members
+     * objects - the objects, sorted by the left side of their box as of the last sweep
+     * entries - the entry of every object, in the same order, and by object in members
+     * ids - a number of every object, for the pairs of contacts
+     * minX, maxX, minY, maxY - the boxes of the objects, in the same order
+     * count - the number of objects in the arrays, including the removed ones
+     * pendingRemovals - the number of removed objects still in the arrays
+     * nextId - the id of the next added object
+     * contacts, previousContacts - the pairs in contact in this frame and the previous one
+     * contactA, contactB, contactKeys - the objects and pairs of the contacts of this frame,
+     * in the order found, and previousA, previousB, previousKeys of the previous frame
+     * contactCount, previousCount - the number of contacts of this frame and the previous one
+     * removals - counts the removed objects, to know when a contact may have lost an object
+     * lastCandidates, lastPairs, lastSwaps, lastSweepNanos - statistics of the last sweep
+     */
+    private GameObject[] objects = new GameObject[INITIAL_CAPACITY];
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+    private final Map<GameObject, Entry> members = new IdentityHashMap<>();
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private float[] minX = new float[INITIAL_CAPACITY];
+    private float[] maxX = new float[INITIAL_CAPACITY];
+    private float[] minY = new float[INITIAL_CAPACITY];
+    private float[] maxY = new float[INITIAL_CAPACITY];
+    private int count;
+    private int pendingRemovals;
+    private int nextId;
+    private PairSet contacts = new PairSet();
+    private PairSet previousContacts = new PairSet();
+    private GameObject[] contactA = new GameObject[INITIAL_CAPACITY];
+    private GameObject[] contactB = new GameObject[INITIAL_CAPACITY];
+    private GameObject[] previousA = new GameObject[INITIAL_CAPACITY];
+    private GameObject[] previousB = new GameObject[INITIAL_CAPACITY];
+    private long[] contactKeys = new long[INITIAL_CAPACITY];
+    private long[] previousKeys = new long[INITIAL_CAPACITY];
+    private int contactCount;
+    private int previousCount;
+    private int removals;
+    private long lastCandidates;
+    private int lastPairs;
+    private int lastSwaps;
+    private long lastSweepNanos;
+
+    /**
+     * @return true if {@value #ENABLED_PROPERTY} turns the sweep-and-prune collisions on
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * @param object a moving object that was added to the game
+     */
+    public void add(GameObject object) {
+        if (members.containsKey(object)) return;
+        if (count == objects.length) {
+            int capacity = 2 * count;
+            objects = Arrays.copyOf(objects, capacity);
+            entries = Arrays.copyOf(entries, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+        }
+        // added last, the next sweep moves it to its place
+        Entry entry = new Entry();
+        members.put(object, entry);
+        objects[count] = object;
+        entries[count] = entry;
+        ids[count] = nextId++;
+        count++;
+    }
+
+    /**
+     * @param object an object that left the game
+     */
+    public void remove(GameObject object) {
+        Entry entry = members.remove(object);
+        if (entry == null) return;
+        // left in the arrays until the next sweep
+        entry.removed = true;
+        pendingRemovals++;
+        removals++;
+    }
+
+    /**
+     * Forgets all the objects and contacts, when the game is reset.
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, count, null);
+        Arrays.fill(entries, 0, count, null);
+        members.clear();
+        count = 0;
+        pendingRemovals = 0;
+        contacts.clear();
+        previousContacts.clear();
+        Arrays.fill(contactA, 0, contactCount, null);
+        Arrays.fill(contactB, 0, contactCount, null);
+        Arrays.fill(previousA, 0, previousCount, null);
+        Arrays.fill(previousB, 0, previousCount, null);
+        contactCount = 0;
+        previousCount = 0;
+    }
+
+    /**
+     * @return the number of objects
+     */
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Reads the boxes of the objects, repairs the sorted order, and passes every pair of
+     * objects whose boxes overlap.
+     * @param sink receives the pairs
+     */
+    public void findPairs(PairSink sink) {
+        sweep(sink);
+    }
+
+    /**
+     * Finds the contacts of this frame and calls the collision callbacks of their objects:
+     * onCollisionEnter for a new contact, onCollisionStay for a contact that continues, and
+     * onCollisionExit for a contact of the previous frame that ended. Called once per frame,
+     * after the objects moved. Callbacks may remove objects from the game.
+     */
+    public void collide() {
+        PairSet swapSet = previousContacts;
+        previousContacts = contacts;
+        contacts = swapSet;
+        contacts.clear();
+        GameObject[] swapA = previousA;
+        GameObject[] swapB = previousB;
+        long[] swapKeys = previousKeys;
+        Arrays.fill(swapA, 0, previousCount, null);
+        Arrays.fill(swapB, 0, previousCount, null);
+        previousA = contactA;
+        previousB = contactB;
+        previousKeys = contactKeys;
+        contactA = swapA;
+        contactB = swapB;
+        contactKeys = swapKeys;
+        previousCount = contactCount;
+        contactCount = 0;
+        int removalsBefore = removals;
+        sweep(null);
+        for (int i = 0; i < contactCount; i++) {
+            GameObject a = contactA[i];
+            GameObject b = contactB[i];
+            // a callback of an earlier contact may have removed one of the objects
+            if (removals != removalsBefore &&
+                    (!members.containsKey(a) || !members.containsKey(b))) {
+                continue;
+            }
+            if (previousContacts.contains(contactKeys[i])) {
+                a.onCollisionStay(b, collisionOf(a, b));
+                b.onCollisionStay(a, collisionOf(b, a));
+            } else {
+                a.onCollisionEnter(b, collisionOf(a, b));
+                b.onCollisionEnter(a, collisionOf(b, a));
+            }
+        }
+        for (int i = 0; i < previousCount; i++) {
+            if (contacts.contains(previousKeys[i])) continue;
+            previousA[i].onCollisionExit(previousB[i]);
+            previousB[i].onCollisionExit(previousA[i]);
+        }
+    }
+
+    /**
+     * @return the number of pairs tested by the last sweep, whose boxes overlap on the x axis
+     */
+    public long getLastCandidates() {
+        return lastCandidates;
+    }
+
+    /**
+     * @return the number of pairs whose boxes overlapped in the last sweep
+     */
+    public int getLastPairs() {
+        return lastPairs;
+    }
+
+    /**
+     * @return the number of moves the insertion sort made in the last sweep
+     */
+    public int getLastSwaps() {
+        return lastSwaps;
+    }
+
+    /**
+     * @return the time the last sweep took, including the sort
+     */
+    public long getLastSweepNanos() {
+        return lastSweepNanos;
+    }
+
+    /**
+     * Repairs the sorted order and sweeps the objects from left to right. The overlapping
+     * pairs go to the sink, or are kept as contacts when there is no sink.
+     */
+    private void sweep(PairSink sink) {
+        long start = System.nanoTime();
+        sort();
+        long candidates = 0;
+        int pairs = 0;
+        for (int i = 0; i < count; i++) {
+            float right = maxX[i];
+            for (int j = i + 1; j < count && minX[j] <= right; j++) {
+                candidates++;
+                if (minY[j] <= maxY[i] && minY[i] <= maxY[j]) {
+                    pairs++;
+                    if (sink != null) {
+                        sink.accept(objects[i], objects[j]);
+                    } else {
+                        addContact(i, j);
+                    }
+                }
+            }
+        }
+        lastCandidates = candidates;
+        lastPairs = pairs;
+        lastSweepNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Narrow phase of a pair found by the sweep: keeps it as a contact if both objects
+     * collide with each other.
+     */
+    private void addContact(int i, int j) {
+        GameObject a = objects[i];
+        GameObject b = objects[j];
+        if (!a.shouldCollideWith(b) || !b.shouldCollideWith(a)) return;
+        if (contactCount == contactA.length) {
+            contactA = Arrays.copyOf(contactA, 2 * contactCount);
+            contactB = Arrays.copyOf(contactB, 2 * contactCount);
+            contactKeys = Arrays.copyOf(contactKeys, 2 * contactCount);
+        }
+        long key = ids[i] < ids[j] ? ((long) ids[i] << 32) | ids[j] :
+                ((long) ids[j] << 32) | ids[i];
+        contactA[contactCount] = a;
+        contactB[contactCount] = b;
+        contactKeys[contactCount] = key;
+        contactCount++;
+        contacts.add(key);
+    }
+
+    /**
+     * Drops the removed objects, reads the boxes of the others and sorts them by the left
+     * side of their box, with an insertion sort, which is fast on the order of the previous
+     * frame.
+     */
+    private void sort() {
+        if (pendingRemovals > 0) {
+            compact();
+        }
+        for (int i = 0; i < count; i++) {
+            minX[i] = objects[i].getTopLeftCorner().x();
+        }
+        int swaps = 0;
+        for (int i = 1; i < count; i++) {
+            float key = minX[i];
+            if (minX[i - 1] <= key) continue;
+            GameObject object = objects[i];
+            Entry entry = entries[i];
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= 0 && minX[j] > key) {
+                minX[j + 1] = minX[j];
+                objects[j + 1] = objects[j];
+                entries[j + 1] = entries[j];
+                ids[j + 1] = ids[j];
+                j--;
+                swaps++;
+            }
+            minX[j + 1] = key;
+            objects[j + 1] = object;
+            entries[j + 1] = entry;
+            ids[j + 1] = id;
+        }
+        lastSwaps = swaps;
+        for (int i = 0; i < count; i++) {
+            GameObject object = objects[i];
+            Vector2 corner = object.getTopLeftCorner();
+            Vector2 size = object.getDimensions();
+            maxX[i] = minX[i] + size.x();
+            minY[i] = corner.y();
+            maxY[i] = corner.y() + size.y();
+        }
+    }
+
+    /**
+     * @return the collision the first object gets for its contact with the second: the normal
+     * is along the axis of the smaller overlap, pointing from the second object to the first
+     */
+    private static Collision collisionOf(GameObject self, GameObject other) {
+        Vector2 selfCorner = self.getTopLeftCorner();
+        Vector2 selfSize = self.getDimensions();
+        Vector2 otherCorner = other.getTopLeftCorner();
+        Vector2 otherSize = other.getDimensions();
+        float left = Math.max(selfCorner.x(), otherCorner.x());
+        float right = Math.min(selfCorner.x() + selfSize.x(), otherCorner.x() + otherSize.x());
+        float top = Math.max(selfCorner.y(), otherCorner.y());
+        float bottom = Math.min(selfCorner.y() + selfSize.y(), otherCorner.y() + otherSize.y());
+        float dx = (selfCorner.x() + selfSize.x() / 2) - (otherCorner.x() + otherSize.x() / 2);
+        float dy = (selfCorner.y() + selfSize.y() / 2) - (otherCorner.y() + otherSize.y() / 2);
+        Vector2 normal = right - left < bottom - top ?
+                new Vector2(dx < 0 ? -1 : 1, 0) : new Vector2(0, dy < 0 ? -1 : 1);
+        Vector2 position = new Vector2((left + right) / 2, (top + bottom) / 2);
+        return new SweptCollision(normal, position,
+                other.getVelocity().subtract(self.getVelocity()));
+    }
+
+    /**
+     * Drops the removed objects from the arrays, keeping the order of the others.
+     */
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (entries[i].removed) continue;
+            objects[kept] = objects[i];
+            entries[kept] = entries[i];
+            ids[kept] = ids[i];
+            kept++;
+        }
+        Arrays.fill(objects, kept, count, null);
+        Arrays.fill(entries, kept, count, null);
+        count = kept;
+        pendingRemovals = 0;
+    }
+}
@@ -0,0 +1,126 @@
+package bricker.gameobjects;
+
+import bricker.main.TrajectoryQuery;
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+import java.util.List;
+
+/**
+ * Draws the path the main ball is predicted to take over its next bounces, as a dashed line,
+ * using the {@link TrajectoryQuery} of the game. The preview is an overlay: it does not take
+ * part in collisions. Its bounds follow the drawn path, and a new renderable is set whenever
+ * the path is computed, so renderers that only redraw what changed redraw the path too.
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see TrajectoryQuery
+ */
+public class TrajectoryPreview extends GameObject {
+    /** Number of bounces the preview shows */
+    private static final int PREVIEW_HITS = 4;
+
+    /** How far ahead the preview looks, in seconds */
+    private static final float PREVIEW_SECONDS = 3f;
+
+    private static final Color PATH_COLOR = new Color(255, 255, 255, 128);
+    private static final float[] DASH = {6f, 6f};
+    private static final Stroke PATH_STROKE = new BasicStroke(1f, BasicStroke.CAP_BUTT,
+            BasicStroke.JOIN_ROUND, 10f, DASH, 0f);
+
+    /**
+     * Draws a polyline, given relative to the top left corner of the preview.
+     */
+    private static final class PathRenderable implements Renderable {
+        private final int[] xs;
+        private final int[] ys;
+
+        private PathRenderable(int[] xs, int[] ys) {
+            this.xs = xs;
+            this.ys = ys;
+        }
+
+        @Override
+        public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                           double degreesCounterClockwise, boolean isFlippedHorizontally,
+                           boolean isFlippedVertically, double opaqueness) {
+            Color previousColor = g.getColor();
+            Stroke previousStroke = g.getStroke();
+            g.setColor(PATH_COLOR);
+            g.setStroke(PATH_STROKE);
+            g.translate(topLeftCorner.x(), topLeftCorner.y());
+            g.drawPolyline(xs, ys, xs.length);
+            g.translate(-topLeftCorner.x(), -topLeftCorner.y());
+            g.setStroke(previousStroke);
+            g.setColor(previousColor);
+        }
+    }
+
+    /**
+     * private members
+     * ball - the ball whose path is shown
+     * trajectoryQuery - predicts the path
+     */
+    private final GameObject ball;
+    private final TrajectoryQuery trajectoryQuery;
+
+    /**
+     * constructs a preview of a ball's path
+     * @param ball the ball whose path is shown
+     * @param trajectoryQuery the query service of the game
+     */
+    public TrajectoryPreview(GameObject ball, TrajectoryQuery trajectoryQuery) {
+        super(ball.getCenter(), Vector2.ONES, null);
+        this.ball = ball;
+        this.trajectoryQuery = trajectoryQuery;
+    }
+
+    /**
+     * Computes the path of the ball from where it is now.
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        List<TrajectoryQuery.Hit> hits = trajectoryQuery.cast(ball, PREVIEW_HITS, PREVIEW_SECONDS);
+        int points = hits.size() + 1;
+        float[] xs = new float[points];
+        float[] ys = new float[points];
+        xs[0] = ball.getCenter().x();
+        ys[0] = ball.getCenter().y();
+        for (int i = 1; i < points; i++) {
+            xs[i] = hits.get(i - 1).getCenter().x();
+            ys[i] = hits.get(i - 1).getCenter().y();
+        }
+        float minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0];
+        for (int i = 1; i < points; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int[] relativeXs = new int[points];
+        int[] relativeYs = new int[points];
+        for (int i = 0; i < points; i++) {
+            relativeXs[i] = Math.round(xs[i] - minX);
+            relativeYs[i] = Math.round(ys[i] - minY);
+        }
+        setTopLeftCorner(new Vector2(minX, minY));
+        setDimensions(new Vector2(maxX - minX + 1, maxY - minY + 1));
+        renderer().setRenderable(new PathRenderable(relativeXs, relativeYs));
+    }
+
+    /**
+     * The preview is only drawn, nothing collides with it.
+     * @param other another game object
+     * @return false
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return false;
+    }
+}
@@ -0,0 +1,401 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Answers "what will this ball hit next?" for gameplay code and bots. A query sweeps the
+ * ball's box from its position along its velocity, bounces it off the walls and the paddles,
+ * and returns the first hits, each with the time it happens.
+ * <p>
+ * Bricks are found in the {@link BrickGrid} of the game: one cell per brick, where a cell is
+ * the brick and the space after it. The swept box is traced through the grid one
+ * cell at a time with a grid traversal (DDA), testing only the bricks near each cell, so a
+ * query costs in proportion to the cells the ball crosses and not to the number of bricks.
+ * Like the game's collisions, the ball and the bricks are treated as boxes. Every brick a
+ * query hits is assumed to break (all the strategies remove the brick), and paddles are
+ * assumed to stay where they are.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see BrickerGameManager#getTrajectoryQuery
+ */
+public class TrajectoryQuery {
+    /** Hits closer than this to the start of a segment are the contact just left */
+    private static final float EPSILON = 1e-4f;
+
+    private static final float HALF = 0.5f;
+
+    /** Bricks a query can remember as hit before its array grows */
+    private static final int INITIAL_BROKEN = 8;
+
+    /**
+     * What the ball hits.
+     */
+    public enum Target {
+        /** A brick, given by {@link Hit#getObject()} */
+        BRICK,
+        /** One of the walls */
+        WALL,
+        /** A paddle, given by {@link Hit#getObject()} */
+        PADDLE,
+        /** The center of the ball passes the bottom of the window and the ball is lost;
+         * always the last hit */
+        FLOOR
+    }
+
+    /**
+     * A predicted hit.
+     */
+    public static final class Hit {
+        private final Target target;
+        private final float time;
+        private final Vector2 center;
+        private final Vector2 velocityAfter;
+        private final GameObject object;
+
+        private Hit(Target target, float time, Vector2 center, Vector2 velocityAfter,
+                    GameObject object) {
+            this.target = target;
+            this.time = time;
+            this.center = center;
+            this.velocityAfter = velocityAfter;
+            this.object = object;
+        }
+
+        /**
+         * @return what the ball hits
+         */
+        public Target getTarget() {
+            return target;
+        }
+
+        /**
+         * @return seconds from the query until the hit
+         */
+        public float getTime() {
+            return time;
+        }
+
+        /**
+         * @return the center of the ball at the hit
+         */
+        public Vector2 getCenter() {
+            return center;
+        }
+
+        /**
+         * @return the velocity of the ball after it bounced
+         */
+        public Vector2 getVelocityAfter() {
+            return velocityAfter;
+        }
+
+        /**
+         * @return the brick or paddle that was hit, null for walls and the floor
+         */
+        public GameObject getObject() {
+            return object;
+        }
+    }
+
+    /**
+     * The earliest hit found so far in a segment, and the axis of the face that was hit.
+     */
+    private static final class Candidate {
+        private float time = Float.POSITIVE_INFINITY;
+        private Target target;
+        private GameObject object;
+        private int brickIndex = -1;
+        private boolean flipX;
+        private boolean flipY;
+
+        private void offer(float time, Target target, GameObject object, int brickIndex,
+                           boolean flipX, boolean flipY) {
+            if (time >= this.time) return;
+            this.time = time;
+            this.target = target;
+            this.object = object;
+            this.brickIndex = brickIndex;
+            this.flipX = flipX;
+            this.flipY = flipY;
+        }
+    }
+
+    /**
+     * private members
+     * grid - the bricks in the game, layout - where they are
+     * paddles - the paddles the ball bounces off
+     * left, right, top - the inner sides of the walls, floor - the bottom of the window
+     * gridLeft, gridTop - corner of the first cell, columnPitch, rowPitch - size of a cell
+     */
+    private final BrickGrid grid;
+    private final BrickLayout layout;
+    private final List<GameObject> paddles;
+    private final float left;
+    private final float right;
+    private final float top;
+    private final float floor;
+    private final float gridLeft;
+    private final float gridTop;
+    private final float columnPitch;
+    private final float rowPitch;
+
+    /**
+     * constructs a query service for a board, with no paddles yet
+     * @param grid             the bricks of the board
+     * @param windowDimensions the size of the window, the walls are along its sides and top
+     */
+    public TrajectoryQuery(BrickGrid grid, Vector2 windowDimensions) {
+        this.grid = grid;
+        this.layout = grid.getLayout();
+        this.paddles = new ArrayList<>();
+        this.left = BrickLayout.BORDER_WIDTH;
+        this.right = windowDimensions.x() - BrickLayout.BORDER_WIDTH;
+        this.top = BrickLayout.BORDER_WIDTH;
+        this.floor = windowDimensions.y();
+        this.gridLeft = layout.columnX(0);
+        this.gridTop = layout.rowY(0);
+        this.columnPitch = grid.getColumnPitch();
+        this.rowPitch = grid.getRowPitch();
+    }
+
+    /**
+     * @param paddle a paddle that was added to the game
+     */
+    public void addPaddle(GameObject paddle) {
+        if (!paddles.contains(paddle)) {
+            paddles.add(paddle);
+        }
+    }
+
+    /**
+     * @param paddle a paddle that was removed from the game
+     */
+    public void removePaddle(GameObject paddle) {
+        paddles.remove(paddle);
+    }
+
+    /**
+     * Predicts the first hits of a ball.
+     * @param ball    the ball, its position, size and velocity are used
+     * @param maxHits the number of hits to return at most
+     * @param maxTime how far ahead to look, in seconds
+     * @return the hits, in the order they happen
+     */
+    public List<Hit> cast(GameObject ball, int maxHits, float maxTime) {
+        return cast(ball.getCenter(), ball.getDimensions().mult(HALF), ball.getVelocity(),
+                maxHits, maxTime);
+    }
+
+    /**
+     * Predicts the first hits of a box moving from a position at a velocity. A zero half
+     * size casts a ray.
+     * @param center   where the center of the box starts
+     * @param halfSize half of the width and height of the box
+     * @param velocity the velocity of the box, in pixels per second
+     * @param maxHits  the number of hits to return at most
+     * @param maxTime  how far ahead to look, in seconds
+     * @return the hits, in the order they happen
+     */
+    public List<Hit> cast(Vector2 center, Vector2 halfSize, Vector2 velocity,
+                          int maxHits, float maxTime) {
+        List<Hit> hits = new ArrayList<>();
+        float px = center.x();
+        float py = center.y();
+        float vx = velocity.x();
+        float vy = velocity.y();
+        float hw = halfSize.x();
+        float hh = halfSize.y();
+        float time = 0;
+        // the indices of the bricks hit so far, unboxed
+        int[] broken = new int[INITIAL_BROKEN];
+        int brokenCount = 0;
+        while (hits.size() < maxHits && time < maxTime && (vx != 0 || vy != 0)) {
+            float remaining = maxTime - time;
+            Candidate candidate = new Candidate();
+            findWallHit(candidate, px, py, vx, vy, hw, hh);
+            findBrickHit(candidate, px, py, vx, vy, hw, hh, remaining, broken, brokenCount);
+            for (GameObject paddle : paddles) {
+                Vector2 topLeft = paddle.getTopLeftCorner();
+                Vector2 dims = paddle.getDimensions();
+                testBox(candidate, px, py, vx, vy, topLeft.x() - hw, topLeft.y() - hh,
+                        topLeft.x() + dims.x() + hw, topLeft.y() + dims.y() + hh,
+                        Target.PADDLE, paddle, -1);
+            }
+            if (candidate.time > remaining) break;
+            px += vx * candidate.time;
+            py += vy * candidate.time;
+            time += candidate.time;
+            if (candidate.target == Target.FLOOR) {
+                hits.add(new Hit(Target.FLOOR, time, new Vector2(px, py),
+                        new Vector2(vx, vy), null));
+                break;
+            }
+            if (candidate.flipX) vx = -vx;
+            if (candidate.flipY) vy = -vy;
+            if (candidate.brickIndex >= 0) {
+                if (brokenCount == broken.length) {
+                    broken = Arrays.copyOf(broken, 2 * brokenCount);
+                }
+                broken[brokenCount++] = candidate.brickIndex;
+            }
+            hits.add(new Hit(candidate.target, time, new Vector2(px, py), new Vector2(vx, vy),
+                    candidate.object));
+        }
+        return hits;
+    }
+
+    /**
+     * Offers the next wall the box reaches, or the floor.
+     */
+    private void findWallHit(Candidate candidate, float px, float py, float vx, float vy,
+                             float hw, float hh) {
+        if (vx < 0) {
+            candidate.offer(Math.max(0, (left + hw - px) / vx), Target.WALL, null, -1,
+                    true, false);
+        } else if (vx > 0) {
+            candidate.offer(Math.max(0, (right - hw - px) / vx), Target.WALL, null, -1,
+                    true, false);
+        }
+        if (vy < 0) {
+            candidate.offer(Math.max(0, (top + hh - py) / vy), Target.WALL, null, -1,
+                    false, true);
+        } else if (vy > 0) {
+            candidate.offer(Math.max(0, (floor - py) / vy), Target.FLOOR, null, -1,
+                    false, false);
+        }
+    }
+
+    /**
+     * Walks the cells the center of the box crosses, in order, and offers the first brick the
+     * box hits. The bricks tested from a cell are the ones close enough to be reached by the
+     * box while its center is in the cell. The walk stops once the next cell is entered after
+     * the best hit found so far.
+     */
+    private void findBrickHit(Candidate candidate, float px, float py, float vx, float vy,
+                              float hw, float hh, float maxTime, int[] broken,
+                              int brokenCount) {
+        int columns = layout.bricksPerRow();
+        int rows = layout.rows();
+        int reachX = (int) Math.ceil(hw / columnPitch) + 1;
+        int reachY = (int) Math.ceil(hh / rowPitch) + 1;
+        // in endless mode the rows moved down from their place in the layout
+        float scroll = grid.getScrollOffset();
+        float scrolledTop = gridTop + scroll;
+
+        // the part of the path where the box can touch the grid at all
+        float[] span = slab(px, py, vx, vy, gridLeft - hw, scrolledTop - hh,
+                gridLeft + columns * columnPitch + hw, scrolledTop + rows * rowPitch + hh);
+        if (span == null || span[1] < 0 || span[0] > maxTime) return;
+        float t = Math.max(0, span[0]);
+        float end = Math.min(span[1], maxTime);
+
+        int column = clamp((int) Math.floor((px + vx * t - gridLeft) / columnPitch),
+                -reachX, columns - 1 + reachX);
+        int row = clamp((int) Math.floor((py + vy * t - scrolledTop) / rowPitch),
+                -reachY, rows - 1 + reachY);
+        int stepX = vx > 0 ? 1 : -1;
+        int stepY = vy > 0 ? 1 : -1;
+        float deltaX = vx == 0 ? Float.POSITIVE_INFINITY : columnPitch / Math.abs(vx);
+        float deltaY = vy == 0 ? Float.POSITIVE_INFINITY : rowPitch / Math.abs(vy);
+        float nextX = vx == 0 ? Float.POSITIVE_INFINITY :
+                (gridLeft + (column + (vx > 0 ? 1 : 0)) * columnPitch - px) / vx;
+        float nextY = vy == 0 ? Float.POSITIVE_INFINITY :
+                (scrolledTop + (row + (vy > 0 ? 1 : 0)) * rowPitch - py) / vy;
+
+        while (t <= end && t <= candidate.time) {
+            for (int c = column - reachX; c <= column + reachX; c++) {
+                for (int r = row - reachY; r <= row + reachY; r++) {
+                    Brick brick = grid.get(c, r);
+                    if (brick == null || contains(broken, brokenCount, brick.getIndex())) {
+                        continue;
+                    }
+                    float brickLeft = layout.columnX(c);
+                    float brickTop = layout.rowY(r) + scroll;
+                    testBox(candidate, px, py, vx, vy, brickLeft - hw, brickTop - hh,
+                            brickLeft + layout.brickLength() + hw,
+                            brickTop + BrickLayout.BRICK_HEIGHT + hh, Target.BRICK, brick,
+                            brick.getIndex());
+                }
+            }
+            if (nextX < nextY) {
+                t = nextX;
+                nextX += deltaX;
+                column += stepX;
+                if (column < -reachX || column > columns - 1 + reachX) return;
+            } else {
+                t = nextY;
+                nextY += deltaY;
+                row += stepY;
+                if (row < -reachY || row > rows - 1 + reachY) return;
+            }
+        }
+    }
+
+    /**
+     * Offers the time the center enters the (already expanded) box, if it does, flipping the
+     * velocity along the axis of the face it enters through.
+     */
+    private static void testBox(Candidate candidate, float px, float py, float vx, float vy,
+                                float minX, float minY, float maxX, float maxY,
+                                Target target, GameObject object, int brickIndex) {
+        float[] span = slab(px, py, vx, vy, minX, minY, maxX, maxY);
+        if (span == null || span[0] < EPSILON) return;
+        boolean enteredOnX = span[2] > 0;
+        candidate.offer(span[0], target, object, brickIndex, enteredOnX, !enteredOnX);
+    }
+
+    /**
+     * Intersects the line p + v*t with a box.
+     * @return {enter time, exit time, 1 if entered through a vertical face else 0}, or null
+     * if the line misses the box
+     */
+    private static float[] slab(float px, float py, float vx, float vy,
+                                float minX, float minY, float maxX, float maxY) {
+        float enterX;
+        float exitX;
+        if (vx == 0) {
+            if (px <= minX || px >= maxX) return null;
+            enterX = Float.NEGATIVE_INFINITY;
+            exitX = Float.POSITIVE_INFINITY;
+        } else {
+            float a = (minX - px) / vx;
+            float b = (maxX - px) / vx;
+            enterX = Math.min(a, b);
+            exitX = Math.max(a, b);
+        }
+        float enterY;
+        float exitY;
+        if (vy == 0) {
+            if (py <= minY || py >= maxY) return null;
+            enterY = Float.NEGATIVE_INFINITY;
+            exitY = Float.POSITIVE_INFINITY;
+        } else {
+            float a = (minY - py) / vy;
+            float b = (maxY - py) / vy;
+            enterY = Math.min(a, b);
+            exitY = Math.max(a, b);
+        }
+        float enter = Math.max(enterX, enterY);
+        float exit = Math.min(exitX, exitY);
+        if (enter > exit) return null;
+        return new float[]{enter, exit, enterX > enterY ? 1 : 0};
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package bricker.main;
+
+/**
+ * A game object that only lives until it leaves the board, such as a puck or a falling heart.
+ * Instead of checking its own position every frame, the object is removed by the
+ * {@link OffscreenSweeper} of the game once it is entirely outside the board.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see OffscreenSweeper
+ */
+public interface Transient {
+
+    /**
+     * Called on the game thread after the object left the board and was removed from the game.
+     */
+    void onDespawn();
+}
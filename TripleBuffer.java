@@ -0,0 +1,77 @@
+package bricker.main;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passes the newest of a stream of values from one writer thread to one reader thread without
+ * locks and without either thread ever waiting for the other. There are three slots: the
+ * writer fills its back slot and swaps it with the middle slot, and the reader swaps its front
+ * slot with the middle slot when the middle holds a value it did not read yet. Every slot is
+ * owned by exactly one side at a time, so a slot may be reused and filled in place; values
+ * the reader is too slow to take are overwritten.
+ *
+ * @param <T> type of the slots
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see SimulationThread
+ */
+public class TripleBuffer<T> {
+    /** Bit of the middle index that marks a value the reader did not take yet */
+    private static final int FRESH = 4;
+
+    /** Bits of the middle index that hold the slot */
+    private static final int SLOT_MASK = 3;
+
+    /**
+     * private members
+     * slots - the three slots
+     * middle - the slot in the middle, and whether it is fresh; written by both threads
+     * back - the slot of the writer, front - the slot of the reader
+     */
+    private final Object[] slots;
+    private final AtomicInteger middle;
+    private int back;
+    private int front;
+
+    /**
+     * constructs a buffer over three slots. The reader starts with the third one.
+     * @param first  the first slot
+     * @param second the second slot
+     * @param third  the third slot
+     */
+    public TripleBuffer(T first, T second, T third) {
+        this.slots = new Object[]{first, second, third};
+        this.back = 0;
+        this.middle = new AtomicInteger(1);
+        this.front = 2;
+    }
+
+    /**
+     * @return the slot the writer fills, owned by the writer until {@link #publish()}
+     */
+    @SuppressWarnings("unchecked")
+    public T writeSlot() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Publishes the filled slot as the newest value, and gives the writer another slot.
+     * Called by the writer thread.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & SLOT_MASK;
+    }
+
+    /**
+     * Takes the newest published value, if there is one the reader did not take yet.
+     * Called by the reader thread.
+     * @return the newest value, owned by the reader until the next call
+     */
+    @SuppressWarnings("unchecked")
+    public T readSlot() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & SLOT_MASK;
+        }
+        return (T) slots[front];
+    }
+}
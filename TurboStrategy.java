@@ -2,6 +2,8 @@ package bricker.brick_strategies;
 
 import bricker.gameobjects.Ball;
 import bricker.main.BrickerGameManager;
+import bricker.profiling.CollisionLog;
+import bricker.profiling.GameEvents;
 import danogl.GameObject;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
@@ -17,6 +19,9 @@ public class TurboStrategy implements CollisionStrategy{
     /** the speed the ball will be multiplied by.*/
     private static final float TURBO_SPEED = 1.4f;
 
+    /** The turbo ball turns back to normal on its seventh collision.*/
+    private static final int TURBO_HITS = 7;
+
     /** The path to find the image representing the turbo ball.*/
     private static final String RED_BALL_PATH = "assets/redball.png";
 
@@ -72,9 +77,12 @@ public class TurboStrategy implements CollisionStrategy{
         // if the ball is normal, then turn it to turbo
         if(!mainBall.getIsTurbo()){
             Vector2 newSpeed = mainBall.getVelocity().mult(TURBO_SPEED);
-            Renderable newImage = imageReader.readImage(RED_BALL_PATH, true);
+            Renderable newImage = GameEvents.loadImage(imageReader, RED_BALL_PATH, true);
             mainBall.changeCharacteristics(newSpeed, newImage);
             mainBall.setIsTurbo(true);
+            gameManager.getEffectScheduler().expireAfterEvents(mainBall, TURBO_HITS,
+                    mainBall::endTurbo);
+            CollisionLog.strategyEffect(this, thisObj, 1);
         }
     }
 }
@@ -0,0 +1,88 @@
+package bricker.main;
+
+import danogl.GameObject;
+import danogl.util.Counter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The changes that updates of dynamic objects make to the rest of the game. Effects created
+ * for the parallel update phase are recorded, one instance per chunk of objects, and applied
+ * on the game thread after the phase, chunk by chunk in a fixed order. Effects created for
+ * the game thread are applied right away.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see ParallelUpdatable
+ */
+public class UpdateEffects {
+    /**
+     * private members
+     * gameManager - the game the effects are applied to
+     * deferred - whether effects are recorded instead of applied
+     * recorded - the recorded effects, in the order they happened
+     */
+    private final BrickerGameManager gameManager;
+    private final boolean deferred;
+    private final List<Runnable> recorded;
+
+    /**
+     * constructs effects for a game
+     * @param gameManager the game the effects are applied to
+     * @param deferred    true to record the effects until {@link #apply()}, false to apply
+     *                    them right away
+     */
+    UpdateEffects(BrickerGameManager gameManager, boolean deferred) {
+        this.gameManager = gameManager;
+        this.deferred = deferred;
+        this.recorded = new ArrayList<>();
+    }
+
+    /**
+     * Removes a game object from the game.
+     * @param gameObject the object to remove
+     */
+    public void removeGameObject(GameObject gameObject) {
+        run(() -> gameManager.removeGameObjectFromGame(gameObject));
+    }
+
+    /**
+     * Gives the player another life.
+     */
+    public void addLife() {
+        run(gameManager::addLife);
+    }
+
+    /**
+     * Decrements a counter of the game, such as the brick counter.
+     * @param counter the counter to decrement
+     */
+    public void decrement(Counter counter) {
+        run(counter::decrement);
+    }
+
+    /**
+     * Performs any other change to the game, or to objects that are shared with the game
+     * thread.
+     * @param action the change
+     */
+    public void run(Runnable action) {
+        if (deferred) {
+            recorded.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Applies the recorded effects in the order they were recorded, and forgets them.
+     * Called on the game thread.
+     */
+    void apply() {
+        for (Runnable action : recorded) {
+            action.run();
+        }
+        recorded.clear();
+    }
+}
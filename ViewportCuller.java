@@ -0,0 +1,262 @@
+package bricker.rendering;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Renders a board that is larger than the window by drawing only the world objects inside the
+ * camera rectangle, plus a margin. The world objects are kept in a uniform grid of cells over
+ * the board, every object in the cells its bounds overlap, so the visible objects are found by
+ * visiting the cells under the camera instead of every object of the board. Objects that do
+ * not move (bricks, walls) are placed once; objects that move are moved to their new cells
+ * before every frame, which only touches the objects that move.
+ * <p>
+ * The background and UI layers are fixed to the window, and are always drawn. Visible objects
+ * are drawn in the order danogl would draw them: by layer, then in the order they were added.
+ *
+ * @author Ishay Shaul
+ * @author Maoz Bar Shimon
+ * @see bricker.main.BrickerGameManager#render
+ */
+public class ViewportCuller {
+    /** Width and height of a cell of the grid, in pixels */
+    private static final float CELL_SIZE = 64f;
+
+    /** Pixels added around the camera rectangle, so objects entering the view are drawn */
+    private static final float MARGIN = 32f;
+
+    /** Draws the visible objects by layer, then in the order they were added */
+    private static final Comparator<Entry> DRAWING_ORDER =
+            Comparator.<Entry>comparingInt(entry -> entry.layer)
+                    .thenComparingLong(entry -> entry.order);
+
+    /**
+     * An indexed object and the cells it is in.
+     */
+    private static final class Entry {
+        private final GameObject gameObject;
+        private final int layer;
+        private final long order;
+        private final boolean moves;
+        private int minCol;
+        private int minRow;
+        private int maxCol;
+        private int maxRow;
+        private long seenInQuery;
+        private int movingIndex;
+
+        private Entry(GameObject gameObject, int layer, long order, boolean moves) {
+            this.gameObject = gameObject;
+            this.layer = layer;
+            this.order = order;
+            this.moves = moves;
+        }
+    }
+
+    /**
+     * private members
+     * columns, rows - size of the grid
+     * cells - the entries of every cell, by col * rows + row
+     * entries - every indexed object
+     * moving - the entries that are moved to their new cells before every frame, each at its
+     * movingIndex
+     * nextOrder - order of the next added object
+     * query - number of lookups so far, marks entries already collected by a lookup
+     * visible - the entries collected by the last lookup
+     * lastDrawn - number of world objects drawn in the last frame
+     */
+    private final int columns;
+    private final int rows;
+    private final List<Entry>[] cells;
+    private final Map<GameObject, Entry> entries;
+    private final List<Entry> moving;
+    private long nextOrder;
+    private long query;
+    private final List<Entry> visible;
+    private int lastDrawn;
+
+    /**
+     * constructs an empty index over a board
+     * @param boardDimensions width and height of the board
+     */
+    @SuppressWarnings("unchecked")
+    public ViewportCuller(Vector2 boardDimensions) {
+        this.columns = Math.max(1, (int) Math.ceil(boardDimensions.x() / CELL_SIZE));
+        this.rows = Math.max(1, (int) Math.ceil(boardDimensions.y() / CELL_SIZE));
+        this.cells = (List<Entry>[]) new List<?>[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new ArrayList<>();
+        }
+        this.entries = new IdentityHashMap<>();
+        this.moving = new ArrayList<>();
+        this.visible = new ArrayList<>();
+    }
+
+    /**
+     * Indexes an object that was added to the game in world coordinates.
+     * @param gameObject the object
+     * @param layer      the layer it was added to
+     * @param moves      whether the object can move or be resized
+     */
+    public void add(GameObject gameObject, int layer, boolean moves) {
+        if (entries.containsKey(gameObject)) return;
+        Entry entry = new Entry(gameObject, layer, nextOrder++, moves);
+        entries.put(gameObject, entry);
+        if (moves) {
+            entry.movingIndex = moving.size();
+            moving.add(entry);
+        }
+        place(entry);
+    }
+
+    /**
+     * @param gameObject an object that left the game
+     */
+    public void remove(GameObject gameObject) {
+        Entry entry = entries.remove(gameObject);
+        if (entry == null) return;
+        if (entry.moves) {
+            // the last moving entry takes its place, the order of the moving ones is free
+            Entry last = moving.remove(moving.size() - 1);
+            if (last != entry) {
+                moving.set(entry.movingIndex, last);
+                last.movingIndex = entry.movingIndex;
+            }
+        }
+        forEachCell(entry, cell -> cell.remove(entry));
+    }
+
+    /**
+     * @return the number of indexed objects
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of world objects drawn in the last frame
+     */
+    public int getLastDrawn() {
+        return lastDrawn;
+    }
+
+    /**
+     * Draws a frame of the game: the background layer, the world objects around the camera,
+     * and the UI layer.
+     * @param g           the graphics of the window
+     * @param gameObjects the objects of the game
+     * @param camera      the camera of the game
+     */
+    public void render(Graphics2D g, GameObjectCollection gameObjects, Camera camera) {
+        for (Entry entry : moving) {
+            move(entry);
+        }
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.BACKGROUND)) {
+            gameObject.render(g, camera);
+        }
+        Vector2 topLeft = camera.getTopLeftCorner();
+        Vector2 dimensions = camera.getDimensions();
+        collect(topLeft.x() - MARGIN, topLeft.y() - MARGIN,
+                topLeft.x() + dimensions.x() + MARGIN, topLeft.y() + dimensions.y() + MARGIN);
+        visible.sort(DRAWING_ORDER);
+        for (Entry entry : visible) {
+            entry.gameObject.render(g, camera);
+        }
+        lastDrawn = visible.size();
+        visible.clear();
+        for (GameObject gameObject : gameObjects.objectsInLayer(Layer.UI)) {
+            gameObject.render(g, camera);
+        }
+    }
+
+    /**
+     * Collects into {@link #visible} every object whose bounds overlap the rectangle, once.
+     */
+    private void collect(float minX, float minY, float maxX, float maxY) {
+        query++;
+        int fromCol = column(minX);
+        int toCol = column(maxX);
+        int fromRow = row(minY);
+        int toRow = row(maxY);
+        for (int col = fromCol; col <= toCol; col++) {
+            for (int row = fromRow; row <= toRow; row++) {
+                for (Entry entry : cells[col * rows + row]) {
+                    if (entry.seenInQuery == query) continue;
+                    entry.seenInQuery = query;
+                    if (overlaps(entry.gameObject, minX, minY, maxX, maxY)) {
+                        visible.add(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves an entry to the cells of its current bounds, if they changed.
+     */
+    private void move(Entry entry) {
+        Vector2 topLeft = entry.gameObject.getTopLeftCorner();
+        Vector2 dimensions = entry.gameObject.getDimensions();
+        if (column(topLeft.x()) == entry.minCol && row(topLeft.y()) == entry.minRow &&
+                column(topLeft.x() + dimensions.x()) == entry.maxCol &&
+                row(topLeft.y() + dimensions.y()) == entry.maxRow) {
+            return;
+        }
+        forEachCell(entry, cell -> cell.remove(entry));
+        place(entry);
+    }
+
+    /**
+     * Adds an entry to the cells of its current bounds.
+     */
+    private void place(Entry entry) {
+        Vector2 topLeft = entry.gameObject.getTopLeftCorner();
+        Vector2 dimensions = entry.gameObject.getDimensions();
+        entry.minCol = column(topLeft.x());
+        entry.minRow = row(topLeft.y());
+        entry.maxCol = column(topLeft.x() + dimensions.x());
+        entry.maxRow = row(topLeft.y() + dimensions.y());
+        forEachCell(entry, cell -> cell.add(entry));
+    }
+
+    private void forEachCell(Entry entry, Consumer<List<Entry>> action) {
+        for (int col = entry.minCol; col <= entry.maxCol; col++) {
+            for (int row = entry.minRow; row <= entry.maxRow; row++) {
+                action.accept(cells[col * rows + row]);
+            }
+        }
+    }
+
+    /**
+     * @return the column of an x coordinate, objects beyond the board are in the edge columns
+     */
+    private int column(float x) {
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor(x / CELL_SIZE)));
+    }
+
+    /**
+     * @return the row of a y coordinate, objects beyond the board are in the edge rows
+     */
+    private int row(float y) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor(y / CELL_SIZE)));
+    }
+
+    private static boolean overlaps(GameObject gameObject, float minX, float minY,
+                                    float maxX, float maxY) {
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        return topLeft.x() <= maxX && topLeft.x() + dimensions.x() >= minX &&
+                topLeft.y() <= maxY && topLeft.y() + dimensions.y() >= minY;
+    }
+}